@@ -0,0 +1,75 @@
+package fr.lteconsulting.pomexplorer.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import fr.lteconsulting.pomexplorer.Log;
+import fr.lteconsulting.pomexplorer.PomAnalysis;
+import fr.lteconsulting.pomexplorer.Project;
+import fr.lteconsulting.pomexplorer.Session;
+
+/**
+ * A synthetic repository analyzed once per trial, shared by the benchmarks
+ * working on an already loaded session
+ */
+@State( Scope.Benchmark )
+public class AnalyzedRepository
+{
+	static final Log SILENT = log -> {
+	};
+
+	@Param( { "20" } )
+	public int width;
+
+	@Param( { "6" } )
+	public int depth;
+
+	@Param( { "2" } )
+	public int bomFanIn;
+
+	SyntheticRepository repository;
+
+	Session session;
+
+	/**
+	 * The layered projects, bottom layer first
+	 */
+	List<Project> projects;
+
+	@Setup( Level.Trial )
+	public void setUp() throws IOException
+	{
+		repository = new SyntheticRepository( width, depth, bomFanIn ).generate();
+
+		session = new Session();
+		PomAnalysis.runFullRecursiveAnalysis( repository.getRoot().toString(), session, repository.loader(), null, false, 1, SILENT );
+
+		projects = new ArrayList<>();
+		for( int layer = 0; layer < depth; layer++ )
+			for( int index = 0; index < width; index++ )
+				projects.add( session.projects().forGav( repository.projectGav( layer, index ) ) );
+	}
+
+	@TearDown( Level.Trial )
+	public void tearDown() throws IOException
+	{
+		repository.delete();
+	}
+
+	/**
+	 * @return the projects of the top layer, which have the deepest
+	 *         dependency trees
+	 */
+	List<Project> topProjects()
+	{
+		return projects.subList( projects.size() - width, projects.size() );
+	}
+}
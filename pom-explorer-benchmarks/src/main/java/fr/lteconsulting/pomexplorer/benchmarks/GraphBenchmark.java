@@ -0,0 +1,101 @@
+package fr.lteconsulting.pomexplorer.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import fr.lteconsulting.pomexplorer.PomAnalysis;
+import fr.lteconsulting.pomexplorer.Project;
+import fr.lteconsulting.pomexplorer.Session;
+import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphReadTransaction;
+
+/**
+ * Filling of the pom graph at the end of an analysis, and recursive walks
+ * on the committed graph
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class GraphBenchmark
+{
+	/**
+	 * An analysis stopped just before its projects are added to the graph,
+	 * prepared again before each invocation since adding them consumes them
+	 */
+	@State( Scope.Thread )
+	public static class CompletedAnalysis
+	{
+		@Param( { "20" } )
+		public int width;
+
+		@Param( { "6" } )
+		public int depth;
+
+		@Param( { "2" } )
+		public int bomFanIn;
+
+		private SyntheticRepository repository;
+
+		private PomAnalysis analysis;
+
+		@Setup( Level.Trial )
+		public void generate() throws IOException
+		{
+			repository = new SyntheticRepository( width, depth, bomFanIn ).generate();
+		}
+
+		@Setup( Level.Invocation )
+		public void analyze()
+		{
+			analysis = new PomAnalysis( new Session(), repository.loader(), null, false, AnalyzedRepository.SILENT );
+			analysis.addDirectory( repository.getRoot().toString() );
+			analysis.loadProjects();
+			analysis.completeLoadedProjects();
+			analysis.addCompletedProjectsToSession();
+		}
+
+		@TearDown( Level.Trial )
+		public void delete() throws IOException
+		{
+			repository.delete();
+		}
+	}
+
+	@Benchmark
+	public void addCompletedProjectsToGraph( CompletedAnalysis state, Blackhole blackhole )
+	{
+		blackhole.consume( state.analysis.addCompletedProjectsToGraph() );
+	}
+
+	@Benchmark
+	public void relationsRec( AnalyzedRepository state, Blackhole blackhole )
+	{
+		PomGraphReadTransaction tx = state.session.graph().read();
+		for( Project project : state.topProjects() )
+			blackhole.consume( tx.relationsRec( project.getGav() ) );
+	}
+
+	@Benchmark
+	public void relationsReverseRec( AnalyzedRepository state, Blackhole blackhole )
+	{
+		PomGraphReadTransaction tx = state.session.graph().read();
+		for( Project project : state.projects.subList( 0, state.width ) )
+			blackhole.consume( tx.relationsReverseRec( project.getGav() ) );
+	}
+}
@@ -0,0 +1,149 @@
+package fr.lteconsulting.pomexplorer.benchmarks;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import fr.lteconsulting.pomexplorer.Project;
+import fr.lteconsulting.pomexplorer.model.pom.PomModel;
+import fr.lteconsulting.pomexplorer.model.pom.PomModelReader;
+
+/**
+ * Reading of pom files, comparing the streaming reader used by
+ * {@link Project#readPomFile()} with the maven Xpp3 reader.
+ *
+ * <p>
+ * The synthetic repository is read by default. A directory of real pom
+ * files, a local maven repository for example, can be read instead with
+ * <code>-p corpus=/path/to/poms</code>.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class PomReadingBenchmark
+{
+	@Param( { "20" } )
+	public int width;
+
+	@Param( { "6" } )
+	public int depth;
+
+	@Param( { "2" } )
+	public int bomFanIn;
+
+	/**
+	 * Directory of pom files to read instead of the synthetic repository
+	 */
+	@Param( { "" } )
+	public String corpus;
+
+	private SyntheticRepository repository;
+
+	private List<File> pomFiles;
+
+	@Setup( Level.Trial )
+	public void setUp() throws IOException
+	{
+		if( corpus.isEmpty() )
+		{
+			repository = new SyntheticRepository( width, depth, bomFanIn ).generate();
+			pomFiles = repository.getPomFiles();
+		}
+		else
+		{
+			try( Stream<java.nio.file.Path> paths = Files.walk( Paths.get( corpus ) ) )
+			{
+				pomFiles = paths
+						.filter( path -> path.getFileName().toString().equals( "pom.xml" ) || path.getFileName().toString().endsWith( ".pom" ) )
+						.sorted()
+						.map( java.nio.file.Path::toFile )
+						.collect( Collectors.toList() );
+			}
+		}
+	}
+
+	@TearDown( Level.Trial )
+	public void tearDown() throws IOException
+	{
+		if( repository != null )
+			repository.delete();
+	}
+
+	@Benchmark
+	public void readPomFile( Blackhole blackhole )
+	{
+		for( File pomFile : pomFiles )
+		{
+			Project project = new Project( pomFile, false );
+			try
+			{
+				project.readPomFile();
+			}
+			catch( RuntimeException e )
+			{
+				// corpus files with unresolved gavs are part of real repositories
+			}
+			blackhole.consume( project );
+		}
+	}
+
+	@Benchmark
+	public void staxReader( Blackhole blackhole )
+	{
+		for( File pomFile : pomFiles )
+		{
+			try
+			{
+				blackhole.consume( PomModelReader.read( pomFile ) );
+			}
+			catch( IOException e )
+			{
+				blackhole.consume( e );
+			}
+		}
+	}
+
+	@Benchmark
+	public void xpp3Reader( Blackhole blackhole )
+	{
+		for( File pomFile : pomFiles )
+		{
+			try( FileReader reader = new FileReader( pomFile ) )
+			{
+				Model model = new MavenXpp3Reader().read( reader );
+				blackhole.consume( PomModel.fromMavenModel( model ) );
+			}
+			catch( IOException | XmlPullParserException e )
+			{
+				blackhole.consume( e );
+			}
+		}
+	}
+}
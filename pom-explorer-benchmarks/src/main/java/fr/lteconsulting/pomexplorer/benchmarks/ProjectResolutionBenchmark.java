@@ -0,0 +1,67 @@
+package fr.lteconsulting.pomexplorer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import fr.lteconsulting.pomexplorer.Project;
+
+/**
+ * Resolution of the dependencies and dependency management of all the
+ * projects of an analyzed repository.
+ *
+ * <p>
+ * The project caches are invalidated before each resolution, so that the
+ * parent and bom chains are walked again. The <code>cached</code> variants
+ * measure the resolution with warm caches.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class ProjectResolutionBenchmark
+{
+	@Benchmark
+	public void getLocalDependencies( AnalyzedRepository state, Blackhole blackhole )
+	{
+		state.session.propertyResolutionCache().clear();
+		for( Project project : state.projects )
+		{
+			project.invalidateCaches();
+			blackhole.consume( project.getLocalDependencies( null, null, state.session.projects(), AnalyzedRepository.SILENT, true ) );
+		}
+	}
+
+	@Benchmark
+	public void getLocalDependenciesCached( AnalyzedRepository state, Blackhole blackhole )
+	{
+		for( Project project : state.projects )
+			blackhole.consume( project.getLocalDependencies( null, null, state.session.projects(), AnalyzedRepository.SILENT, true ) );
+	}
+
+	@Benchmark
+	public void getHierarchicalDependencyManagement( AnalyzedRepository state, Blackhole blackhole )
+	{
+		state.session.propertyResolutionCache().clear();
+		for( Project project : state.projects )
+		{
+			project.invalidateCaches();
+			blackhole.consume( project.getHierarchicalDependencyManagement( null, null, state.session.projects(), AnalyzedRepository.SILENT, true ) );
+		}
+	}
+
+	@Benchmark
+	public void getHierarchicalDependencyManagementCached( AnalyzedRepository state, Blackhole blackhole )
+	{
+		for( Project project : state.projects )
+			blackhole.consume( project.getHierarchicalDependencyManagement( null, null, state.session.projects(), AnalyzedRepository.SILENT, true ) );
+	}
+}
@@ -0,0 +1,295 @@
+package fr.lteconsulting.pomexplorer.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.lteconsulting.pomexplorer.Log;
+import fr.lteconsulting.pomexplorer.PomFileLoader;
+import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
+
+/**
+ * Generates a multi-module repository of pom files, always the same for the
+ * same parameters, so that benchmarks do not depend on the network nor on a
+ * local maven repository.
+ *
+ * <p>
+ * The projects are organized in <code>depth</code> layers of
+ * <code>width</code> projects. Each project inherits from a common parent,
+ * imports the <code>bomFanIn</code> boms and depends on two projects of the
+ * layer below, without version, the boms managing the versions. The parent
+ * declares properties and a managed plugin so that interpolation and plugin
+ * resolution have work to do.
+ */
+public class SyntheticRepository
+{
+	public static final String GROUP_ID = "fr.lteconsulting.bench";
+	public static final String VERSION = "1.0";
+
+	private final int width;
+	private final int depth;
+	private final int bomFanIn;
+
+	private final Map<Gav, File> pomFiles = new HashMap<>();
+	private final List<File> projectPomFiles = new ArrayList<>();
+	private Path root;
+
+	public SyntheticRepository( int width, int depth, int bomFanIn )
+	{
+		if( width < 1 || depth < 1 || bomFanIn < 0 )
+			throw new IllegalArgumentException( "width and depth should be at least 1, and bomFanIn positive" );
+
+		this.width = width;
+		this.depth = depth;
+		this.bomFanIn = bomFanIn;
+	}
+
+	/**
+	 * Writes the pom files in a new temporary directory
+	 */
+	public SyntheticRepository generate() throws IOException
+	{
+		root = Files.createTempDirectory( "pom-explorer-bench-" );
+
+		write( root.resolve( "parent" ), parentGav(), parentPom() );
+		for( int b = 0; b < bomFanIn; b++ )
+			write( root.resolve( "boms" ).resolve( bomGav( b ).getArtifactId() ), bomGav( b ), bomPom( b ) );
+		for( int layer = 0; layer < depth; layer++ )
+		{
+			for( int index = 0; index < width; index++ )
+			{
+				Gav gav = projectGav( layer, index );
+				projectPomFiles.add( write( root.resolve( "layer-" + layer ).resolve( gav.getArtifactId() ), gav, projectPom( layer, index ) ) );
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Deletes the generated files
+	 */
+	public void delete() throws IOException
+	{
+		if( root == null )
+			return;
+
+		Files.walk( root )
+				.sorted( ( a, b ) -> b.compareTo( a ) )
+				.forEach( path -> path.toFile().delete() );
+		root = null;
+	}
+
+	public Path getRoot()
+	{
+		return root;
+	}
+
+	/**
+	 * @return all the generated pom files, parent and boms included
+	 */
+	public List<File> getPomFiles()
+	{
+		return new ArrayList<>( pomFiles.values() );
+	}
+
+	/**
+	 * @return the pom files of the layered projects, bottom layer first
+	 */
+	public List<File> getProjectPomFiles()
+	{
+		return projectPomFiles;
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getDepth()
+	{
+		return depth;
+	}
+
+	public Gav projectGav( int layer, int index )
+	{
+		return new Gav( GROUP_ID, "l" + layer + "-p" + index, VERSION );
+	}
+
+	/**
+	 * A loader finding the generated pom files, and nothing else
+	 */
+	public PomFileLoader loader()
+	{
+		return new PomFileLoader()
+		{
+			@Override
+			public File loadPomFileForGav( Gav gav, List<Repository> additionalRepos, Log log )
+			{
+				return pomFiles.get( gav );
+			}
+		};
+	}
+
+	private Gav parentGav()
+	{
+		return new Gav( GROUP_ID, "parent", VERSION );
+	}
+
+	private Gav bomGav( int bom )
+	{
+		return new Gav( GROUP_ID, "bom-" + bom, VERSION );
+	}
+
+	private File write( Path directory, Gav gav, String content ) throws IOException
+	{
+		Files.createDirectories( directory );
+		Path pom = directory.resolve( "pom.xml" );
+		Files.write( pom, content.getBytes( StandardCharsets.UTF_8 ) );
+
+		pomFiles.put( gav, pom.toFile() );
+		return pom.toFile();
+	}
+
+	private String parentPom()
+	{
+		StringBuilder sb = new StringBuilder();
+		header( sb );
+		gav( sb, parentGav() );
+		sb.append( "  <packaging>pom</packaging>\n" );
+		sb.append( "  <properties>\n" );
+		sb.append( "    <bench.version>" ).append( VERSION ).append( "</bench.version>\n" );
+		sb.append( "    <compiler.version>3.3</compiler.version>\n" );
+		sb.append( "    <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>\n" );
+		sb.append( "  </properties>\n" );
+		sb.append( "  <build>\n" );
+		sb.append( "    <pluginManagement>\n" );
+		sb.append( "      <plugins>\n" );
+		sb.append( "        <plugin>\n" );
+		sb.append( "          <groupId>org.apache.maven.plugins</groupId>\n" );
+		sb.append( "          <artifactId>maven-compiler-plugin</artifactId>\n" );
+		sb.append( "          <version>${compiler.version}</version>\n" );
+		sb.append( "        </plugin>\n" );
+		sb.append( "      </plugins>\n" );
+		sb.append( "    </pluginManagement>\n" );
+		sb.append( "  </build>\n" );
+		sb.append( "</project>\n" );
+		return sb.toString();
+	}
+
+	/**
+	 * Each bom manages one slice of the projects
+	 */
+	private String bomPom( int bom )
+	{
+		StringBuilder sb = new StringBuilder();
+		header( sb );
+		parent( sb );
+		sb.append( "  <artifactId>" ).append( bomGav( bom ).getArtifactId() ).append( "</artifactId>\n" );
+		sb.append( "  <packaging>pom</packaging>\n" );
+		sb.append( "  <dependencyManagement>\n" );
+		sb.append( "    <dependencies>\n" );
+		for( int layer = 0; layer < depth; layer++ )
+		{
+			for( int index = 0; index < width; index++ )
+			{
+				if( (layer * width + index) % bomFanIn != bom )
+					continue;
+
+				sb.append( "      <dependency>\n" );
+				sb.append( "        <groupId>" ).append( GROUP_ID ).append( "</groupId>\n" );
+				sb.append( "        <artifactId>" ).append( projectGav( layer, index ).getArtifactId() ).append( "</artifactId>\n" );
+				sb.append( "        <version>${bench.version}</version>\n" );
+				sb.append( "      </dependency>\n" );
+			}
+		}
+		sb.append( "    </dependencies>\n" );
+		sb.append( "  </dependencyManagement>\n" );
+		sb.append( "</project>\n" );
+		return sb.toString();
+	}
+
+	private String projectPom( int layer, int index )
+	{
+		StringBuilder sb = new StringBuilder();
+		header( sb );
+		parent( sb );
+		sb.append( "  <artifactId>" ).append( projectGav( layer, index ).getArtifactId() ).append( "</artifactId>\n" );
+
+		if( bomFanIn > 0 )
+		{
+			sb.append( "  <dependencyManagement>\n" );
+			sb.append( "    <dependencies>\n" );
+			for( int b = 0; b < bomFanIn; b++ )
+			{
+				sb.append( "      <dependency>\n" );
+				sb.append( "        <groupId>" ).append( GROUP_ID ).append( "</groupId>\n" );
+				sb.append( "        <artifactId>" ).append( bomGav( b ).getArtifactId() ).append( "</artifactId>\n" );
+				sb.append( "        <version>${project.version}</version>\n" );
+				sb.append( "        <type>pom</type>\n" );
+				sb.append( "        <scope>import</scope>\n" );
+				sb.append( "      </dependency>\n" );
+			}
+			sb.append( "    </dependencies>\n" );
+			sb.append( "  </dependencyManagement>\n" );
+		}
+
+		if( layer > 0 )
+		{
+			sb.append( "  <dependencies>\n" );
+			dependency( sb, projectGav( layer - 1, index ) );
+			if( width > 1 )
+				dependency( sb, projectGav( layer - 1, (index + 1) % width ) );
+			sb.append( "  </dependencies>\n" );
+		}
+
+		sb.append( "  <build>\n" );
+		sb.append( "    <plugins>\n" );
+		sb.append( "      <plugin>\n" );
+		sb.append( "        <groupId>org.apache.maven.plugins</groupId>\n" );
+		sb.append( "        <artifactId>maven-compiler-plugin</artifactId>\n" );
+		sb.append( "      </plugin>\n" );
+		sb.append( "    </plugins>\n" );
+		sb.append( "  </build>\n" );
+		sb.append( "</project>\n" );
+		return sb.toString();
+	}
+
+	private void dependency( StringBuilder sb, Gav gav )
+	{
+		sb.append( "    <dependency>\n" );
+		sb.append( "      <groupId>" ).append( gav.getGroupId() ).append( "</groupId>\n" );
+		sb.append( "      <artifactId>" ).append( gav.getArtifactId() ).append( "</artifactId>\n" );
+		if( bomFanIn == 0 )
+			sb.append( "      <version>${bench.version}</version>\n" );
+		sb.append( "    </dependency>\n" );
+	}
+
+	private static void header( StringBuilder sb )
+	{
+		sb.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+		sb.append( "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" );
+		sb.append( "  <modelVersion>4.0.0</modelVersion>\n" );
+	}
+
+	private static void gav( StringBuilder sb, Gav gav )
+	{
+		sb.append( "  <groupId>" ).append( gav.getGroupId() ).append( "</groupId>\n" );
+		sb.append( "  <artifactId>" ).append( gav.getArtifactId() ).append( "</artifactId>\n" );
+		sb.append( "  <version>" ).append( gav.getVersion() ).append( "</version>\n" );
+	}
+
+	private void parent( StringBuilder sb )
+	{
+		sb.append( "  <parent>\n" );
+		gav( sb, parentGav() );
+		sb.append( "  </parent>\n" );
+	}
+}
@@ -0,0 +1,36 @@
+package fr.lteconsulting.pomexplorer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import fr.lteconsulting.pomexplorer.Project;
+import fr.lteconsulting.pomexplorer.TransitivityResolver;
+
+/**
+ * Transitive dependency trees of the top layer projects, which depend on
+ * all the layers below. A new resolver is used for each invocation, so
+ * that its per project cache does not hide the resolution.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class TransitivityBenchmark
+{
+	@Benchmark
+	public void getTransitiveDependencyTree( AnalyzedRepository state, Blackhole blackhole )
+	{
+		TransitivityResolver resolver = new TransitivityResolver();
+		for( Project project : state.topProjects() )
+			blackhole.consume( resolver.getTransitiveDependencyTree( state.session, project, true, false, null, state.repository.loader(), AnalyzedRepository.SILENT ) );
+	}
+}
@@ -0,0 +1,252 @@
+package fr.lteconsulting.pomexplorer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durations and counters of the stages of a {@link PomAnalysis}, to follow
+ * the analysis performance across releases.
+ *
+ * <p>
+ * Pom parsing is recorded from the parsing threads, all the methods are
+ * thread safe.
+ */
+public class AnalysisStats
+{
+	public static final int SLOWEST_POMS = 20;
+
+	public enum Stage
+	{
+		/**
+		 * Search of the pom files, and of the changed ones for an incremental
+		 * analysis
+		 */
+		SCAN,
+
+		/**
+		 * Reading of the pom files
+		 */
+		PARSE,
+
+		/**
+		 * Loading of the missing parents and imported boms
+		 */
+		COMPLETION,
+
+		SESSION_ADD,
+
+		GRAPH_ADD;
+	}
+
+	/**
+	 * Duration and count of one stage
+	 */
+	public static class StageStats
+	{
+		private long nanos;
+		private int count;
+
+		public long getMillis()
+		{
+			return TimeUnit.NANOSECONDS.toMillis( nanos );
+		}
+
+		/**
+		 * @return the number of items (files, projects) processed by the stage
+		 */
+		public int getCount()
+		{
+			return count;
+		}
+	}
+
+	/**
+	 * Parsing duration of a pom file
+	 */
+	public static class PomTiming
+	{
+		private final File pomFile;
+		private final long nanos;
+
+		PomTiming( File pomFile, long nanos )
+		{
+			this.pomFile = pomFile;
+			this.nanos = nanos;
+		}
+
+		public File getPomFile()
+		{
+			return pomFile;
+		}
+
+		public long getMicros()
+		{
+			return TimeUnit.NANOSECONDS.toMicros( nanos );
+		}
+	}
+
+	private final Map<Stage, StageStats> stages = new EnumMap<>( Stage.class );
+
+	private final PriorityQueue<PomTiming> slowestPoms = new PriorityQueue<>( Comparator.comparingLong( ( PomTiming t ) -> t.nanos ) );
+
+	private int parsedPoms;
+	private long parsingNanos;
+
+	private int pomFetches;
+	private int failedPomFetches;
+	private long pomFetchNanos;
+
+	private long remoteDownloads;
+	private long failedRemoteDownloads;
+
+	private int parallelism = 1;
+	private long totalMillis;
+
+	public AnalysisStats()
+	{
+		for( Stage stage : Stage.values() )
+			stages.put( stage, new StageStats() );
+	}
+
+	public synchronized void record( Stage stage, long nanos, int count )
+	{
+		StageStats stats = stages.get( stage );
+		stats.nanos += nanos;
+		stats.count += count;
+	}
+
+	/**
+	 * Records the parsing of a pom file, only the slowest ones being kept
+	 */
+	public synchronized void recordPom( File pomFile, long nanos )
+	{
+		parsedPoms++;
+		parsingNanos += nanos;
+
+		if( slowestPoms.size() < SLOWEST_POMS )
+			slowestPoms.add( new PomTiming( pomFile, nanos ) );
+		else if( slowestPoms.peek().nanos < nanos )
+		{
+			slowestPoms.poll();
+			slowestPoms.add( new PomTiming( pomFile, nanos ) );
+		}
+	}
+
+	/**
+	 * Records the fetch of a missing parent or bom pom file
+	 */
+	public synchronized void recordPomFetch( boolean found, long nanos )
+	{
+		pomFetches++;
+		if( !found )
+			failedPomFetches++;
+		pomFetchNanos += nanos;
+	}
+
+	synchronized void setRemoteDownloads( long remoteDownloads, long failedRemoteDownloads )
+	{
+		this.remoteDownloads = remoteDownloads;
+		this.failedRemoteDownloads = failedRemoteDownloads;
+	}
+
+	synchronized void setParallelism( int parallelism )
+	{
+		this.parallelism = parallelism;
+	}
+
+	synchronized void setTotalMillis( long totalMillis )
+	{
+		this.totalMillis = totalMillis;
+	}
+
+	public synchronized StageStats getStage( Stage stage )
+	{
+		StageStats copy = new StageStats();
+		copy.nanos = stages.get( stage ).nanos;
+		copy.count = stages.get( stage ).count;
+		return copy;
+	}
+
+	/**
+	 * @return the slowest pom files to parse, slowest first
+	 */
+	public synchronized List<PomTiming> getSlowestPoms()
+	{
+		List<PomTiming> result = new ArrayList<>( slowestPoms );
+		result.sort( Comparator.comparingLong( ( PomTiming t ) -> t.nanos ).reversed() );
+		return result;
+	}
+
+	public synchronized int getParsedPoms()
+	{
+		return parsedPoms;
+	}
+
+	/**
+	 * @return the parsing time summed over the parsing threads
+	 */
+	public synchronized long getParsingMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis( parsingNanos );
+	}
+
+	public synchronized int getPomFetches()
+	{
+		return pomFetches;
+	}
+
+	public synchronized int getFailedPomFetches()
+	{
+		return failedPomFetches;
+	}
+
+	public synchronized long getPomFetchMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis( pomFetchNanos );
+	}
+
+	/**
+	 * @return the number of pom files downloaded from remote repositories
+	 */
+	public synchronized long getRemoteDownloads()
+	{
+		return remoteDownloads;
+	}
+
+	public synchronized long getFailedRemoteDownloads()
+	{
+		return failedRemoteDownloads;
+	}
+
+	public synchronized int getParallelism()
+	{
+		return parallelism;
+	}
+
+	public synchronized long getTotalMillis()
+	{
+		return totalMillis;
+	}
+
+	/**
+	 * @return a one line summary of the stages durations
+	 */
+	public synchronized String summary()
+	{
+		StringBuilder sb = new StringBuilder();
+		for( Stage stage : Stage.values() )
+		{
+			if( sb.length() > 0 )
+				sb.append( ", " );
+			sb.append( stage.name().toLowerCase() ).append( " " ).append( TimeUnit.NANOSECONDS.toMillis( stages.get( stage ).nanos ) ).append( " ms" );
+		}
+		sb.append( ", " ).append( pomFetches ).append( " pom fetches (" ).append( remoteDownloads ).append( " downloads)" );
+		return sb.toString();
+	}
+}
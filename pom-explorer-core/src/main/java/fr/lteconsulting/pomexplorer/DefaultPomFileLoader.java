@@ -1,7 +1,10 @@
 package fr.lteconsulting.pomexplorer;
 
 import java.io.File;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import fr.lteconsulting.pomexplorer.model.Gav;
 import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
@@ -20,7 +23,7 @@ public class DefaultPomFileLoader implements PomFileLoader
 	@Override
 	public File loadPomFileForGav( Gav gav, List<Repository> additionalRepos, Log log )
 	{
-		if( gav == null || !gav.isResolved() || gav.getVersion().startsWith( "[" ) || gav.getVersion().startsWith( "@" ) )
+		if( !isLoadable( gav ) )
 			return null;
 
 		MavenResolver resolver = session.mavenResolver();
@@ -36,4 +39,43 @@ public class DefaultPomFileLoader implements PomFileLoader
 
 		return pomFile;
 	}
+
+	/**
+	 * Resolves the pom files on the download threads of the maven resolver,
+	 * the executor is not used
+	 */
+	@Override
+	public Map<Gav, File> loadPomFilesForGavs( Map<Gav, List<Repository>> gavs, ExecutorService executor, Log log )
+	{
+		Map<Gav, List<Repository>> loadable = new LinkedHashMap<>();
+		for( Map.Entry<Gav, List<Repository>> e : gavs.entrySet() )
+		{
+			if( isLoadable( e.getKey() ) )
+			{
+				log.html( Tools.logMessage( "fetching pom file for gav " + e.getKey() ) );
+				loadable.put( e.getKey(), e.getValue() );
+			}
+		}
+
+		Map<Gav, File> pomFiles = session.mavenResolver().resolvePoms( loadable, "pom", online, log );
+
+		Map<Gav, File> result = new LinkedHashMap<>();
+		for( Gav gav : gavs.keySet() )
+		{
+			File pomFile = pomFiles.get( gav );
+			if( pomFile == null || !pomFile.exists() )
+			{
+				if( loadable.containsKey( gav ) )
+					log.html( Tools.errorMessage( "cannot fetch pom file for gav " + gav ) );
+				pomFile = null;
+			}
+			result.put( gav, pomFile );
+		}
+		return result;
+	}
+
+	private static boolean isLoadable( Gav gav )
+	{
+		return gav != null && gav.isResolved() && !gav.getVersion().startsWith( "[" ) && !gav.getVersion().startsWith( "@" );
+	}
 }
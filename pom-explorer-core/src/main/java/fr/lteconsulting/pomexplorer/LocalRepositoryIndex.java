@@ -0,0 +1,426 @@
+package fr.lteconsulting.pomexplorer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.GroupArtifact;
+
+/**
+ * Index of the artifacts of a local maven repository : for each group and
+ * artifact, the versions and the extensions of their files. Lookups are done
+ * in memory, without accessing the file system.
+ *
+ * <p>
+ * The index is built by a parallel scan of the repository and can be saved to
+ * a file. When refreshed, the version directories whose modification time did
+ * not change are not listed again.
+ */
+public class LocalRepositoryIndex
+{
+	public static final String DEFAULT_FILE_NAME = ".pom-explorer-index";
+
+	private static final int MAGIC = 0x504F4D49;
+	private static final int FORMAT_VERSION = 1;
+
+	private final File repository;
+
+	/**
+	 * The repository path, with a trailing separator
+	 */
+	private final String repositoryPrefix;
+
+	private volatile Map<GroupArtifact, Map<String, VersionEntry>> artifacts = new ConcurrentHashMap<>();
+
+	/**
+	 * Files registered while a scan runs, added again to its result since they
+	 * are written in the replaced map. Guarded by the index's lock.
+	 */
+	private Map<Gav, Set<String>> registeredDuringScan;
+
+	/**
+	 * Only one scan at a time
+	 */
+	private final Object scanLock = new Object();
+
+	/**
+	 * Files of one version of an artifact
+	 */
+	private static class VersionEntry
+	{
+		/**
+		 * Modification time of the version directory when it was listed, 0 if
+		 * the entry was registered without listing the directory
+		 */
+		private final long lastModified;
+		private final Set<String> extensions;
+
+		VersionEntry( long lastModified, Set<String> extensions )
+		{
+			this.lastModified = lastModified;
+			this.extensions = extensions;
+		}
+	}
+
+	public LocalRepositoryIndex( File repository )
+	{
+		this.repository = repository.getAbsoluteFile();
+
+		String path = this.repository.getPath();
+		this.repositoryPrefix = path.endsWith( File.separator ) ? path : path + File.separator;
+	}
+
+	public File getRepository()
+	{
+		return repository;
+	}
+
+	/**
+	 * Scans the whole repository
+	 */
+	public void build( int parallelism )
+	{
+		rescan( Collections.emptyMap(), parallelism );
+	}
+
+	/**
+	 * Scans the repository again, listing only the new version directories and
+	 * the ones modified since they were indexed
+	 */
+	public void refresh( int parallelism )
+	{
+		rescan( null, parallelism );
+	}
+
+	/**
+	 * @param previous
+	 *            the entries which do not need to be listed again, the current
+	 *            ones if null
+	 */
+	private void rescan( Map<GroupArtifact, Map<String, VersionEntry>> previous, int parallelism )
+	{
+		synchronized( scanLock )
+		{
+			synchronized( this )
+			{
+				registeredDuringScan = new HashMap<>();
+				if( previous == null )
+					previous = artifacts;
+			}
+
+			Map<GroupArtifact, Map<String, VersionEntry>> result = scan( previous, parallelism );
+
+			synchronized( this )
+			{
+				for( Map.Entry<Gav, Set<String>> registration : registeredDuringScan.entrySet() )
+				{
+					for( String extension : registration.getValue() )
+						add( result, registration.getKey(), extension );
+				}
+
+				registeredDuringScan = null;
+				artifacts = result;
+			}
+		}
+	}
+
+	/**
+	 * @return the file of the artifact in the repository, or null if the index
+	 *         does not know it
+	 */
+	public File getFile( Gav gav, String extension )
+	{
+		if( !contains( gav, extension ) )
+			return null;
+
+		return new File( repositoryPrefix + gav.getGroupId().replace( '.', File.separatorChar ) + File.separatorChar + gav.getArtifactId() + File.separatorChar + gav.getVersion() + File.separatorChar + gav.getArtifactId() + "-" + gav.getVersion() + "." + extension );
+	}
+
+	public boolean contains( Gav gav, String extension )
+	{
+		Map<String, VersionEntry> versions = artifacts.get( new GroupArtifact( gav.getGroupId(), gav.getArtifactId() ) );
+		if( versions == null )
+			return false;
+
+		VersionEntry entry = versions.get( gav.getVersion() );
+		return entry != null && entry.extensions.contains( extension );
+	}
+
+	/**
+	 * @return the indexed versions of the artifact, oldest first
+	 */
+	public List<String> getVersions( GroupArtifact groupArtifact )
+	{
+		Map<String, VersionEntry> versions = artifacts.get( groupArtifact );
+		if( versions == null )
+			return Collections.emptyList();
+
+		List<String> result = new ArrayList<>( versions.keySet() );
+		result.sort( ( a, b ) -> new ComparableVersion( a ).compareTo( new ComparableVersion( b ) ) );
+		return result;
+	}
+
+	/**
+	 * @return the most recent indexed version of the artifact, or null
+	 */
+	public String getLatestVersion( GroupArtifact groupArtifact, boolean includeSnapshots )
+	{
+		Map<String, VersionEntry> versions = artifacts.get( groupArtifact );
+		if( versions == null )
+			return null;
+
+		String latest = null;
+		ComparableVersion latestVersion = null;
+		for( String version : versions.keySet() )
+		{
+			if( !includeSnapshots && version.endsWith( "-SNAPSHOT" ) )
+				continue;
+
+			ComparableVersion comparableVersion = new ComparableVersion( version );
+			if( latestVersion == null || comparableVersion.compareTo( latestVersion ) > 0 )
+			{
+				latest = version;
+				latestVersion = comparableVersion;
+			}
+		}
+		return latest;
+	}
+
+	/**
+	 * Adds a file which has just been written in the repository, for example
+	 * by a download
+	 */
+	public synchronized void register( Gav gav, String extension )
+	{
+		add( artifacts, gav, extension );
+
+		if( registeredDuringScan != null )
+			registeredDuringScan.computeIfAbsent( gav, g -> new HashSet<>() ).add( extension );
+	}
+
+	private static void add( Map<GroupArtifact, Map<String, VersionEntry>> artifacts, Gav gav, String extension )
+	{
+		Map<String, VersionEntry> versions = artifacts.computeIfAbsent( new GroupArtifact( gav.getGroupId(), gav.getArtifactId() ), ga -> new ConcurrentHashMap<>() );
+		versions.compute( gav.getVersion(), ( version, entry ) -> {
+			Set<String> extensions = new HashSet<>();
+			if( entry != null )
+				extensions.addAll( entry.extensions );
+			extensions.add( extension );
+
+			// the directory will be listed again by the next refresh
+			return new VersionEntry( 0, Collections.unmodifiableSet( extensions ) );
+		} );
+	}
+
+	/**
+	 * @return the number of indexed artifact versions
+	 */
+	public int size()
+	{
+		return artifacts.values().stream().mapToInt( Map::size ).sum();
+	}
+
+	public void save( File file ) throws IOException
+	{
+		// copied so that the counts match what is written
+		Map<GroupArtifact, Map<String, VersionEntry>> current = new HashMap<>( artifacts );
+
+		try( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) ) )
+		{
+			out.writeInt( MAGIC );
+			out.writeInt( FORMAT_VERSION );
+			out.writeUTF( repository.getPath() );
+
+			out.writeInt( current.size() );
+			for( Map.Entry<GroupArtifact, Map<String, VersionEntry>> artifact : current.entrySet() )
+			{
+				out.writeUTF( artifact.getKey().getGroupId() );
+				out.writeUTF( artifact.getKey().getArtifactId() );
+
+				Map<String, VersionEntry> versions = new HashMap<>( artifact.getValue() );
+				out.writeInt( versions.size() );
+				for( Map.Entry<String, VersionEntry> version : versions.entrySet() )
+				{
+					out.writeUTF( version.getKey() );
+					out.writeLong( version.getValue().lastModified );
+					out.writeInt( version.getValue().extensions.size() );
+					for( String extension : version.getValue().extensions )
+						out.writeUTF( extension );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads an index saved by {@link #save(File)}. The index should then be
+	 * refreshed to take into account the changes made to the repository
+	 * since.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be read or is not the index of this
+	 *             repository
+	 */
+	public static LocalRepositoryIndex load( File repository, File file ) throws IOException
+	{
+		LocalRepositoryIndex index = new LocalRepositoryIndex( repository );
+
+		try( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) ) )
+		{
+			if( in.readInt() != MAGIC )
+				throw new IOException( "not a local repository index file" );
+			if( in.readInt() != FORMAT_VERSION )
+				throw new IOException( "unsupported local repository index format" );
+			if( !index.repository.getPath().equals( in.readUTF() ) )
+				throw new IOException( "the index is not the one of the repository " + index.repository );
+
+			int nbArtifacts = in.readInt();
+			for( int a = 0; a < nbArtifacts; a++ )
+			{
+				GroupArtifact groupArtifact = new GroupArtifact( in.readUTF(), in.readUTF() );
+				Map<String, VersionEntry> versions = new ConcurrentHashMap<>();
+
+				int nbVersions = in.readInt();
+				for( int v = 0; v < nbVersions; v++ )
+				{
+					String version = in.readUTF();
+					long lastModified = in.readLong();
+					Set<String> extensions = new HashSet<>();
+					int nbExtensions = in.readInt();
+					for( int e = 0; e < nbExtensions; e++ )
+						extensions.add( in.readUTF() );
+
+					versions.put( version, new VersionEntry( lastModified, Collections.unmodifiableSet( extensions ) ) );
+				}
+
+				index.artifacts.put( groupArtifact, versions );
+			}
+		}
+
+		return index;
+	}
+
+	private Map<GroupArtifact, Map<String, VersionEntry>> scan( Map<GroupArtifact, Map<String, VersionEntry>> previous, int parallelism )
+	{
+		Map<GroupArtifact, Map<String, VersionEntry>> result = new ConcurrentHashMap<>();
+
+		ForkJoinPool pool = new ForkJoinPool( Math.max( 1, parallelism ) );
+		try
+		{
+			pool.invoke( new ScanTask( repository, 0, null, null, previous, result ) );
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Scans a directory of the repository and its sub directories
+	 */
+	private static class ScanTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final File directory;
+
+		/**
+		 * Depth of the directory in the repository
+		 */
+		private final int depth;
+
+		/**
+		 * Group and artifact of the directory, if it is a version directory
+		 */
+		private final String groupId;
+		private final String artifactId;
+
+		private final Map<GroupArtifact, Map<String, VersionEntry>> previous;
+		private final Map<GroupArtifact, Map<String, VersionEntry>> result;
+
+		ScanTask( File directory, int depth, String groupId, String artifactId, Map<GroupArtifact, Map<String, VersionEntry>> previous, Map<GroupArtifact, Map<String, VersionEntry>> result )
+		{
+			this.directory = directory;
+			this.depth = depth;
+			this.groupId = groupId;
+			this.artifactId = artifactId;
+			this.previous = previous;
+			this.result = result;
+		}
+
+		@Override
+		protected void compute()
+		{
+			String version = directory.getName();
+			long lastModified = directory.lastModified();
+
+			GroupArtifact groupArtifact = groupId != null ? new GroupArtifact( groupId, artifactId ) : null;
+			if( groupArtifact != null )
+			{
+				Map<String, VersionEntry> previousVersions = previous.get( groupArtifact );
+				VersionEntry previousEntry = previousVersions != null ? previousVersions.get( version ) : null;
+				if( previousEntry != null && previousEntry.lastModified != 0 && previousEntry.lastModified == lastModified )
+				{
+					addVersion( groupArtifact, version, previousEntry );
+					return;
+				}
+			}
+
+			File[] files = directory.listFiles();
+			if( files == null )
+				return;
+
+			String prefix = artifactId + "-" + version + ".";
+			Set<String> extensions = null;
+			List<ScanTask> subTasks = new ArrayList<>();
+			for( File file : files )
+			{
+				String name = file.getName();
+				if( file.isDirectory() )
+				{
+					if( name.startsWith( "." ) )
+						continue;
+
+					String childGroupId = artifactId == null ? groupId : (groupId == null ? artifactId : groupId + "." + artifactId);
+					String childArtifactId = depth == 0 ? null : directory.getName();
+					subTasks.add( new ScanTask( file, depth + 1, childGroupId, childArtifactId, previous, result ) );
+				}
+				else if( groupArtifact != null && name.startsWith( prefix ) && name.indexOf( '.', prefix.length() ) < 0 && name.length() > prefix.length() )
+				{
+					if( extensions == null )
+						extensions = new HashSet<>();
+					extensions.add( name.substring( prefix.length() ) );
+				}
+			}
+
+			if( extensions != null )
+				addVersion( groupArtifact, version, new VersionEntry( lastModified, Collections.unmodifiableSet( extensions ) ) );
+
+			invokeAll( subTasks );
+		}
+
+		private void addVersion( GroupArtifact groupArtifact, String version, VersionEntry entry )
+		{
+			result.computeIfAbsent( groupArtifact, ga -> new ConcurrentHashMap<>() ).put( version, entry );
+		}
+	}
+}
@@ -3,12 +3,18 @@ package fr.lteconsulting.pomexplorer;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.maven.settings.Settings;
 import org.eclipse.aether.RepositorySystemSession;
@@ -25,8 +31,22 @@ import org.jboss.shrinkwrap.resolver.impl.maven.bootstrap.MavenRepositorySystem;
 import fr.lteconsulting.pomexplorer.model.Gav;
 import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
 
+/**
+ * Resolves artifacts from the local repository and, when online, from the
+ * remote repositories.
+ *
+ * <p>
+ * The resolver is thread safe. Concurrent requests for the same artifact are
+ * served by one resolution, and the artifacts which could not be resolved are
+ * remembered for {@link #setNegativeCacheTtl(long) some time} before being
+ * tried again.
+ */
 public class MavenResolver
 {
+	public static final long DEFAULT_NEGATIVE_CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis( 10 );
+
+	public static final int DEFAULT_DOWNLOAD_PARALLELISM = 4;
+
 	private MavenResolverSystem resolver;
 
 	private MavenWorkingSessionImpl mavenSession;
@@ -39,9 +59,69 @@ public class MavenResolver
 
 	private String localRepositoryPath;
 
+	/**
+	 * The local repository path, with a trailing separator
+	 */
+	private String localRepositoryPrefix;
+
 	private List<RemoteRepository> repositories;
 
-	private final Map<String, File> resolvedFiles = new HashMap<>();
+	private volatile LocalRepositoryIndex localRepositoryIndex;
+
+	private final Map<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+	private volatile long negativeCacheTtlMillis = DEFAULT_NEGATIVE_CACHE_TTL_MILLIS;
+
+	private final ThreadPoolExecutor downloadExecutor;
+
+	private final AtomicLong downloads = new AtomicLong();
+
+	private final AtomicLong failedDownloads = new AtomicLong();
+
+	private final AtomicLong coalescedRequests = new AtomicLong();
+
+	/**
+	 * Resolution of one artifact, shared by all the requests made while it is
+	 * in progress
+	 */
+	private static class Resolution
+	{
+		private final CompletableFuture<File> file = new CompletableFuture<>();
+		private final boolean online;
+
+		/**
+		 * Time after which a failed resolution is tried again
+		 */
+		private volatile long expiration = Long.MAX_VALUE;
+
+		Resolution( boolean online )
+		{
+			this.online = online;
+		}
+
+		/**
+		 * @return true if the result of this resolution can be used for the
+		 *         request
+		 */
+		boolean isValidFor( boolean online, long now )
+		{
+			if( !file.isDone() )
+				return true;
+			if( file.getNow( null ) != null )
+				return true;
+			return now < expiration && (this.online || !online);
+		}
+	}
+
+	public MavenResolver()
+	{
+		downloadExecutor = new ThreadPoolExecutor( DEFAULT_DOWNLOAD_PARALLELISM, DEFAULT_DOWNLOAD_PARALLELISM, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread( runnable, "MavenResolver download" );
+			thread.setDaemon( true );
+			return thread;
+		} );
+		downloadExecutor.allowCoreThreadTimeOut( true );
+	}
 
 	public void init( String mavenSettingsFilePath )
 	{
@@ -57,6 +137,41 @@ public class MavenResolver
 		system = getField( mavenSession, "system" );
 		settings = getField( mavenSession, "settings" );
 		localRepositoryPath = getField( settings, "localRepository" );
+
+		if( localRepositoryPath != null )
+			localRepositoryPrefix = localRepositoryPath.endsWith( File.separator ) ? localRepositoryPath : localRepositoryPath + File.separator;
+	}
+
+	/**
+	 * @return the path of the local repository, or null if unknown
+	 */
+	public String getLocalRepositoryPath()
+	{
+		return localRepositoryPath;
+	}
+
+	/**
+	 * Sets the index used to look up the local repository instead of
+	 * accessing the file system, null to access it again. The file system is
+	 * still checked for the pom files missing in the index.
+	 */
+	public void setLocalRepositoryIndex( LocalRepositoryIndex localRepositoryIndex )
+	{
+		this.localRepositoryIndex = localRepositoryIndex;
+	}
+
+	public LocalRepositoryIndex getLocalRepositoryIndex()
+	{
+		return localRepositoryIndex;
+	}
+
+	/**
+	 * Sets for how long the artifacts which could not be resolved are not
+	 * tried again
+	 */
+	public void setNegativeCacheTtl( long ttlMillis )
+	{
+		negativeCacheTtlMillis = ttlMillis;
 	}
 
 	public File resolvePom( Gav gav, String extension, boolean online, Log log )
@@ -66,32 +181,161 @@ public class MavenResolver
 
 	public File resolvePom( Gav gav, String extension, boolean online, List<Repository> additionalRepos, Log log )
 	{
-		if( gav == null || !gav.isResolved() || gav.getVersion().startsWith( "[" ) )
+		if( !isResolvable( gav ) )
 			return null;
 
-		String key = gav.toString() + ":" + extension;
-		if( resolvedFiles.containsKey( key ) )
-			return resolvedFiles.get( key );
+		return join( resolve( gav, extension, online, additionalRepos, Runnable::run, log ) );
+	}
 
-		File pomFile = null;
+	/**
+	 * Resolves several artifacts concurrently, on a bounded pool of download
+	 * threads
+	 *
+	 * @param gavs
+	 *            the artifacts to resolve, with the additional repositories
+	 *            of each
+	 * @return the resolved files in the order of the given gavs, null for the
+	 *         artifacts which could not be resolved
+	 */
+	public Map<Gav, File> resolvePoms( Map<Gav, List<Repository>> gavs, String extension, boolean online, Log log )
+	{
+		// the log is called from the download threads
+		Log downloadLog = message -> {
+			synchronized( log )
+			{
+				log.html( message );
+			}
+		};
 
-		if( "pom".equals( extension ) && localRepositoryPath != null )
+		Map<Gav, CompletableFuture<File>> futures = new LinkedHashMap<>();
+		for( Map.Entry<Gav, List<Repository>> e : gavs.entrySet() )
 		{
-			// log.html( "<i>look-up in repo for artifact " + gav + "...</i><br/>" );
-			Path path = Paths.get( localRepositoryPath );
-			String[] parts = gav.getGroupId().split( "\\." );
-			if( parts != null )
+			if( isResolvable( e.getKey() ) )
+				futures.put( e.getKey(), resolve( e.getKey(), extension, online, e.getValue(), downloadExecutor, downloadLog ) );
+		}
+
+		Map<Gav, File> result = new LinkedHashMap<>();
+		for( Gav gav : gavs.keySet() )
+		{
+			CompletableFuture<File> future = futures.get( gav );
+			result.put( gav, future != null ? join( future ) : null );
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of artifacts resolved from the remote repositories
+	 */
+	public long getDownloads()
+	{
+		return downloads.get();
+	}
+
+	public long getFailedDownloads()
+	{
+		return failedDownloads.get();
+	}
+
+	/**
+	 * @return the number of requests which waited for the resolution of
+	 *         another request instead of resolving the artifact themselves
+	 */
+	public long getCoalescedRequests()
+	{
+		return coalescedRequests.get();
+	}
+
+	private static boolean isResolvable( Gav gav )
+	{
+		return gav != null && gav.isResolved() && !gav.getVersion().startsWith( "[" );
+	}
+
+	/**
+	 * Returns the resolution in progress or done for the artifact, or starts
+	 * a new one on the executor
+	 */
+	private CompletableFuture<File> resolve( Gav gav, String extension, boolean online, List<Repository> additionalRepos, Executor executor, Log log )
+	{
+		String key = gav.toString() + ":" + extension;
+
+		while( true )
+		{
+			Resolution resolution = resolutions.get( key );
+			if( resolution != null && resolution.isValidFor( online, System.currentTimeMillis() ) )
 			{
-				for( String part : parts )
-					path = path.resolve( Paths.get( part ) );
+				if( !resolution.file.isDone() )
+					coalescedRequests.incrementAndGet();
+				return resolution.file;
 			}
-			path = path.resolve( Paths.get( gav.getArtifactId() ) );
-			path = path.resolve( Paths.get( gav.getVersion() ) );
-			path = path.resolve( gav.getArtifactId() + "-" + gav.getVersion() + ".pom" );
 
-			pomFile = path.toFile();
-			if( !pomFile.exists() || !pomFile.isFile() )
+			Resolution newResolution = new Resolution( online );
+			boolean owner = resolution == null ? resolutions.putIfAbsent( key, newResolution ) == null : resolutions.replace( key, resolution, newResolution );
+			if( !owner )
+				continue;
+
+			executor.execute( () -> {
+				try
+				{
+					File file = doResolve( gav, extension, online, additionalRepos, log );
+					if( file == null )
+						newResolution.expiration = System.currentTimeMillis() + negativeCacheTtlMillis;
+					newResolution.file.complete( file );
+				}
+				catch( RuntimeException | Error e )
+				{
+					resolutions.remove( key, newResolution );
+					newResolution.file.completeExceptionally( e );
+				}
+			} );
+
+			return newResolution.file;
+		}
+	}
+
+	private static File join( CompletableFuture<File> future )
+	{
+		try
+		{
+			return future.get();
+		}
+		catch( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		catch( ExecutionException e )
+		{
+			if( e.getCause() instanceof RuntimeException )
+				throw (RuntimeException) e.getCause();
+			if( e.getCause() instanceof Error )
+				throw (Error) e.getCause();
+			throw new RuntimeException( e.getCause() );
+		}
+	}
+
+	File doResolve( Gav gav, String extension, boolean online, List<Repository> additionalRepos, Log log )
+	{
+		File pomFile = null;
+		LocalRepositoryIndex index = localRepositoryIndex;
+
+		if( "pom".equals( extension ) && index != null )
+		{
+			pomFile = index.getFile( gav, extension );
+
+			// the file may have been deleted since it was indexed
+			if( pomFile != null && !pomFile.isFile() )
+				pomFile = null;
+		}
+
+		// the index misses the files written since it was refreshed, like the ones installed by a build
+		if( pomFile == null && "pom".equals( extension ) && localRepositoryPrefix != null )
+		{
+			// log.html( "<i>look-up in repo for artifact " + gav + "...</i><br/>" );
+			pomFile = new File( localRepositoryPrefix + gav.getGroupId().replace( '.', File.separatorChar ) + File.separatorChar + gav.getArtifactId() + File.separatorChar + gav.getVersion() + File.separatorChar + gav.getArtifactId() + "-" + gav.getVersion() + ".pom" );
+			if( !pomFile.isFile() )
 				pomFile = null;
+			else if( index != null )
+				index.register( gav, extension );
 		}
 
 		if( pomFile == null && online )
@@ -112,18 +356,18 @@ public class MavenResolver
 				ArtifactRequest request = new ArtifactRequest( pomArtifact, remoteRepos, null );
 				pomArtifact = system.resolveArtifact( s, request ).getArtifact();
 				pomFile = pomArtifact.getFile();
+				downloads.incrementAndGet();
+
+				if( index != null && pomFile != null )
+					index.register( gav, extension );
 			}
 			catch( ArtifactResolutionException e )
 			{
+				failedDownloads.incrementAndGet();
 				log.html( Tools.warningMessage( "failed to download " + gav ) );
 			}
-			finally
-			{
-			}
 		}
 
-		resolvedFiles.put( key, pomFile );
-
 		return pomFile;
 	}
 
@@ -1,5 +1,7 @@
 package fr.lteconsulting.pomexplorer;
 
+import fr.lteconsulting.pomexplorer.AnalysisStats.Stage;
+import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphReadTransaction;
 import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphWriteTransaction;
 import fr.lteconsulting.pomexplorer.graph.relation.*;
 import fr.lteconsulting.pomexplorer.model.Dependency;
@@ -9,11 +11,14 @@ import fr.lteconsulting.pomexplorer.model.transitivity.RawDependency;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -35,12 +40,17 @@ public class PomAnalysis
 			".idea",
 			".settings" ) );
 
+	public final static int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
     private final Set<String> ignoredDirs;
 	private final Session session;
 	private final PomFileLoader pomFileLoader;
 	private final Log log;
 	private final boolean verbose;
 	private final Map<String, Profile> profiles;
+	private int parallelism = 1;
+	private ExecutorService parsingExecutor;
+	private final Map<File, Future<Project>> pendingProjects = new ConcurrentHashMap<>();
 
 	private final List<File> pomFiles = new ArrayList<>();
 	private final List<PomReadingException> erroneousPomFiles = new ArrayList<>();
@@ -53,14 +63,27 @@ public class PomAnalysis
 
 	private final ProjectContainer projects;
 
+	private final AnalysisStats stats = new AnalysisStats();
+	private final long downloadsAtStart;
+	private final long failedDownloadsAtStart;
 
 	public static PomAnalysis runFullRecursiveAnalysis( String directory, Session session, PomFileLoader pomFileLoader, String[] profilesId, boolean verbose, Log log )
+	{
+		return runFullRecursiveAnalysis( directory, session, pomFileLoader, profilesId, verbose, DEFAULT_PARALLELISM, log );
+	}
+
+	/**
+	 * @param parallelism
+	 *            the number of threads used to parse the pom files
+	 */
+	public static PomAnalysis runFullRecursiveAnalysis( String directory, Session session, PomFileLoader pomFileLoader, String[] profilesId, boolean verbose, int parallelism, Log log )
 	{
 		log.html( "analyzing '" + directory + "'<br/>" );
 
 		long duration = System.currentTimeMillis();
 
 		PomAnalysis analysis = new PomAnalysis( session, pomFileLoader, profilesId, verbose, log );
+		analysis.setParallelism( parallelism );
 		analysis.addDirectory( directory );
 		Set<Project> loadedProjects = analysis.loadProjects();
 		analysis.completeLoadedProjects();
@@ -68,6 +91,7 @@ public class PomAnalysis
 		Set<Project> addedToGraph = analysis.addCompletedProjectsToGraph();
 
 		duration = System.currentTimeMillis() - duration;
+		analysis.completeStats( duration );
 
 		if( !analysis.getDuplicatedProjects().isEmpty() )
 		{
@@ -93,6 +117,35 @@ public class PomAnalysis
 				+ loadedProjects.size() + " projects loaded and added to the pom graph,<br/>"
 				+ addedToGraph.size() + " projects added to graph,<br/>"
 				+ "in " + duration + " ms.<br/>" );
+		log.html( Tools.logMessage( analysis.getStats().summary() ) );
+
+		return analysis;
+	}
+
+	/**
+	 * Analyzes again only the pom files of the directory which were added,
+	 * changed or removed since they were last analyzed, together with the
+	 * projects inheriting from or importing the changed projects
+	 *
+	 * @see #refreshDirectory(String)
+	 */
+	public static PomAnalysis runIncrementalAnalysis( String directory, Session session, PomFileLoader pomFileLoader, String[] profilesId, boolean verbose, int parallelism, Log log )
+	{
+		log.html( "incrementally analyzing '" + directory + "'<br/>" );
+
+		long duration = System.currentTimeMillis();
+
+		PomAnalysis analysis = new PomAnalysis( session, pomFileLoader, profilesId, verbose, log );
+		analysis.setParallelism( parallelism );
+		Set<Project> addedToGraph = analysis.refreshDirectory( directory );
+
+		duration = System.currentTimeMillis() - duration;
+		analysis.completeStats( duration );
+
+		log.html( "<br/>analysis report:<br/>"
+				+ addedToGraph.size() + " projects analyzed again and added to graph,<br/>"
+				+ "in " + duration + " ms.<br/>" );
+		log.html( Tools.logMessage( analysis.getStats().summary() ) );
 
 		return analysis;
 	}
@@ -127,9 +180,46 @@ public class PomAnalysis
 						.findFirst()
 						.orElse( null ) );
 
+		downloadsAtStart = session.remoteDownloads();
+		failedDownloadsAtStart = session.failedRemoteDownloads();
+
 		log.html( "Pom Analysis ready!" );
 	}
 
+	/**
+	 * Sets the number of threads used to parse the pom files
+	 * in {@link #loadProjects()}, 1 meaning sequential parsing
+	 */
+	public void setParallelism( int parallelism )
+	{
+		this.parallelism = Math.max( 1, parallelism );
+		stats.setParallelism( this.parallelism );
+	}
+
+	public int getParallelism()
+	{
+		return parallelism;
+	}
+
+	/**
+	 * @return the durations and counters of the stages run so far
+	 */
+	public AnalysisStats getStats()
+	{
+		return stats;
+	}
+
+	/**
+	 * Records the remote downloads and the total duration of the analysis,
+	 * and makes the statistics available in the session
+	 */
+	private void completeStats( long durationMillis )
+	{
+		stats.setRemoteDownloads( session.remoteDownloads() - downloadsAtStart, session.failedRemoteDownloads() - failedDownloadsAtStart );
+		stats.setTotalMillis( durationMillis );
+		session.setLastAnalysisStats( stats );
+	}
+
 	private Stream<Project> getLoadedProjects()
 	{
 		return loadedProjects.values().stream()
@@ -172,7 +262,10 @@ public class PomAnalysis
 			return null;
 		}
 
-		Set<File> foundFiles = scanPomFiles( file );
+		// pom files are sent to parsing as soon as they are discovered
+		long start = System.nanoTime();
+		Set<File> foundFiles = new PomFileScanner( ignoredDirs ).scan( file, parallelism, this::submitProjectReading );
+		stats.record( Stage.SCAN, System.nanoTime() - start, foundFiles.size() );
 
 		pomFiles.addAll( foundFiles );
 
@@ -181,6 +274,198 @@ public class PomAnalysis
 		return foundFiles;
 	}
 
+	/**
+	 * Compares the pom files of the directory to the fingerprints recorded
+	 * in the session and analyzes only the added and changed ones.
+	 *
+	 * <p>
+	 * The projects of changed or removed pom files are removed from the
+	 * session. The projects inheriting from them or importing them as a bom,
+	 * recursively, and the projects whose caches used them are not read
+	 * again : their caches are invalidated and their relations computed
+	 * again. The graph is updated in a single write transaction.
+	 *
+	 * @return the projects added to the graph
+	 */
+	public Set<Project> refreshDirectory( String directory )
+	{
+		log.html( "refreshing directory '" + directory + "'<br/>" );
+
+		File root = new File( directory );
+		if( !root.exists() )
+		{
+			log.html( Tools.errorMessage( "'" + directory + "' does not exist !" ) );
+			return new HashSet<>();
+		}
+
+		long start = System.nanoTime();
+		Path rootPath = fingerprintKey( root ).toPath();
+		Map<File, Project> analyzedProjects = new HashMap<>();
+		for( Project project : session.projects().values() )
+		{
+			File key = fingerprintKey( project.getPomFile() );
+			if( !project.isExternal() && key.toPath().startsWith( rootPath ) )
+				analyzedProjects.put( key, project );
+		}
+
+		Set<File> currentFiles = new HashSet<>();
+		List<File> addedFiles = new ArrayList<>();
+		List<Project> changedProjects = new ArrayList<>();
+		for( File pomFile : new PomFileScanner( ignoredDirs ).scan( root, parallelism, null ) )
+		{
+			File key = fingerprintKey( pomFile );
+			currentFiles.add( key );
+
+			Project project = analyzedProjects.get( key );
+			if( project == null )
+				addedFiles.add( key );
+			else if( hasChanged( key ) )
+				changedProjects.add( project );
+		}
+
+		List<Project> removedProjects = analyzedProjects.entrySet().stream()
+				.filter( e -> !currentFiles.contains( e.getKey() ) )
+				.map( Entry::getValue )
+				.collect( Collectors.toList() );
+		stats.record( Stage.SCAN, System.nanoTime() - start, currentFiles.size() );
+
+		log.html( Tools.logMessage( addedFiles.size() + " added, " + changedProjects.size() + " changed and " + removedProjects.size() + " removed pom files" ) );
+
+		Set<Gav> changedGavs = new HashSet<>();
+		for( Project project : changedProjects )
+		{
+			session.projects().remove( project );
+			changedGavs.add( project.getGav() );
+			pomFiles.add( project.getPomFile() );
+		}
+		for( Project project : removedProjects )
+		{
+			session.projects().remove( project );
+			session.pomFingerprints().remove( fingerprintKey( project.getPomFile() ) );
+			changedGavs.add( project.getGav() );
+		}
+
+		pomFiles.addAll( addedFiles );
+
+		return reanalyzeChangedProjects( changedGavs );
+	}
+
+	/**
+	 * Loads the added pom files, and updates the projects inheriting from or
+	 * importing the changed GAVs, recursively, and the projects whose caches
+	 * used them. Their pom files are not read again : their caches are
+	 * invalidated and their relations computed again. The graph is updated
+	 * in a single write transaction.
+	 *
+	 * @param changedGavs
+	 *            the GAVs of the changed or removed projects, already removed
+	 *            from the session
+	 * @return the projects added to the graph
+	 */
+	Set<Project> reanalyzeChangedProjects( Set<Gav> changedGavs )
+	{
+		Set<Project> reloadedProjects = loadProjects();
+		reloadedProjects.forEach( project -> changedGavs.add( project.getGav() ) );
+
+		// projects inheriting from or importing a changed project keep their pom
+		// file, only their caches and relations are computed again
+		Set<Gav> dependentGavs = new HashSet<>( changedGavs );
+		collectDependentGavs( dependentGavs, session.graph().read() );
+
+		session.propertyResolutionCache().invalidate( dependentGavs );
+		session.transitiveDependencyCache().invalidate( dependentGavs );
+		Set<Project> dependentProjects = session.projects().invalidateDependentCaches( changedGavs );
+		for( Gav gav : dependentGavs )
+		{
+			Project project = session.projects().forGav( gav );
+			if( project != null && !dependentProjects.contains( project ) )
+			{
+				project.invalidateCaches();
+				dependentProjects.add( project );
+			}
+		}
+
+		log.html( Tools.logMessage( reloadedProjects.size() + " projects reloaded, " + dependentProjects.size() + " dependent projects to update" ) );
+
+		completeLoadedProjects();
+		addCompletedProjectsToSession();
+		completedProjects.addAll( dependentProjects );
+
+		long start = System.nanoTime();
+		PomGraphWriteTransaction tx = session.graph().write();
+		for( Gav gav : changedGavs )
+			tx.removeRelations( tx.relations( gav ) );
+		Set<Project> addedToGraph = addCompletedProjectsToGraph( tx );
+		tx.commit();
+		stats.record( Stage.GRAPH_ADD, System.nanoTime() - start, addedToGraph.size() );
+
+		return addedToGraph;
+	}
+
+	/**
+	 * Adds to the set the GAVs of the projects which have one of the set's
+	 * GAVs as parent or imported bom, recursively
+	 */
+	private static void collectDependentGavs( Set<Gav> gavs, PomGraphReadTransaction tx )
+	{
+		Deque<Gav> toVisit = new ArrayDeque<>( gavs );
+		while( !toVisit.isEmpty() )
+		{
+			Set<Relation> relations = tx.relationsReverse( toVisit.poll() );
+			if( relations == null )
+				continue;
+
+			for( Relation relation : relations )
+			{
+				boolean inherits = relation instanceof ParentRelation;
+				boolean imports = relation instanceof DependencyManagementRelation && ((DependencyManagementRelation) relation).getDependency().getScope() == Scope.IMPORT;
+
+				Gav source = tx.sourceOf( relation );
+				if( (inherits || imports) && gavs.add( source ) )
+					toVisit.add( source );
+			}
+		}
+	}
+
+	private boolean hasChanged( File pomFile )
+	{
+		PomFingerprint previous = session.pomFingerprints().get( pomFile );
+		if( previous != null && previous.hasSameAttributes( pomFile ) )
+			return false;
+
+		try
+		{
+			// kept with its hash by recordFingerprint, so that a later touch is recognized
+			PomFingerprint current = PomFingerprint.withHash( pomFile );
+			session.pomFingerprints().put( pomFile, current );
+
+			return previous == null || !previous.hasSameContent( current );
+		}
+		catch( IOException e )
+		{
+			session.pomFingerprints().remove( pomFile );
+			return true;
+		}
+	}
+
+	/**
+	 * Records the size and modification time of the project's pom file, so
+	 * that it can be detected as changed by {@link #refreshDirectory(String)}
+	 */
+	static void recordFingerprint( Session session, Project project )
+	{
+		File key = fingerprintKey( project.getPomFile() );
+
+		PomFingerprint previous = session.pomFingerprints().get( key );
+		if( previous == null || !previous.hasSameAttributes( key ) )
+			session.pomFingerprints().put( key, PomFingerprint.of( key ) );
+	}
+
+	private static File fingerprintKey( File file )
+	{
+		return file.toPath().toAbsolutePath().normalize().toFile();
+	}
+
 	public File addFile( File file )
 	{
 		log.html( "adding file '" + file + "'<br/>" );
@@ -200,20 +485,19 @@ public class PomAnalysis
 	{
 		log.html( Tools.logMessage( "loading pom files" ) );
 
+		long start = System.nanoTime();
 		Set<Project> loadedProjects = new HashSet<>();
 
-		while( !pomFiles.isEmpty() )
-		{
-			File pomFile = pomFiles.remove( 0 );
+		List<File> files = new ArrayList<>( pomFiles );
+		pomFiles.clear();
 
-			Project project = loadProject( pomFile, false );
-			if( project != null )
-			{
-				loadedProjects.add( project );
-				List<Project> list = this.loadedProjects.computeIfAbsent( project.getGav(), k -> new ArrayList<>() );
-				list.add( project );
-			}
+		for( Project project : readProjects( files ) )
+		{
+			loadedProjects.add( project );
+			List<Project> list = this.loadedProjects.computeIfAbsent( project.getGav(), k -> new ArrayList<>() );
+			list.add( project );
 		}
+		stats.record( Stage.PARSE, System.nanoTime() - start, loadedProjects.size() );
 
 		log.html( "loaded " + loadedProjects.size() + " projects<br/><br/>" );
 		if( verbose )
@@ -225,10 +509,102 @@ public class PomAnalysis
 		return loadedProjects;
 	}
 
+	/**
+	 * Parses the pom files, concurrently if the parallelism allows it.
+	 *
+	 * <p>
+	 * Only the parsing happens on the worker threads, the results and errors
+	 * are collected on the calling thread in the order of the files.
+	 */
+	private List<Project> readProjects( List<File> files )
+	{
+		List<Project> result = new ArrayList<>();
+
+		try
+		{
+			boolean concurrent = parallelism > 1 && files.size() > 1;
+
+			// the files found by the scan may already be parsing
+			List<Future<Project>> futures = new ArrayList<>();
+			for( File pomFile : files )
+			{
+				Future<Project> future = pendingProjects.remove( pomFile );
+				if( future == null && concurrent )
+					future = parsingExecutor().submit( () -> readProject( pomFile, false ) );
+				futures.add( future );
+			}
+
+			for( int i = 0; i < files.size(); i++ )
+			{
+				Future<Project> future = futures.get( i );
+				if( future == null )
+				{
+					Project project = loadProject( files.get( i ), false );
+					if( project != null )
+						result.add( project );
+					continue;
+				}
+
+				try
+				{
+					result.add( future.get() );
+				}
+				catch( ExecutionException e )
+				{
+					onPomReadingError( files.get( i ), e.getCause() );
+				}
+				catch( InterruptedException e )
+				{
+					Thread.currentThread().interrupt();
+					onPomReadingError( files.get( i ), e );
+				}
+			}
+		}
+		finally
+		{
+			shutdownParsingExecutor();
+		}
+
+		return result;
+	}
+
+	private void submitProjectReading( File pomFile )
+	{
+		if( parallelism > 1 )
+			pendingProjects.computeIfAbsent( pomFile, f -> parsingExecutor().submit( () -> readProject( f, false ) ) );
+	}
+
+	private synchronized ExecutorService parsingExecutor()
+	{
+		if( parsingExecutor == null )
+		{
+			parsingExecutor = Executors.newFixedThreadPool( parallelism, runnable -> {
+				Thread thread = new Thread( runnable, "PomAnalysis parser" );
+				thread.setDaemon( true );
+				return thread;
+			} );
+		}
+
+		return parsingExecutor;
+	}
+
+	private synchronized void shutdownParsingExecutor()
+	{
+		pendingProjects.values().forEach( future -> future.cancel( true ) );
+		pendingProjects.clear();
+
+		if( parsingExecutor != null )
+		{
+			parsingExecutor.shutdownNow();
+			parsingExecutor = null;
+		}
+	}
+
 	public Set<Project> completeLoadedProjects()
 	{
 		log.html( Tools.logMessage( "completing loaded projects" ) );
 
+		long start = System.nanoTime();
 		Set<Project> readyProjects = new HashSet<>();
 		Set<Project> unresolvableProjects = new HashSet<>();
 
@@ -254,6 +630,7 @@ public class PomAnalysis
 				unresolvableProjects.add( project );
 			}
 		}
+		stats.record( Stage.COMPLETION, System.nanoTime() - start, readyProjects.size() );
 
 		log.html( Tools.logMessage( readyProjects.size() + " ready projects and " + unresolvableProjects.size() + " unresolvable projects" ) );
 
@@ -264,10 +641,31 @@ public class PomAnalysis
 
 	public void addCompletedProjectsToSession()
 	{
+		long start = System.nanoTime();
 		completedProjects.forEach( session.projects()::add );
+		completedProjects.stream()
+				.filter( project -> !project.isExternal() )
+				.forEach( project -> recordFingerprint( session, project ) );
+		stats.record( Stage.SESSION_ADD, System.nanoTime() - start, completedProjects.size() );
 	}
 
+	/**
+	 * Adds all the completed projects to the graph within
+	 * a single write transaction, so that the graph is
+	 * copied only once per batch and not once per project
+	 */
 	public Set<Project> addCompletedProjectsToGraph()
+	{
+		long start = System.nanoTime();
+		PomGraphWriteTransaction tx = session.graph().write();
+		Set<Project> addedToGraph = addCompletedProjectsToGraph( tx );
+		tx.commit();
+		stats.record( Stage.GRAPH_ADD, System.nanoTime() - start, addedToGraph.size() );
+
+		return addedToGraph;
+	}
+
+	private Set<Project> addCompletedProjectsToGraph( PomGraphWriteTransaction tx )
 	{
 		log.html( Tools.logMessage( "adding completed projects to graph" ) );
 
@@ -275,7 +673,7 @@ public class PomAnalysis
 
 		for( Project project : completedProjects )
 		{
-			if( addProjectToGraph( project ) )
+			if( addProjectToGraph( project, tx ) )
 				addedToGraph.add( project );
 			else
 				log.html( Tools.errorMessage( "cannot add to graph project " + project ) );
@@ -286,11 +684,14 @@ public class PomAnalysis
 		return addedToGraph;
 	}
 
-	private boolean addProjectToGraph( Project project )
+	/**
+	 * Relations of the project are first collected and only
+	 * written to the transaction if the project could be
+	 * completely processed, so that an erroneous project does
+	 * not leave partial relations in the shared transaction
+	 */
+	private boolean addProjectToGraph( Project project, PomGraphWriteTransaction tx )
 	{
-		PomGraphWriteTransaction tx = session.graph().write();
-
-		tx.removeRelations( tx.relations( project.getGav() ) );
 		Set<String> unresolvedProperties = project.getUnresolvedProperties();
 		if( unresolvedProperties != null )
 		{
@@ -302,14 +703,11 @@ public class PomAnalysis
 		try
 		{
 			Gav gav = project.getGav();
-			tx.addGav( gav );
+			List<Relation> relations = new ArrayList<>();
 
 			Gav parentGav = project.getParentGav();
 			if( parentGav != null )
-			{
-				tx.addGav( parentGav );
-				tx.addRelation( new ParentRelation( gav, parentGav ) );
-			}
+				relations.add( new ParentRelation( gav, parentGav ) );
 
 			// add resolved local dependencies
 			Map<DependencyKey, RawDependency> dependencies = project.getLocalDependencies( null, profiles, projects, log, true);
@@ -322,8 +720,7 @@ public class PomAnalysis
 
 					Gav dependencyGav = new Gav( key.getGroupId(), key.getArtifactId(), rawDependency.getVs().getVersion() );
 
-					tx.addGav( dependencyGav );
-					tx.addRelation( new DependencyRelation( gav, dependencyGav, new Dependency(key.getGroupId(), key.getArtifactId(), rawDependency.getVs(), key.getClassifier(), key.getType(), rawDependency.getExclusions()) ) );
+					relations.add( new DependencyRelation( gav, dependencyGav, new Dependency(key.getGroupId(), key.getArtifactId(), rawDependency.getVs(), key.getClassifier(), key.getType(), rawDependency.getExclusions()) ) );
 				}
 			}
 
@@ -337,10 +734,7 @@ public class PomAnalysis
 
 					Gav dependencyGav = new Gav( key.getGroupId(), key.getArtifactId(), dependency.getVersion() );
 					if( !dependencyGav.equals( gav ) )
-					{
-						tx.addGav( dependencyGav );
-						tx.addRelation( new DependencyManagementRelation( gav, dependencyGav, dependency ) );
-					}
+						relations.add( new DependencyManagementRelation( gav, dependencyGav, dependency ) );
 				}
 			}
 
@@ -349,13 +743,16 @@ public class PomAnalysis
 			if( pluginDependencies != null )
 			{
 				for( Gav pluginGav : pluginDependencies )
-				{
-					tx.addGav( pluginGav );
-					tx.addRelation( new BuildDependencyRelation( gav, pluginGav ) );
-				}
+					relations.add( new BuildDependencyRelation( gav, pluginGav ) );
 			}
 
-			tx.commit();
+			tx.removeRelations( tx.relations( gav ) );
+			tx.addGav( gav );
+			for( Relation relation : relations )
+			{
+				tx.addGav( relation.getTarget() );
+				tx.addRelation( relation );
+			}
 
 			return true;
 		}
@@ -383,9 +780,9 @@ public class PomAnalysis
 				projectsToAddToReady.add( parentProject );
 		}
 
-		if( project.getMavenProject().getDependencyManagement() != null && project.getMavenProject().getDependencyManagement().getDependencies() != null )
+		if( project.getPomModel().getDependencyManagement() != null )
 		{
-			project.getMavenProject().getDependencyManagement().getDependencies().stream()
+			project.getPomModel().getDependencyManagement().stream()
 				.filter(d -> "pom".equals( d.getType() ) && Scope.fromString( project.interpolateValue( d.getScope(), projects, log ) ) == Scope.IMPORT )
 				.map(d -> {
 					// TODO should use project's dependency management to resolve the gav when version is null (rare cases maybe)
@@ -416,7 +813,9 @@ public class PomAnalysis
 		List<Project> alreadyLoadedProject = loadedProjects.get( gav );
 		if( alreadyLoadedProject != null ) return null;
 
+		long start = System.nanoTime();
 		File pomFile = callback.loadPomFileForGav( gav, null, log );
+		stats.recordPomFetch( pomFile != null, System.nanoTime() - start );
 		if( pomFile == null )
 		{
 			log.html( Tools.errorMessage( "cannot resolve project " + resolvedProject + " due to:<br/>&nbsp;&nbsp;&nbsp;missing bom import " + gav ) );
@@ -442,71 +841,32 @@ public class PomAnalysis
 		return null;
 	}
 
-	private Set<File> scanPomFiles( File startFile )
+	private Project loadProject( File pomFile, boolean isExternal )
 	{
-		assert startFile != null && startFile.exists();
-
-		Set<File> pomFiles = new HashSet<>();
-
-		List<File> queue = new ArrayList<>();
-		queue.add( startFile );
-
-		while( !queue.isEmpty() )
+		try
 		{
-			File file = queue.remove( 0 );
-
-			if( file.isDirectory() )
-			{
-				if( !acceptedDir( file ) )
-					continue;
-
-				try( DirectoryStream<Path> pathStream = Files.newDirectoryStream( file.toPath(), this::acceptedPath ) )
-				{
-					pathStream.forEach( path -> queue.add( new File( path.toString() ) ) );
-				}
-				catch( IOException e )
-				{
-					e.printStackTrace();
-				}
-			}
-			else if( file.getName().equalsIgnoreCase( "pom.xml" ) || file.getName().endsWith( ".pom" ) )
-			{
-				pomFiles.add( file );
-			}
+			return readProject( pomFile, isExternal );
+		}
+		catch( Exception e )
+		{
+			onPomReadingError( pomFile, e );
+			return null;
 		}
-
-		return pomFiles;
-	}
-
-	private boolean acceptedDir( File file )
-	{
-		for( String ignored : ignoredDirs )
-			if( ignored.equalsIgnoreCase( file.getName() ) || new File(ignored).equals( file ) )
-				return false;
-		return true;
 	}
 
-	private boolean acceptedPath( Path path )
+	private Project readProject( File pomFile, boolean isExternal )
 	{
-		String pathName = path.getFileName().toString();
+		long start = System.nanoTime();
+		Project project = new Project( pomFile, isExternal );
+		project.readPomFile();
+		stats.recordPom( pomFile, System.nanoTime() - start );
 
-		return (Files.isDirectory( path ) && acceptedDir( path.toFile() )) || (pathName.endsWith( ".pom" ) || "pom.xml".equalsIgnoreCase( pathName ));
+		return project;
 	}
 
-	private Project loadProject( File pomFile, boolean isExternal )
+	private void onPomReadingError( File pomFile, Throwable e )
 	{
-		try
-		{
-			Project project = new Project( pomFile, isExternal );
-			project.readPomFile();
-
-			return project;
-		}
-		catch( Exception e )
-		{
-			log.html( Tools.errorMessage( "error loading pom file " + pomFile.getAbsolutePath() + ", message: " + e.getMessage() ) );
-			erroneousPomFiles.add(new PomReadingException(pomFile, e));
-			return null;
-		}
+		log.html( Tools.errorMessage( "error loading pom file " + pomFile.getAbsolutePath() + ", message: " + e.getMessage() ) );
+		erroneousPomFiles.add( new PomReadingException( pomFile, e ) );
 	}
 }
@@ -1,7 +1,14 @@
 package fr.lteconsulting.pomexplorer;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import fr.lteconsulting.pomexplorer.model.Gav;
 import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
@@ -18,4 +25,48 @@ import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
 public interface PomFileLoader
 {
 	File loadPomFileForGav( Gav gav, List<Repository> additionalRepos, Log log );
-}
\ No newline at end of file
+
+	/**
+	 * Loads several pom files. By default, they are loaded concurrently on
+	 * the executor.
+	 * 
+	 * @return the loaded files in the order of the given gavs, null for the
+	 *         pom files which could not be loaded
+	 */
+	default Map<Gav, File> loadPomFilesForGavs( Map<Gav, List<Repository>> gavs, ExecutorService executor, Log log )
+	{
+		// the loader logs from the executor threads
+		Log fetchLog = message -> {
+			synchronized( log )
+			{
+				log.html( message );
+			}
+		};
+
+		List<Future<File>> futures = new ArrayList<>();
+		for( Entry<Gav, List<Repository>> e : gavs.entrySet() )
+			futures.add( executor.submit( () -> loadPomFileForGav( e.getKey(), e.getValue(), fetchLog ) ) );
+
+		Map<Gav, File> result = new LinkedHashMap<>();
+		int i = 0;
+		for( Gav gav : gavs.keySet() )
+		{
+			File pomFile = null;
+			try
+			{
+				pomFile = futures.get( i++ ).get();
+			}
+			catch( ExecutionException e )
+			{
+				fetchLog.html( Tools.warningMessage( "error while fetching the pom file of " + gav + ": " + e.getCause() ) );
+			}
+			catch( InterruptedException e )
+			{
+				Thread.currentThread().interrupt();
+				break;
+			}
+			result.put( gav, pomFile );
+		}
+		return result;
+	}
+}
@@ -0,0 +1,177 @@
+package fr.lteconsulting.pomexplorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Recursively scans a directory for pom files.
+ *
+ * <p>
+ * Directories are listed in parallel on a work-stealing pool, each
+ * entry being checked with a single attributes read. Ignored directories
+ * are matched by name (case insensitive) or by absolute path.
+ */
+public class PomFileScanner
+{
+	private final Set<String> ignoredNames = new HashSet<>();
+	private final Set<Path> ignoredPaths = new HashSet<>();
+
+	public PomFileScanner( Collection<String> ignoredDirs )
+	{
+		for( String ignored : ignoredDirs )
+		{
+			ignoredNames.add( ignored.toLowerCase() );
+
+			try
+			{
+				ignoredPaths.add( Paths.get( ignored ).toAbsolutePath().normalize() );
+			}
+			catch( InvalidPathException e )
+			{
+				// only usable as a name
+			}
+		}
+	}
+
+	/**
+	 * Scans the given file or directory.
+	 *
+	 * @param onPomFile
+	 *            if not null, called as soon as a pom file is discovered, possibly
+	 *            from several threads at the same time
+	 * @return all the pom files found
+	 */
+	public Set<File> scan( File start, int parallelism, Consumer<File> onPomFile )
+	{
+		Set<File> pomFiles = ConcurrentHashMap.newKeySet();
+		Consumer<Path> collector = path -> {
+			File pomFile = path.toFile();
+			if( pomFiles.add( pomFile ) && onPomFile != null )
+				onPomFile.accept( pomFile );
+		};
+
+		Path startPath = start.toPath();
+		if( !Files.isDirectory( startPath ) )
+		{
+			if( isPomFile( startPath ) )
+				collector.accept( startPath );
+		}
+		else if( acceptedDir( startPath ) )
+		{
+			Set<Object> visitedDirectories = ConcurrentHashMap.newKeySet();
+			try
+			{
+				Object key = Files.readAttributes( startPath, BasicFileAttributes.class ).fileKey();
+				if( key != null )
+					visitedDirectories.add( key );
+			}
+			catch( IOException e )
+			{
+				e.printStackTrace();
+			}
+
+			ForkJoinPool pool = new ForkJoinPool( Math.max( 1, parallelism ) );
+			try
+			{
+				pool.invoke( new ScanTask( startPath, collector, visitedDirectories ) );
+			}
+			finally
+			{
+				pool.shutdown();
+			}
+		}
+
+		return new HashSet<>( pomFiles );
+	}
+
+	public static boolean isPomFile( Path path )
+	{
+		Path fileName = path.getFileName();
+		if( fileName == null )
+			return false;
+
+		String name = fileName.toString();
+		return "pom.xml".equalsIgnoreCase( name ) || name.endsWith( ".pom" );
+	}
+
+	private boolean acceptedDir( Path path )
+	{
+		Path fileName = path.getFileName();
+		if( fileName != null && ignoredNames.contains( fileName.toString().toLowerCase() ) )
+			return false;
+
+		return ignoredPaths.isEmpty() || !ignoredPaths.contains( path.toAbsolutePath().normalize() );
+	}
+
+	private class ScanTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Path directory;
+		private final Consumer<Path> collector;
+		private final Set<Object> visitedDirectories;
+
+		ScanTask( Path directory, Consumer<Path> collector, Set<Object> visitedDirectories )
+		{
+			this.directory = directory;
+			this.collector = collector;
+			this.visitedDirectories = visitedDirectories;
+		}
+
+		@Override
+		protected void compute()
+		{
+			List<ScanTask> subTasks = new ArrayList<>();
+
+			try( DirectoryStream<Path> entries = Files.newDirectoryStream( directory ) )
+			{
+				for( Path entry : entries )
+				{
+					BasicFileAttributes attributes;
+					try
+					{
+						attributes = Files.readAttributes( entry, BasicFileAttributes.class );
+					}
+					catch( IOException e )
+					{
+						// broken link or entry removed in the meantime
+						continue;
+					}
+
+					if( attributes.isDirectory() )
+					{
+						// symbolic links are followed, so protect against loops
+						Object key = attributes.fileKey();
+						if( acceptedDir( entry ) && (key == null || visitedDirectories.add( key )) )
+							subTasks.add( new ScanTask( entry, collector, visitedDirectories ) );
+					}
+					else if( isPomFile( entry ) )
+					{
+						collector.accept( entry );
+					}
+				}
+			}
+			catch( IOException e )
+			{
+				e.printStackTrace();
+			}
+
+			invokeAll( subTasks );
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package fr.lteconsulting.pomexplorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Size, modification time and content hash of a pom file, as it was when
+ * it was last analyzed.
+ *
+ * <p>
+ * An analysis only records the size and modification time. The content hash
+ * is computed when an incremental analysis sees them differ, so that a pom
+ * which is touched again without being modified is recognized.
+ */
+public class PomFingerprint
+{
+	private final long length;
+	private final long lastModified;
+	private final byte[] hash;
+
+	private PomFingerprint( long length, long lastModified, byte[] hash )
+	{
+		this.length = length;
+		this.lastModified = lastModified;
+		this.hash = hash;
+	}
+
+	/**
+	 * @return the size and modification time of the file, without hash
+	 */
+	public static PomFingerprint of( File pomFile )
+	{
+		return new PomFingerprint( pomFile.length(), pomFile.lastModified(), null );
+	}
+
+	public static PomFingerprint withHash( File pomFile ) throws IOException
+	{
+		long length = pomFile.length();
+		long lastModified = pomFile.lastModified();
+
+		return new PomFingerprint( length, lastModified, hash( pomFile ) );
+	}
+
+	/**
+	 * @return true if the file's size and modification time are the same
+	 *         as when this fingerprint was computed
+	 */
+	public boolean hasSameAttributes( File pomFile )
+	{
+		return pomFile.length() == length && pomFile.lastModified() == lastModified;
+	}
+
+	/**
+	 * @return true if both fingerprints have the same hash, false if one of
+	 *         them has no hash
+	 */
+	public boolean hasSameContent( PomFingerprint other )
+	{
+		return hash != null && other.hash != null && length == other.length && Arrays.equals( hash, other.hash );
+	}
+
+	private static byte[] hash( File pomFile ) throws IOException
+	{
+		try
+		{
+			return MessageDigest.getInstance( "SHA-1" ).digest( Files.readAllBytes( pomFile.toPath() ) );
+		}
+		catch( NoSuchAlgorithmException e )
+		{
+			throw new IllegalStateException( "SHA-1 is not available", e );
+		}
+	}
+}
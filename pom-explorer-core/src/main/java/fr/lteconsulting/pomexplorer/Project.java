@@ -5,10 +5,12 @@ import fr.lteconsulting.pomexplorer.graph.relation.Scope;
 import fr.lteconsulting.pomexplorer.model.*;
 import fr.lteconsulting.pomexplorer.model.transitivity.DependencyManagement;
 import fr.lteconsulting.pomexplorer.model.transitivity.RawDependency;
-import org.apache.maven.model.Exclusion;
+import fr.lteconsulting.pomexplorer.model.pom.PomDependency;
+import fr.lteconsulting.pomexplorer.model.pom.PomModel;
+import fr.lteconsulting.pomexplorer.model.pom.PomModelReader;
+import fr.lteconsulting.pomexplorer.model.pom.PomPlugin;
+import fr.lteconsulting.pomexplorer.model.pom.PomProfile;
 import org.apache.maven.model.Model;
-import org.apache.maven.model.Parent;
-import org.apache.maven.model.Plugin;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
@@ -16,6 +18,7 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.*;
 import java.util.stream.Stream;
 
@@ -51,7 +54,8 @@ public class Project
 	private final File pomFile;
 	private final boolean isExternal;
 
-	private MavenProject project;
+	private PomModel project;
+	private SoftReference<MavenProject> mavenProject;
 	private Gav parentGav;
 	private Gav gav;
 	private Map<String, String> properties;
@@ -60,21 +64,58 @@ public class Project
 	private Set<Dependency> dependencies;
 	private Set<Gav> pluginDependencies;
 
-	private Map<String, ValueResolution> cachedResolutions;
+	private static final int MAX_CACHED_RESOLUTIONS = 256;
+
+	/**
+	 * Access ordered, so reading it modifies it: guarded by the project's lock
+	 */
+	private Map<ResolutionKey, ValueResolution> cachedResolutions;
 	private Map<DependencyKey, DependencyManagement> cachedLocalDependencyManagement;
 	private Map<GroupArtifact, String> cachedLocalPluginDependencyManagement;
 	private Set<String> unresolvedProperties;
 
+	/**
+	 * GAVs of the parent and bom projects looked up while computing the cached values
+	 */
+	private final Set<Gav> cacheDependencies = new HashSet<>();
+
 	public Project( File pomFile, boolean isExternal )
 	{
 		this.pomFile = pomFile;
 		this.isExternal = isExternal;
 	}
 
+	/**
+	 * Reads the pom file, only its {@link PomModel} is kept.
+	 *
+	 * The streaming reader is used first, the maven reader being only used
+	 * for files it cannot parse (undeclared entities for instance).
+	 */
 	public void readPomFile() {
-		project = readPomFile( pomFile );
-		if( project == null )
-			throw new RuntimeException( "cannot read pom " + pomFile.getAbsolutePath() );
+		PomModel pomModel;
+		try
+		{
+			pomModel = PomModelReader.read( pomFile );
+		}
+		catch( IOException e )
+		{
+			Model model = readMavenModel( pomFile );
+			if( model == null )
+				throw new RuntimeException( "cannot read pom " + pomFile.getAbsolutePath(), e );
+
+			pomModel = PomModel.fromMavenModel( model );
+		}
+
+		readModel( pomModel );
+	}
+
+	/**
+	 * Initializes the project from an already read model,
+	 * as an alternative to {@link #readPomFile()}
+	 */
+	void readModel( PomModel pomModel )
+	{
+		project = pomModel;
 
 		initParent();
 
@@ -99,28 +140,23 @@ public class Project
 		if( "${parent.version}".equals( version ) )
 			version = getParentGav().getVersion();
 
-		gav = new Gav( groupId, project.getArtifactId(), version );
+		gav = new Gav( groupId, project.getArtifactId(), version ).intern();
 
 		if( !gav.isResolved() )
 			throw new RuntimeException( "Non resolved project's GAV: " + gav );
 
-		properties = new HashMap<>();
-		project.getProperties().forEach( ( key, value ) -> properties.put( key.toString(), value.toString() ) );
+		properties = project.getProperties();
 	}
 
 	private void initParent()
 	{
-		Parent parent = project.getModel().getParent();
-		if( parent != null )
+		parentGav = project.getParent();
+		if( parentGav != null )
 		{
-			parentGav = new Gav( parent.getGroupId(), parent.getArtifactId(), parent.getVersion() );
+			parentGav = parentGav.intern();
 			if( !parentGav.isResolved() )
 				throw new RuntimeException( "parent project not resolved" );
 		}
-		else
-		{
-			parentGav = null;
-		}
 	}
 
 	public File getPomFile()
@@ -128,11 +164,34 @@ public class Project
 		return pomFile;
 	}
 
-	public MavenProject getMavenProject()
+	/**
+	 * The sections of the pom file used for the analysis
+	 */
+	public PomModel getPomModel()
 	{
 		return project;
 	}
 
+	/**
+	 * The full maven model of the project. Only the {@link #getPomModel()}
+	 * is kept in memory, so the pom file is read again when needed.
+	 */
+	public MavenProject getMavenProject()
+	{
+		MavenProject result = mavenProject != null ? mavenProject.get() : null;
+		if( result == null )
+		{
+			Model model = readMavenModel( pomFile );
+			if( model == null )
+				throw new RuntimeException( "cannot read pom " + pomFile.getAbsolutePath() );
+
+			result = new MavenProject( model );
+			mavenProject = new SoftReference<>( result );
+		}
+
+		return result;
+	}
+
 	public boolean isExternal(){
 		return isExternal;
 	}
@@ -144,7 +203,7 @@ public class Project
 
 	public Gav getRawGav()
 	{
-		return new Gav( project.getModel().getGroupId(), project.getModel().getArtifactId(), project.getModel().getVersion() );
+		return new Gav( project.getGroupId(), project.getArtifactId(), project.getVersion() );
 	}
 
 	public Gav getGav()
@@ -154,11 +213,7 @@ public class Project
 
 	public Gav getRawParentGav()
 	{
-		Parent parent = project.getModel().getParent();
-		if( parent == null )
-			return null;
-
-		return new Gav( parent.getGroupId(), parent.getArtifactId(), parent.getVersion() );
+		return project.getParent();
 	}
 
 	public Gav getParentGav()
@@ -166,6 +221,35 @@ public class Project
 		return parentGav;
 	}
 
+	/**
+	 * @return the GAVs of the parent and bom projects which were looked up to
+	 *         compute the values cached by this project, even if they were not found
+	 */
+	public Set<Gav> getCacheDependencies()
+	{
+		return Collections.unmodifiableSet( cacheDependencies );
+	}
+
+	/**
+	 * Forgets the interpolated values, dependency management and dependencies
+	 * cached by this project, they will be computed again when needed. To be
+	 * called when one of the {@link #getCacheDependencies()} projects changed.
+	 */
+	public void invalidateCaches()
+	{
+		dependencyManagement = null;
+		dependencies = null;
+		pluginDependencies = null;
+		synchronized( this )
+		{
+			cachedResolutions = null;
+		}
+		cachedLocalDependencyManagement = null;
+		cachedLocalPluginDependencyManagement = null;
+		unresolvedProperties = null;
+		cacheDependencies.clear();
+	}
+
 	public Map<String, String> getRawProperties()
 	{
 		return properties;
@@ -182,8 +266,23 @@ public class Project
 
 	public ValueResolution interpolateValueEx( String value, ProjectContainer projects, Log log, boolean canBeSelfManaged )
 	{
-		if( cachedResolutions != null && cachedResolutions.containsKey( value ) )
-			return cachedResolutions.get( value );
+		PropertyResolutionCache statistics = projects != null ? projects.propertyResolutionCache() : null;
+
+		ResolutionKey key = new ResolutionKey( value, canBeSelfManaged );
+		ValueResolution cached;
+		synchronized( this )
+		{
+			cached = cachedResolutions != null ? cachedResolutions.get( key ) : null;
+		}
+		if( cached != null )
+		{
+			if( statistics != null )
+				statistics.expressionHit();
+			return cached;
+		}
+
+		if( statistics != null )
+			statistics.expressionMiss();
 
 		ValueResolution res = new ValueResolution();
 		res.setRaw( value );
@@ -254,9 +353,27 @@ public class Project
 
 		res.setResolved( value );
 
-		if( cachedResolutions == null )
-			cachedResolutions = new HashMap<>();
-		cachedResolutions.put( value, res );
+		// unresolved values may be resolvable later, once missing parents are loaded
+		if( !res.hasUnresolvedProperties() )
+		{
+			synchronized( this )
+			{
+				if( cachedResolutions == null )
+				{
+					cachedResolutions = new LinkedHashMap<ResolutionKey, ValueResolution>( 16, 0.75f, true )
+					{
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						protected boolean removeEldestEntry( Map.Entry<ResolutionKey, ValueResolution> eldest )
+						{
+							return size() > MAX_CACHED_RESOLUTIONS;
+						}
+					};
+				}
+				cachedResolutions.put( key, res );
+			}
+		}
 
 		return res;
 	}
@@ -267,7 +384,7 @@ public class Project
 		String artifactId = interpolateValue( gav.getArtifactId(), projects, log );
 		String version = interpolateValue( gav.getVersion(), projects, log );
 
-		return new Gav( groupId, artifactId, version );
+		return new Gav( groupId, artifactId, version ).intern();
 	}
 
 	public Map<DependencyKey, Dependency> getInterpolatedDependencyManagement( ProjectContainer projects, Log log )
@@ -281,9 +398,9 @@ public class Project
 		{
 			dependencyManagement = new HashMap<>();
 
-			if( project.getDependencyManagement() != null && project.getDependencyManagement().getDependencies() != null )
+			if( project.getDependencyManagement() != null )
 			{
-				for( org.apache.maven.model.Dependency d : project.getDependencyManagement().getDependencies() )
+				for( PomDependency d : project.getDependencyManagement() )
 				{
 					DependencyKeyVersionAndScope keyVersionAndScope = interpolateDependencyKeyVersionAndScope( d, projects, log );
 					VersionScope versionScope = determineVersionScope( keyVersionAndScope, profiles, projects, log, keyVersionAndScope.key, true);
@@ -316,7 +433,7 @@ public class Project
 		{
 			dependencies = new HashSet<>();
 
-			for( org.apache.maven.model.Dependency d : project.getDependencies() )
+			for( PomDependency d : project.getDependencies() )
 			{
 				DependencyKeyVersionAndScope triple = interpolateDependencyKeyVersionAndScope( d, projects, log );
 
@@ -332,20 +449,12 @@ public class Project
 		{
 			pluginDependencies = new HashSet<>();
 
-			for( Plugin plugin : project.getBuildPlugins() )
-			{
-				Gav rawGav = new Gav( plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion() );
-				pluginDependencies.add( interpolateGav( rawGav, projects, log ) );
-			}
+			for( PomPlugin plugin : project.getBuildPlugins() )
+				pluginDependencies.add( interpolateGav( plugin.toGav(), projects, log ) );
 
-			List<org.apache.maven.model.Profile> projectProfiles = getMavenProject().getModel().getProfiles();
-			if( projectProfiles != null )
-			{
-				projectProfiles.stream().filter( p -> isProfileActivated( profiles, p ) ).filter( p -> p.getBuild() != null ).filter( p -> p.getBuild().getPlugins() != null ).map( p -> p.getBuild().getPlugins() ).forEach( plugins -> plugins.stream().forEach( plugin -> {
-					Gav ramGav = new Gav( plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion() );
-					pluginDependencies.add( interpolateGav( ramGav, projects, log ) );
-				} ) );
-			}
+			project.getProfiles().stream().filter( p -> isProfileActivated( profiles, p ) ).filter( p -> p.getBuildPlugins() != null ).map( PomProfile::getBuildPlugins ).forEach( plugins -> plugins.stream().forEach( plugin -> {
+				pluginDependencies.add( interpolateGav( plugin.toGav(), projects, log ) );
+			} ) );
 		}
 
 		return pluginDependencies;
@@ -421,6 +530,8 @@ public class Project
 			while( current != null )
 			{
 				current.getInterpolatedDependencyManagementWithBomImport( cachedLocalDependencyManagement, profiles, projects, log , canBeSelfManaged);
+				if( current.getParentGav() != null )
+					cacheDependencies.add( current.getParentGav() );
 				current = projects.getParentProject( current );
 				canBeSelfManaged = false;
 			}
@@ -456,14 +567,12 @@ public class Project
 
 	public Map<DependencyKey, RawDependency> getLocalDependencies( Map<DependencyKey, RawDependency> res, Map<String, Profile> profiles, ProjectContainer projects, Log log, boolean versionCanBeSelfManaged )
 	{
-		res = completeDependenciesMap( res, getMavenProject().getDependencies(), profiles, projects, log, versionCanBeSelfManaged);
+		res = completeDependenciesMap( res, project.getDependencies(), profiles, projects, log, versionCanBeSelfManaged);
 		Map<DependencyKey, RawDependency> fRes = res;
 
-		List<org.apache.maven.model.Profile> projectProfiles = getMavenProject().getModel().getProfiles();
-		if( projectProfiles != null )
-			projectProfiles.stream()
-					.filter( p -> isProfileActivated( profiles, p ) )
-					.forEach( p -> completeDependenciesMap( fRes, p.getDependencies(), profiles, projects, log , versionCanBeSelfManaged) );
+		project.getProfiles().stream()
+				.filter( p -> isProfileActivated( profiles, p ) )
+				.forEach( p -> completeDependenciesMap( fRes, p.getDependencies(), profiles, projects, log , versionCanBeSelfManaged) );
 
 		return res;
 	}
@@ -478,6 +587,8 @@ public class Project
 			while( current != null )
 			{
 				current.getInterpolatedPluginDependencyManagement( cachedLocalPluginDependencyManagement, profiles, projects, log );
+				if( current.getParentGav() != null )
+					cacheDependencies.add( current.getParentGav() );
 				current = projects.getParentProject( current );
 			}
 		}
@@ -495,15 +606,15 @@ public class Project
 	 */
 	private Map<DependencyKey, DependencyManagement> getInterpolatedDependencyManagementWithBomImport( Map<DependencyKey, DependencyManagement> dependencyMap, Map<String, Profile> profiles, ProjectContainer projects, Log log, boolean versionCanBeSelfManaged )
 	{
-		if( project.getDependencyManagement() != null && project.getDependencyManagement().getDependencies() != null )
+		if( project.getDependencyManagement() != null )
 		{
 			if( dependencyMap == null )
 				dependencyMap = new HashMap<>();
 
-			completeDependencyManagementMap( dependencyMap, project.getDependencyManagement().getDependencies(), profiles, projects, log, versionCanBeSelfManaged );
+			completeDependencyManagementMap( dependencyMap, project.getDependencyManagement(), profiles, projects, log, versionCanBeSelfManaged );
 		}
 
-		List<org.apache.maven.model.Profile> projectProfiles = getMavenProject().getModel().getProfiles();
+		List<PomProfile> projectProfiles = project.getProfiles();
 		if( projectProfiles != null )
 		{
 			if( dependencyMap == null )
@@ -514,8 +625,7 @@ public class Project
 			projectProfiles.stream()
 					.filter( p -> isProfileActivated( profiles, p ) )
 					.filter( p -> p.getDependencyManagement() != null )
-					.filter( p -> p.getDependencyManagement().getDependencies() != null )
-					.map( p -> p.getDependencyManagement().getDependencies() )
+					.map( PomProfile::getDependencyManagement )
 					.map( dependencies -> completeDependencyManagementMap( dependencyMapFinal, dependencies, profiles, projects, log, versionCanBeSelfManaged ) );
 		}
 
@@ -527,12 +637,12 @@ public class Project
 	 */
 	private Map<GroupArtifact, String> getInterpolatedPluginDependencyManagement( Map<GroupArtifact, String> dependencyMap, Map<String, Profile> profiles, ProjectContainer projects, Log log )
 	{
-		if( project.getPluginManagement() != null && project.getPluginManagement().getPlugins() != null )
+		if( project.getPluginManagement() != null )
 		{
 			if( dependencyMap == null )
 				dependencyMap = new HashMap<>();
 
-			completePluginDependencyManagementMap( dependencyMap, project.getPluginManagement().getPlugins(), projects, log );
+			completePluginDependencyManagementMap( dependencyMap, project.getPluginManagement(), projects, log );
 		}
 
 		// TODO Is there really nothing in profiles for Plugin Management ?
@@ -540,11 +650,11 @@ public class Project
 		return dependencyMap;
 	}
 
-	private Map<GroupArtifact, String> completePluginDependencyManagementMap( Map<GroupArtifact, String> result, List<org.apache.maven.model.Plugin> plugins, ProjectContainer projects, Log log )
+	private Map<GroupArtifact, String> completePluginDependencyManagementMap( Map<GroupArtifact, String> result, List<PomPlugin> plugins, ProjectContainer projects, Log log )
 	{
 		if( plugins != null )
 		{
-			for( org.apache.maven.model.Plugin d : plugins )
+			for( PomPlugin d : plugins )
 			{
 				String groupId = interpolateValue( d.getGroupId(), projects, log );
 				String artifactId = interpolateValue( d.getArtifactId(), projects, log );
@@ -570,11 +680,11 @@ public class Project
 		return result;
 	}
 
-	private Map<DependencyKey, RawDependency> completeDependenciesMap( Map<DependencyKey, RawDependency> res, List<org.apache.maven.model.Dependency> dependencies, Map<String, Profile> profiles, ProjectContainer projects, Log log, boolean versionCanBeSelfManaged )
+	private Map<DependencyKey, RawDependency> completeDependenciesMap( Map<DependencyKey, RawDependency> res, List<PomDependency> dependencies, Map<String, Profile> profiles, ProjectContainer projects, Log log, boolean versionCanBeSelfManaged )
 	{
 		if( dependencies != null )
 		{
-			for( org.apache.maven.model.Dependency d : dependencies )
+			for( PomDependency d : dependencies )
 			{
 				DependencyKeyVersionAndScope keyVersionAndScope = interpolateDependencyKeyVersionAndScope( d, projects, log );
 				DependencyKey key = keyVersionAndScope.key;
@@ -594,7 +704,7 @@ public class Project
 		return res;
 	}
 
-	private DependencyKeyVersionAndScope interpolateDependencyKeyVersionAndScope( org.apache.maven.model.Dependency d, ProjectContainer projects, Log log )
+	private DependencyKeyVersionAndScope interpolateDependencyKeyVersionAndScope( PomDependency d, ProjectContainer projects, Log log )
 	{
 		String groupId = interpolateValue( d.getGroupId(), projects, log );
 		String artifactId = interpolateValue( d.getArtifactId(), projects, log );
@@ -607,7 +717,7 @@ public class Project
 		assert artifactId != null;
 		assert type != null;
 
-		DependencyKey key = new DependencyKey( groupId, artifactId, classifier, type );
+		DependencyKey key = new DependencyKey( groupId, artifactId, classifier, type ).intern();
 		return new DependencyKeyVersionAndScope( key, versionResolution.getResolved(), versionResolution.isSelfManaged(), scope );
 	}
 
@@ -652,16 +762,13 @@ public class Project
 	}
 
 
-	private void addExclusions( ProjectContainer projects, Log log, org.apache.maven.model.Dependency d, ExclusionAdder exclusionAdder )
+	private void addExclusions( ProjectContainer projects, Log log, PomDependency d, ExclusionAdder exclusionAdder )
 	{
-		if( d.getExclusions() != null)
+		for( GroupArtifact exclusion : d.getExclusions() )
 		{
-			for( Exclusion exclusion : d.getExclusions() )
-			{
-				String excludedGroupId = interpolateValue( exclusion.getGroupId(), projects, log );
-				String excludedArtifactId = interpolateValue( exclusion.getArtifactId(), projects, log );
-				exclusionAdder.add( new GroupArtifact( excludedGroupId, excludedArtifactId ) );
-			}
+			String excludedGroupId = interpolateValue( exclusion.getGroupId(), projects, log );
+			String excludedArtifactId = interpolateValue( exclusion.getArtifactId(), projects, log );
+			exclusionAdder.add( new GroupArtifact( excludedGroupId, excludedArtifactId ).intern() );
 		}
 	}
 
@@ -674,13 +781,13 @@ public class Project
 	 * <li>interpolate,
 	 * <li>if it is a bom import, import it as well
 	 */
-	private Map<DependencyKey, DependencyManagement> completeDependencyManagementMap( Map<DependencyKey, DependencyManagement> result, List<org.apache.maven.model.Dependency> dependencies, Map<String, Profile> profiles, ProjectContainer projects, Log log, boolean versionCanBeSelfManaged )
+	private Map<DependencyKey, DependencyManagement> completeDependencyManagementMap( Map<DependencyKey, DependencyManagement> result, List<PomDependency> dependencies, Map<String, Profile> profiles, ProjectContainer projects, Log log, boolean versionCanBeSelfManaged )
 	{
 		if( dependencies != null )
 		{
 			List<Gav> importedBoms = new ArrayList<>();
 
-			for( org.apache.maven.model.Dependency d : dependencies )
+			for( PomDependency d : dependencies )
 			{
 				DependencyKeyVersionAndScope keyVersionAndScope = interpolateDependencyKeyVersionAndScope( d, projects, log );
 				DependencyKey key = keyVersionAndScope.key;
@@ -705,6 +812,7 @@ public class Project
 
 			for( Gav bomGav : importedBoms )
 			{
+				cacheDependencies.add( bomGav );
 				Project bomProject = projects.forGav( bomGav );
 				if( bomProject == null )
 				{
@@ -719,7 +827,7 @@ public class Project
 		return result;
 	}
 
-	private MavenProject readPomFile( File pom )
+	private static Model readMavenModel( File pom )
 	{
 		try( FileReader reader = new FileReader( pom ) )
 		{
@@ -727,7 +835,7 @@ public class Project
 			Model model = mavenReader.read( reader );
 			model.setPomFile( pom );
 
-			return new MavenProject( model );
+			return model;
 		}
 		catch( IOException | XmlPullParserException e )
 		{
@@ -735,12 +843,12 @@ public class Project
 		}
 	}
 
-	private boolean isProfileActivated( Map<String, Profile> profiles, org.apache.maven.model.Profile p )
+	private boolean isProfileActivated( Map<String, Profile> profiles, PomProfile p )
 	{
 		if( profiles == null )
 			return false;
 
-		return profiles.keySet().contains( p.getId() ) || (p.getActivation() != null && p.getActivation().isActiveByDefault());
+		return profiles.keySet().contains( p.getId() ) || p.isActiveByDefault();
 	}
 
 	private PropertyLocation resolveProperty( Log log, String propertyName, ProjectContainer projects )
@@ -796,8 +904,8 @@ public class Project
 				return new PropertyLocation( this, null, "project.artifactId", gav.getArtifactId(), canPropertyBeSelfManaged );
 
 			case "project.prerequisites.maven":
-				if( project.getPrerequisites() != null )
-					return new PropertyLocation( this, null, "project.prerequisites.maven", project.getPrerequisites().getMaven(), canPropertyBeSelfManaged );
+				if( project.getPrerequisitesMaven() != null )
+					return new PropertyLocation( this, null, "project.prerequisites.maven", project.getPrerequisitesMaven(), canPropertyBeSelfManaged );
 				break;
 
 			//FIXME that is most certainly wrong
@@ -810,13 +918,14 @@ public class Project
 
 		if( parentGav != null )
 		{
+			cacheDependencies.add( parentGav );
 			Project parentProject = projects.forGav( parentGav );
 			if( parentProject != null )
 			{
 				if( propertyName.startsWith( "project.parent." ) )
 					propertyName = propertyName.replace( "project.parent.", "project." );
 
-				return parentProject.getPropertyDefinition( log, propertyName, online, projects, false );
+				return parentProject.getInheritedPropertyDefinition( log, propertyName, online, projects );
 			}
 			else
 			{
@@ -827,6 +936,27 @@ public class Project
 		return null;
 	}
 
+	/**
+	 * Property definition as seen from a child project, shared between all
+	 * the children through the session's {@link PropertyResolutionCache}
+	 */
+	private PropertyLocation getInheritedPropertyDefinition( Log log, String propertyName, boolean online, ProjectContainer projects )
+	{
+		PropertyResolutionCache cache = projects.propertyResolutionCache();
+		if( cache == null )
+			return getPropertyDefinition( log, propertyName, online, projects, false );
+
+		PropertyLocation location = cache.get( gav, propertyName );
+		if( location == null )
+		{
+			location = getPropertyDefinition( log, propertyName, online, projects, false );
+			if( location != null )
+				cache.put( gav, propertyName, location );
+		}
+
+		return location;
+	}
+
 	/**
 	 * @return All submodules of this project or an empty list if it does not have any.
 	 */
@@ -834,7 +964,7 @@ public class Project
 	{
 		Stream<String> submodules = Stream.concat(
 				project.getModules().stream(),
-				project.getModel().getProfiles().stream().flatMap( x -> x.getModules().stream() )
+				project.getProfiles().stream().flatMap( x -> x.getModules().stream() )
 		);
 		return submodules.map( this::getSubmodule )
 				.map( Project::getGav );
@@ -869,6 +999,39 @@ public class Project
 		void add(GroupArtifact artifact);
 	}
 
+	/**
+	 * Raw expression to interpolate, the resolution depending on whether the
+	 * value can be self managed
+	 */
+	private static class ResolutionKey
+	{
+		private final String raw;
+		private final boolean canBeSelfManaged;
+
+		ResolutionKey( String raw, boolean canBeSelfManaged )
+		{
+			this.raw = raw;
+			this.canBeSelfManaged = canBeSelfManaged;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * Objects.hashCode( raw ) + (canBeSelfManaged ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals( Object obj )
+		{
+			if( this == obj )
+				return true;
+			if( !(obj instanceof ResolutionKey) )
+				return false;
+			ResolutionKey other = (ResolutionKey) obj;
+			return canBeSelfManaged == other.canBeSelfManaged && Objects.equals( raw, other.raw );
+		}
+	}
+
 	private static class DependencyKeyVersionAndScope
 	{
 		private DependencyKey key;
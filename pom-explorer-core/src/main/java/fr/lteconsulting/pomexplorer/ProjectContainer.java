@@ -6,13 +6,36 @@ public interface ProjectContainer
 {
 	Project forGav( Gav gav );
 
+	/**
+	 * @return the cache shared by the projects to resolve inherited
+	 *         properties, or null if there is none
+	 */
+	default PropertyResolutionCache propertyResolutionCache()
+	{
+		return null;
+	}
+
 	default ProjectContainer combine( ProjectContainer container )
 	{
-		return ( gav ) -> {
-			Project res = forGav( gav );
-			if( res == null )
-				res = container.forGav( gav );
-			return res;
+		return new ProjectContainer()
+		{
+			@Override
+			public Project forGav( Gav gav )
+			{
+				Project res = ProjectContainer.this.forGav( gav );
+				if( res == null )
+					res = container.forGav( gav );
+				return res;
+			}
+
+			@Override
+			public PropertyResolutionCache propertyResolutionCache()
+			{
+				PropertyResolutionCache res = ProjectContainer.this.propertyResolutionCache();
+				if( res == null )
+					res = container.propertyResolutionCache();
+				return res;
+			}
 		};
 	}
 	
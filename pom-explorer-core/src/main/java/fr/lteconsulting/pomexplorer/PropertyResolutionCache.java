@@ -0,0 +1,124 @@
+package fr.lteconsulting.pomexplorer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.lteconsulting.pomexplorer.depanalyze.PropertyLocation;
+import fr.lteconsulting.pomexplorer.model.Gav;
+
+/**
+ * Session wide cache of the property definitions inherited from parent
+ * projects, so that the children of a same parent share the resolution
+ * of its properties instead of walking the parent chain each time.
+ *
+ * <p>
+ * Also counts the hits and misses of the projects' own interpolation caches.
+ */
+public class PropertyResolutionCache
+{
+	public static final int DEFAULT_MAX_PROJECTS = 4096;
+
+	private final Map<Gav, Map<String, PropertyLocation>> definitions;
+
+	private final AtomicLong propertyHits = new AtomicLong();
+	private final AtomicLong propertyMisses = new AtomicLong();
+	private final AtomicLong expressionHits = new AtomicLong();
+	private final AtomicLong expressionMisses = new AtomicLong();
+
+	public PropertyResolutionCache()
+	{
+		this( DEFAULT_MAX_PROJECTS );
+	}
+
+	/**
+	 * @param maxProjects
+	 *            number of projects for which definitions are kept, the least
+	 *            recently used ones being evicted first
+	 */
+	public PropertyResolutionCache( int maxProjects )
+	{
+		definitions = new LinkedHashMap<Gav, Map<String, PropertyLocation>>( 16, 0.75f, true )
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<Gav, Map<String, PropertyLocation>> eldest )
+			{
+				return size() > maxProjects;
+			}
+		};
+	}
+
+	/**
+	 * @return the definition of the property as seen from a child of the
+	 *         project, or null if not in the cache
+	 */
+	public synchronized PropertyLocation get( Gav project, String propertyName )
+	{
+		Map<String, PropertyLocation> projectDefinitions = definitions.get( project );
+		PropertyLocation location = projectDefinitions != null ? projectDefinitions.get( propertyName ) : null;
+
+		if( location != null )
+			propertyHits.incrementAndGet();
+		else
+			propertyMisses.incrementAndGet();
+
+		return location;
+	}
+
+	public synchronized void put( Gav project, String propertyName, PropertyLocation location )
+	{
+		definitions.computeIfAbsent( project, k -> new HashMap<>() ).put( propertyName, location );
+	}
+
+	/**
+	 * Forgets the definitions inherited from the given projects
+	 */
+	public synchronized void invalidate( Collection<Gav> projects )
+	{
+		projects.forEach( definitions::remove );
+	}
+
+	public synchronized void clear()
+	{
+		definitions.clear();
+	}
+
+	public synchronized int size()
+	{
+		return definitions.size();
+	}
+
+	void expressionHit()
+	{
+		expressionHits.incrementAndGet();
+	}
+
+	void expressionMiss()
+	{
+		expressionMisses.incrementAndGet();
+	}
+
+	public long getPropertyHits()
+	{
+		return propertyHits.get();
+	}
+
+	public long getPropertyMisses()
+	{
+		return propertyMisses.get();
+	}
+
+	public long getExpressionHits()
+	{
+		return expressionHits.get();
+	}
+
+	public long getExpressionMisses()
+	{
+		return expressionMisses.get();
+	}
+}
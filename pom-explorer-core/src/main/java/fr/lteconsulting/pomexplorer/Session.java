@@ -1,5 +1,6 @@
 package fr.lteconsulting.pomexplorer;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -33,6 +34,10 @@ public class Session
 	private final Set<GraphChange> graphChanges = new HashSet<>();
 	private XSession xSession = null;
 	private Set<String> ignoredDirs = new HashSet<>();
+	private final Map<File, PomFingerprint> pomFingerprints = new HashMap<>();
+	private final PropertyResolutionCache propertyResolutionCache = new PropertyResolutionCache();
+	private final TransitiveDependencyCache transitiveDependencyCache = new TransitiveDependencyCache();
+	private AnalysisStats lastAnalysisStats = null;
 
 	public XSession setCallback( XSession callback )
 	{
@@ -41,7 +46,7 @@ public class Session
 		return old;
 	}
 
-	public MavenResolver mavenResolver()
+	public synchronized MavenResolver mavenResolver()
 	{
 		String mavenSettingsFilePath = getMavenSettingsFilePath();
 		MavenResolver resolver = resolvers.get( mavenSettingsFilePath == null ? "-" : mavenSettingsFilePath );
@@ -55,6 +60,19 @@ public class Session
 		return resolver;
 	}
 
+	/**
+	 * @return the number of artifacts downloaded by the resolvers of the session
+	 */
+	synchronized long remoteDownloads()
+	{
+		return resolvers.values().stream().mapToLong( MavenResolver::getDownloads ).sum();
+	}
+
+	synchronized long failedRemoteDownloads()
+	{
+		return resolvers.values().stream().mapToLong( MavenResolver::getFailedDownloads ).sum();
+	}
+
 	public PomGraph graph()
 	{
 		return graph;
@@ -65,6 +83,37 @@ public class Session
 		return projects;
 	}
 
+	/**
+	 * Fingerprints of the analyzed pom files, by absolute normalized file
+	 */
+	public Map<File, PomFingerprint> pomFingerprints()
+	{
+		return pomFingerprints;
+	}
+
+	public PropertyResolutionCache propertyResolutionCache()
+	{
+		return propertyResolutionCache;
+	}
+
+	/**
+	 * @return the statistics of the last analysis run in the session, or null
+	 */
+	public AnalysisStats lastAnalysisStats()
+	{
+		return lastAnalysisStats;
+	}
+
+	void setLastAnalysisStats( AnalysisStats lastAnalysisStats )
+	{
+		this.lastAnalysisStats = lastAnalysisStats;
+	}
+
+	public TransitiveDependencyCache transitiveDependencyCache()
+	{
+		return transitiveDependencyCache;
+	}
+
 	public Set<ProjectChange> projectChanges()
 	{
 		return projectChanges;
@@ -0,0 +1,596 @@
+package fr.lteconsulting.pomexplorer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphReadTransaction;
+import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphWriteTransaction;
+import fr.lteconsulting.pomexplorer.graph.relation.BuildDependencyRelation;
+import fr.lteconsulting.pomexplorer.graph.relation.DependencyLikeRelation;
+import fr.lteconsulting.pomexplorer.graph.relation.DependencyManagementRelation;
+import fr.lteconsulting.pomexplorer.graph.relation.DependencyRelation;
+import fr.lteconsulting.pomexplorer.graph.relation.ParentRelation;
+import fr.lteconsulting.pomexplorer.graph.relation.Relation;
+import fr.lteconsulting.pomexplorer.graph.relation.RelationType;
+import fr.lteconsulting.pomexplorer.graph.relation.Scope;
+import fr.lteconsulting.pomexplorer.model.Dependency;
+import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.GroupArtifact;
+import fr.lteconsulting.pomexplorer.model.pom.PomDependency;
+import fr.lteconsulting.pomexplorer.model.pom.PomModel;
+import fr.lteconsulting.pomexplorer.model.pom.PomPlugin;
+import fr.lteconsulting.pomexplorer.model.pom.PomProfile;
+import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
+
+/**
+ * Binary snapshot of a {@link Session}'s projects and pom graph, so that
+ * a session can be restored without analyzing all the pom files again.
+ *
+ * <p>
+ * Each project is stored with its pom file's path, size and modification
+ * time, and its {@link PomModel}. When loading, projects whose pom file changed
+ * since the snapshot was saved are not restored : their outgoing relations
+ * are dropped and their pom files are analyzed again. The relations of the
+ * projects inheriting from them or importing them are computed again.
+ *
+ * <p>
+ * The snapshot file is memory mapped when loaded.
+ */
+public class SessionSnapshot
+{
+	private static final int MAGIC = 0x504F4D58;
+	private static final int FORMAT_VERSION = 2;
+
+	private static final int NULL_STRING = -1;
+	private static final int NEW_STRING = -2;
+
+	public static void save( Session session, File file, Log log ) throws IOException
+	{
+		long duration = System.currentTimeMillis();
+
+		List<Project> projects = new ArrayList<>( session.projects().values() );
+		PomGraphReadTransaction tx = session.graph().read();
+
+		try( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) ) )
+		{
+			Writer writer = new Writer( out );
+
+			out.writeInt( MAGIC );
+			out.writeInt( FORMAT_VERSION );
+
+			out.writeInt( projects.size() );
+			for( Project project : projects )
+			{
+				File pomFile = project.getPomFile();
+				writer.writeString( pomFile.getAbsolutePath() );
+				out.writeBoolean( project.isExternal() );
+				out.writeLong( pomFile.lastModified() );
+				out.writeLong( pomFile.length() );
+
+				writer.writePomModel( project.getPomModel() );
+			}
+
+			Map<Gav, Integer> gavIndexes = new HashMap<>();
+			out.writeInt( tx.gavs().size() );
+			for( Gav gav : tx.gavs() )
+			{
+				gavIndexes.put( gav, gavIndexes.size() );
+				writer.writeString( gav.getGroupId() );
+				writer.writeString( gav.getArtifactId() );
+				writer.writeString( gav.getVersion() );
+			}
+
+			out.writeInt( tx.relations().size() );
+			for( Relation relation : tx.relations() )
+			{
+				out.writeByte( relation.getRelationType().ordinal() );
+				out.writeInt( gavIndexes.get( tx.sourceOf( relation ) ) );
+				out.writeInt( gavIndexes.get( tx.targetOf( relation ) ) );
+
+				DependencyLikeRelation dependencyLikeRelation = relation.asDependencyLikeRelation();
+				if( dependencyLikeRelation != null )
+					writer.writeDependency( dependencyLikeRelation.getDependency() );
+			}
+		}
+
+		duration = System.currentTimeMillis() - duration;
+
+		log.html( Tools.logMessage( "session snapshot saved to '" + file.getAbsolutePath() + "': " + projects.size() + " projects, " + tx.gavs().size() + " GAVs and " + tx.relations().size() + " relations, in " + duration + " ms" ) );
+	}
+
+	/**
+	 * Restores a snapshot into a new session.
+	 *
+	 * @param pomFileLoader
+	 *            used to analyze the pom files which changed since the snapshot, may be null
+	 * @throws IOException
+	 *             if the file is not a snapshot, or if the session already
+	 *             contains projects
+	 */
+	public static void load( Session session, File file, PomFileLoader pomFileLoader, Log log ) throws IOException
+	{
+		if( session.projects().size() > 0 || !session.graph().read().gavs().isEmpty() )
+			throw new IOException( "the session is not empty, a snapshot can only be loaded in a new session" );
+
+		long duration = System.currentTimeMillis();
+
+		List<Project> restoredProjects = new ArrayList<>();
+		List<File> changedPomFiles = new ArrayList<>();
+		Set<Gav> changedGavs = new HashSet<>();
+		int nbRelations = 0;
+
+		try( RandomAccessFile raf = new RandomAccessFile( file, "r" ); FileChannel channel = raf.getChannel() )
+		{
+			ByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+			DataInputStream in = new DataInputStream( new ByteBufferInputStream( buffer ) );
+			Reader reader = new Reader( in );
+
+			if( in.readInt() != MAGIC )
+				throw new IOException( "'" + file.getAbsolutePath() + "' is not a session snapshot file" );
+			int version = in.readInt();
+			if( version != FORMAT_VERSION )
+				throw new IOException( "unsupported session snapshot version " + version + ", expected " + FORMAT_VERSION );
+
+			int nbProjects = in.readInt();
+			for( int i = 0; i < nbProjects; i++ )
+			{
+				ProjectEntry entry = new ProjectEntry( new File( reader.readString() ), in.readBoolean(), in.readLong(), in.readLong() );
+
+				Project project = new Project( entry.pomFile, entry.isExternal );
+				project.readModel( reader.readPomModel() );
+
+				if( entry.isUpToDate() )
+				{
+					restoredProjects.add( project );
+				}
+				else
+				{
+					changedGavs.add( project.getGav() );
+					if( entry.pomFile.exists() )
+						changedPomFiles.add( entry.pomFile );
+				}
+			}
+
+			PomGraphWriteTransaction tx = session.graph().write();
+
+			int nbGavs = in.readInt();
+			List<Gav> gavs = new ArrayList<>( nbGavs );
+			for( int i = 0; i < nbGavs; i++ )
+			{
+				Gav gav = new Gav( reader.readString(), reader.readString(), reader.readString() ).intern();
+				gavs.add( gav );
+				tx.addGav( gav );
+			}
+
+			int nbStoredRelations = in.readInt();
+			for( int i = 0; i < nbStoredRelations; i++ )
+			{
+				RelationType type = RelationType.values()[in.readByte()];
+				Gav source = gavs.get( in.readInt() );
+				Gav target = gavs.get( in.readInt() );
+
+				Relation relation;
+				switch( type )
+				{
+					case DEPENDENCY:
+						relation = new DependencyRelation( source, target, reader.readDependency() );
+						break;
+					case DEPENDENCY_MANAGEMENT:
+						relation = new DependencyManagementRelation( source, target, reader.readDependency() );
+						break;
+					case BUILD_DEPENDENCY:
+						relation = new BuildDependencyRelation( source, target );
+						break;
+					case PARENT:
+						relation = new ParentRelation( source, target );
+						break;
+					default:
+						throw new IOException( "unknown relation type " + type );
+				}
+
+				// relations of changed projects will be recomputed by the analysis
+				if( changedGavs.contains( source ) )
+					continue;
+
+				tx.addRelation( relation );
+				nbRelations++;
+			}
+
+			restoredProjects.forEach( session.projects()::add );
+			tx.commit();
+
+			restoredProjects.stream()
+					.filter( project -> !project.isExternal() )
+					.forEach( project -> PomAnalysis.recordFingerprint( session, project ) );
+		}
+
+		duration = System.currentTimeMillis() - duration;
+
+		log.html( Tools.logMessage( "session snapshot loaded from '" + file.getAbsolutePath() + "': " + restoredProjects.size() + " projects and " + nbRelations + " relations, in " + duration + " ms" ) );
+
+		if( !changedGavs.isEmpty() )
+		{
+			log.html( Tools.warningMessage( changedGavs.size() + " projects changed since the snapshot was saved, " + changedPomFiles.size() + " of them still exist and will be analyzed again" ) );
+
+			// the restored projects inheriting from or importing the changed
+			// ones are updated too
+			PomAnalysis analysis = new PomAnalysis( session, pomFileLoader, null, false, log );
+			changedPomFiles.forEach( analysis::addFile );
+			analysis.reanalyzeChangedProjects( changedGavs );
+		}
+	}
+
+	private static class ProjectEntry
+	{
+		final File pomFile;
+		final boolean isExternal;
+		final long lastModified;
+		final long length;
+
+		ProjectEntry( File pomFile, boolean isExternal, long lastModified, long length )
+		{
+			this.pomFile = pomFile;
+			this.isExternal = isExternal;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		boolean isUpToDate()
+		{
+			return pomFile.isFile() && pomFile.lastModified() == lastModified && pomFile.length() == length;
+		}
+	}
+
+	/**
+	 * Writes strings only once, next occurrences being written as references
+	 */
+	private static class Writer
+	{
+		private final DataOutputStream out;
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		Writer( DataOutputStream out )
+		{
+			this.out = out;
+		}
+
+		void writeString( String value ) throws IOException
+		{
+			if( value == null )
+			{
+				out.writeInt( NULL_STRING );
+				return;
+			}
+
+			Integer index = strings.get( value );
+			if( index != null )
+			{
+				out.writeInt( index );
+				return;
+			}
+
+			strings.put( value, strings.size() );
+			byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+			out.writeInt( NEW_STRING );
+			out.writeInt( bytes.length );
+			out.write( bytes );
+		}
+
+		void writePomModel( PomModel model ) throws IOException
+		{
+			writeString( model.getGroupId() );
+			writeString( model.getArtifactId() );
+			writeString( model.getVersion() );
+			writeString( model.getPackaging() );
+			writeGav( model.getParent() );
+
+			out.writeInt( model.getProperties().size() );
+			for( Map.Entry<String, String> property : model.getProperties().entrySet() )
+			{
+				writeString( property.getKey() );
+				writeString( property.getValue() );
+			}
+
+			writePomDependencies( model.getDependencies() );
+			writePomDependencies( model.getDependencyManagement() );
+			writePomPlugins( model.getBuildPlugins() );
+			writePomPlugins( model.getPluginManagement() );
+
+			out.writeInt( model.getProfiles().size() );
+			for( PomProfile profile : model.getProfiles() )
+			{
+				writeString( profile.getId() );
+				out.writeBoolean( profile.isActiveByDefault() );
+				writeStrings( profile.getModules() );
+				writePomDependencies( profile.getDependencies() );
+				writePomDependencies( profile.getDependencyManagement() );
+				writePomPlugins( profile.getBuildPlugins() );
+			}
+
+			writeStrings( model.getModules() );
+
+			out.writeInt( model.getRepositories().size() );
+			for( Repository repository : model.getRepositories() )
+			{
+				writeString( repository.getId() );
+				writeString( repository.getUrl() );
+			}
+
+			writeString( model.getPrerequisitesMaven() );
+		}
+
+		private void writeGav( Gav gav ) throws IOException
+		{
+			out.writeBoolean( gav != null );
+			if( gav != null )
+			{
+				writeString( gav.getGroupId() );
+				writeString( gav.getArtifactId() );
+				writeString( gav.getVersion() );
+			}
+		}
+
+		private void writeStrings( List<String> values ) throws IOException
+		{
+			out.writeInt( values.size() );
+			for( String value : values )
+				writeString( value );
+		}
+
+		private void writePomDependencies( List<PomDependency> dependencies ) throws IOException
+		{
+			if( dependencies == null )
+			{
+				out.writeInt( -1 );
+				return;
+			}
+
+			out.writeInt( dependencies.size() );
+			for( PomDependency d : dependencies )
+			{
+				writeString( d.getGroupId() );
+				writeString( d.getArtifactId() );
+				writeString( d.getVersion() );
+				writeString( d.getType() );
+				writeString( d.getClassifier() );
+				writeString( d.getScope() );
+				out.writeBoolean( d.isOptional() );
+				out.writeInt( d.getExclusions().size() );
+				for( GroupArtifact exclusion : d.getExclusions() )
+				{
+					writeString( exclusion.getGroupId() );
+					writeString( exclusion.getArtifactId() );
+				}
+			}
+		}
+
+		private void writePomPlugins( List<PomPlugin> plugins ) throws IOException
+		{
+			if( plugins == null )
+			{
+				out.writeInt( -1 );
+				return;
+			}
+
+			out.writeInt( plugins.size() );
+			for( PomPlugin plugin : plugins )
+			{
+				writeString( plugin.getGroupId() );
+				writeString( plugin.getArtifactId() );
+				writeString( plugin.getVersion() );
+			}
+		}
+
+		void writeDependency( Dependency dependency ) throws IOException
+		{
+			writeString( dependency.getGroupId() );
+			writeString( dependency.getArtifactId() );
+			writeString( dependency.getVersion() );
+			out.writeByte( dependency.isVersionSelfManaged().map( selfManaged -> selfManaged ? 1 : 0 ).orElse( -1 ) );
+			out.writeByte( dependency.getScope() == null ? -1 : dependency.getScope().ordinal() );
+			writeString( dependency.getClassifier() );
+			writeString( dependency.getType() );
+
+			Set<GroupArtifact> exclusions = dependency.getExclusions();
+			if( exclusions == null )
+			{
+				out.writeInt( -1 );
+			}
+			else
+			{
+				out.writeInt( exclusions.size() );
+				for( GroupArtifact exclusion : exclusions )
+				{
+					writeString( exclusion.getGroupId() );
+					writeString( exclusion.getArtifactId() );
+				}
+			}
+		}
+	}
+
+	private static class Reader
+	{
+		private final DataInputStream in;
+		private final List<String> strings = new ArrayList<>();
+
+		Reader( DataInputStream in )
+		{
+			this.in = in;
+		}
+
+		String readString() throws IOException
+		{
+			int index = in.readInt();
+			if( index == NULL_STRING )
+				return null;
+			if( index != NEW_STRING )
+				return strings.get( index );
+
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully( bytes );
+			String value = new String( bytes, StandardCharsets.UTF_8 );
+			strings.add( value );
+			return value;
+		}
+
+		PomModel readPomModel() throws IOException
+		{
+			String groupId = readString();
+			String artifactId = readString();
+			String version = readString();
+			String packaging = readString();
+			Gav parent = readGav();
+
+			int nbProperties = in.readInt();
+			Map<String, String> properties = new HashMap<>();
+			for( int i = 0; i < nbProperties; i++ )
+				properties.put( readString(), readString() );
+
+			List<PomDependency> dependencies = readPomDependencies();
+			List<PomDependency> dependencyManagement = readPomDependencies();
+			List<PomPlugin> buildPlugins = readPomPlugins();
+			List<PomPlugin> pluginManagement = readPomPlugins();
+
+			int nbProfiles = in.readInt();
+			List<PomProfile> profiles = new ArrayList<>( nbProfiles );
+			for( int i = 0; i < nbProfiles; i++ )
+				profiles.add( new PomProfile( readString(), in.readBoolean(), readStrings(), readPomDependencies(), readPomDependencies(), readPomPlugins() ) );
+
+			List<String> modules = readStrings();
+
+			int nbRepositories = in.readInt();
+			List<Repository> repositories = new ArrayList<>( nbRepositories );
+			for( int i = 0; i < nbRepositories; i++ )
+				repositories.add( new Repository( readString(), readString() ) );
+
+			return new PomModel( groupId, artifactId, version, packaging, parent, properties, dependencies, dependencyManagement, buildPlugins, pluginManagement, profiles, modules,
+					repositories, readString() );
+		}
+
+		private Gav readGav() throws IOException
+		{
+			if( !in.readBoolean() )
+				return null;
+
+			return new Gav( readString(), readString(), readString() );
+		}
+
+		private List<String> readStrings() throws IOException
+		{
+			int size = in.readInt();
+			List<String> values = new ArrayList<>( size );
+			for( int i = 0; i < size; i++ )
+				values.add( readString() );
+			return values;
+		}
+
+		private List<PomDependency> readPomDependencies() throws IOException
+		{
+			int size = in.readInt();
+			if( size < 0 )
+				return null;
+
+			List<PomDependency> dependencies = new ArrayList<>( size );
+			for( int i = 0; i < size; i++ )
+			{
+				String groupId = readString();
+				String artifactId = readString();
+				String version = readString();
+				String type = readString();
+				String classifier = readString();
+				String scope = readString();
+				boolean optional = in.readBoolean();
+
+				int nbExclusions = in.readInt();
+				List<GroupArtifact> exclusions = new ArrayList<>( nbExclusions );
+				for( int j = 0; j < nbExclusions; j++ )
+					exclusions.add( new GroupArtifact( readString(), readString() ) );
+
+				dependencies.add( new PomDependency( groupId, artifactId, version, type, classifier, scope, optional, exclusions ) );
+			}
+			return dependencies;
+		}
+
+		private List<PomPlugin> readPomPlugins() throws IOException
+		{
+			int size = in.readInt();
+			if( size < 0 )
+				return null;
+
+			List<PomPlugin> plugins = new ArrayList<>( size );
+			for( int i = 0; i < size; i++ )
+				plugins.add( new PomPlugin( readString(), readString(), readString() ) );
+			return plugins;
+		}
+
+		Dependency readDependency() throws IOException
+		{
+			String groupId = readString();
+			String artifactId = readString();
+			String version = readString();
+			byte selfManaged = in.readByte();
+			byte scope = in.readByte();
+			String classifier = readString();
+			String type = readString();
+
+			Set<GroupArtifact> exclusions = null;
+			int nbExclusions = in.readInt();
+			if( nbExclusions >= 0 )
+			{
+				exclusions = new HashSet<>();
+				for( int i = 0; i < nbExclusions; i++ )
+					exclusions.add( new GroupArtifact( readString(), readString() ) );
+			}
+
+			return new Dependency( groupId, artifactId, version, selfManaged < 0 ? null : selfManaged == 1, scope < 0 ? null : Scope.values()[scope], classifier, type, exclusions );
+		}
+	}
+
+	private static class ByteBufferInputStream extends InputStream
+	{
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream( ByteBuffer buffer )
+		{
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read()
+		{
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read( byte[] bytes, int offset, int length )
+		{
+			if( !buffer.hasRemaining() )
+				return -1;
+
+			length = Math.min( length, buffer.remaining() );
+			buffer.get( bytes, offset, length );
+			return length;
+		}
+
+		@Override
+		public int available()
+		{
+			return buffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package fr.lteconsulting.pomexplorer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.lteconsulting.pomexplorer.graph.relation.Scope;
+import fr.lteconsulting.pomexplorer.model.DependencyKey;
+import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.GroupArtifact;
+import fr.lteconsulting.pomexplorer.model.VersionScope;
+import fr.lteconsulting.pomexplorer.model.transitivity.RawDependency;
+
+/**
+ * Session wide cache of the resolution of the dependency tree nodes, shared
+ * by the trees of all the root projects.
+ *
+ * <p>
+ * Because of the nearest-wins rule, a subtree depends on the whole tree it
+ * is in, so what is shared is the resolution of each node: its interpolated
+ * dependencies, and their version, scope and exclusions for a given context
+ * (scope of the node, exclusions and dependency management of its
+ * ancestors). The trees are then assembled from the same immutable lists.
+ */
+public class TransitiveDependencyCache
+{
+	public static final int DEFAULT_MAX_ENTRIES = 16384;
+
+	private final Map<DependenciesKey, Map<DependencyKey, RawDependency>> dependencies;
+	private final Map<ChildrenKey, List<ResolvedDependency>> children;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public TransitiveDependencyCache()
+	{
+		this( DEFAULT_MAX_ENTRIES );
+	}
+
+	/**
+	 * @param maxEntries
+	 *            number of projects and of node contexts for which the
+	 *            resolution is kept, the least recently used ones being
+	 *            evicted first
+	 */
+	public TransitiveDependencyCache( int maxEntries )
+	{
+		dependencies = lruMap( maxEntries );
+		children = lruMap( maxEntries );
+	}
+
+	private static <K, V> Map<K, V> lruMap( int maxEntries )
+	{
+		return new LinkedHashMap<K, V>( 16, 0.75f, true )
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<K, V> eldest )
+			{
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * @return the dependencies of the project and of its parents, the
+	 *         returned map should not be modified
+	 */
+	synchronized Map<DependencyKey, RawDependency> getDependencies( Gav project, Set<String> profiles )
+	{
+		return dependencies.get( new DependenciesKey( project, profiles ) );
+	}
+
+	synchronized void putDependencies( Gav project, Set<String> profiles, Map<DependencyKey, RawDependency> projectDependencies )
+	{
+		dependencies.put( new DependenciesKey( project, profiles ), projectDependencies );
+	}
+
+	synchronized List<ResolvedDependency> getChildren( ChildrenKey key )
+	{
+		List<ResolvedDependency> result = children.get( key );
+		if( result != null )
+			hits.incrementAndGet();
+		else
+			misses.incrementAndGet();
+		return result;
+	}
+
+	synchronized void putChildren( ChildrenKey key, List<ResolvedDependency> resolvedDependencies )
+	{
+		children.put( key, Collections.unmodifiableList( resolvedDependencies ) );
+	}
+
+	/**
+	 * Forgets the resolution of the given projects
+	 */
+	public synchronized void invalidate( Collection<Gav> projects )
+	{
+		Set<Gav> invalidated = new HashSet<>( projects );
+		dependencies.keySet().removeIf( key -> invalidated.contains( key.project ) );
+		children.keySet().removeIf( key -> invalidated.contains( key.project ) );
+	}
+
+	public synchronized void clear()
+	{
+		dependencies.clear();
+		children.clear();
+	}
+
+	public synchronized int size()
+	{
+		return children.size();
+	}
+
+	public long getHits()
+	{
+		return hits.get();
+	}
+
+	public long getMisses()
+	{
+		return misses.get();
+	}
+
+	/**
+	 * A dependency of a node, as resolved in the context of the node
+	 */
+	static final class ResolvedDependency
+	{
+		final DependencyKey key;
+		final GroupArtifact groupArtifact;
+
+		/**
+		 * null if the dependency is not added to the tree, once the nearest-wins
+		 * rule has been applied
+		 */
+		final VersionScope vs;
+
+		/**
+		 * Exclusions of the dependency and of its local management
+		 */
+		final Set<GroupArtifact> exclusions;
+
+		final boolean optional;
+
+		ResolvedDependency( DependencyKey key, GroupArtifact groupArtifact, VersionScope vs, Set<GroupArtifact> exclusions, boolean optional )
+		{
+			this.key = key;
+			this.groupArtifact = groupArtifact;
+			this.vs = vs;
+			this.exclusions = exclusions;
+			this.optional = optional;
+		}
+	}
+
+	private static final class DependenciesKey
+	{
+		private final Gav project;
+		private final Set<String> profiles;
+
+		DependenciesKey( Gav project, Set<String> profiles )
+		{
+			this.project = project;
+			this.profiles = profiles;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * project.hashCode() + Objects.hashCode( profiles );
+		}
+
+		@Override
+		public boolean equals( Object obj )
+		{
+			if( this == obj )
+				return true;
+			if( !(obj instanceof DependenciesKey) )
+				return false;
+			DependenciesKey other = (DependenciesKey) obj;
+			return project.equals( other.project ) && Objects.equals( profiles, other.profiles );
+		}
+	}
+
+	/**
+	 * The context of a node which determines the resolution of its
+	 * dependencies
+	 */
+	static final class ChildrenKey
+	{
+		private final Gav project;
+		private final Set<String> profiles;
+		private final Scope scope;
+		private final Set<GroupArtifact> exclusions;
+
+		/**
+		 * For each dependency, the version scope imposed by the dependency
+		 * management of the tree
+		 */
+		private final List<Object> management;
+
+		private final int hashCode;
+
+		ChildrenKey( Gav project, Set<String> profiles, Scope scope, Set<GroupArtifact> exclusions, List<Object> management )
+		{
+			this.project = project;
+			this.profiles = profiles;
+			this.scope = scope;
+			this.exclusions = exclusions;
+			this.management = management;
+			this.hashCode = Objects.hash( project, profiles, scope, exclusions, management );
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals( Object obj )
+		{
+			if( this == obj )
+				return true;
+			if( !(obj instanceof ChildrenKey) )
+				return false;
+			ChildrenKey other = (ChildrenKey) obj;
+			return hashCode == other.hashCode
+					&& project.equals( other.project )
+					&& scope == other.scope
+					&& Objects.equals( profiles, other.profiles )
+					&& exclusions.equals( other.exclusions )
+					&& management.equals( other.management );
+		}
+	}
+}
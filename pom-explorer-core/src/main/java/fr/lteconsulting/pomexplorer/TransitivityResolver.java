@@ -1,5 +1,7 @@
 package fr.lteconsulting.pomexplorer;
 
+import fr.lteconsulting.pomexplorer.TransitiveDependencyCache.ChildrenKey;
+import fr.lteconsulting.pomexplorer.TransitiveDependencyCache.ResolvedDependency;
 import fr.lteconsulting.pomexplorer.graph.relation.Scope;
 import fr.lteconsulting.pomexplorer.model.DependencyKey;
 import fr.lteconsulting.pomexplorer.model.Gav;
@@ -13,6 +15,8 @@ import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
 import java.io.File;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Predicate;
 
 public class TransitivityResolver
@@ -20,19 +24,11 @@ public class TransitivityResolver
 	private static class Cache
 	{
         private Predicate<GroupArtifact> excludeFilter;
-		private final Map<Integer, TransitivityProjectInformation> cache = new HashMap<>();
+		private final Map<Project, TransitivityProjectInformation> cache = new IdentityHashMap<>();
 
 		public TransitivityProjectInformation getInformation( Project project )
 		{
-			TransitivityProjectInformation res = cache.get( System.identityHashCode( project ) );
-
-			if( res == null )
-			{
-				res = new TransitivityProjectInformation( project );
-				cache.put( System.identityHashCode( project ), res );
-			}
-
-			return res;
+			return cache.computeIfAbsent( project, TransitivityProjectInformation::new );
 		}
 
         public void setExcludeFilter(Predicate<GroupArtifact> excludeFilter)
@@ -43,20 +39,83 @@ public class TransitivityResolver
 
 	private final Cache cache = new Cache();
 
+	private int parallelism = 1;
+
+	/**
+	 * Threads fetching the missing projects, shared by all the trees of this
+	 * resolver
+	 */
+	private ExecutorService fetchExecutor;
+
     public void setExcludeFilter(Predicate<GroupArtifact> excludeFilter)
     {
         cache.setExcludeFilter(excludeFilter);
     }
 
+	/**
+	 * Sets the number of threads fetching and parsing the missing projects
+	 * of a full tree, 1 meaning that they are fetched one by one when met.
+	 *
+	 * <p>
+	 * With more threads, the missing projects of a whole level of the tree
+	 * are fetched before the level is processed. The tree is the same in
+	 * both modes, since the level is still processed in order on the calling
+	 * thread. The threads are kept until {@link #shutdown()} is called. The
+	 * {@link DefaultPomFileLoader} fetches on the download threads of the
+	 * maven resolver instead.
+	 */
+	public synchronized void setParallelism( int parallelism )
+	{
+		this.parallelism = Math.max( 1, parallelism );
+
+		shutdown();
+	}
+
 	public DependencyNode getTransitiveDependencyTree( Session session, Project project, boolean full, boolean online, Map<String, Profile> profiles, PomFileLoader loader, Log log )
 	{
 		TransitivityProjectInformation cached = cache.getInformation( project );
 
-		return cached.getTransitiveDependencyTree( session, full, online, profiles, loader, log );
+		return cached.getTransitiveDependencyTree( session, full, online, profiles, loader, full ? fetchExecutor() : null, parallelism, log );
+	}
+
+	/**
+	 * Stops the threads fetching the missing projects
+	 */
+	public synchronized void shutdown()
+	{
+		if( fetchExecutor != null )
+		{
+			fetchExecutor.shutdownNow();
+			fetchExecutor = null;
+		}
+	}
+
+	/**
+	 * @return the pool fetching the missing projects, null if they are fetched
+	 *         one by one
+	 */
+	private synchronized ExecutorService fetchExecutor()
+	{
+		if( parallelism > 1 && fetchExecutor == null )
+		{
+			fetchExecutor = Executors.newFixedThreadPool( parallelism, runnable -> {
+				Thread thread = new Thread( runnable, "TransitivityResolver fetcher" );
+				thread.setDaemon( true );
+				return thread;
+			} );
+		}
+
+		return fetchExecutor;
 	}
 
 	private static class TransitivityProjectInformation
 	{
+		/**
+		 * Fingerprint of a dependency whose declared version wins over the
+		 * dependency management
+		 */
+		private static final String LOCAL_MANAGEMENT = "local";
+
 		private final Project project;
 		private Predicate<GroupArtifact> excludeFilter;
 
@@ -73,7 +132,7 @@ public class TransitivityResolver
             this.excludeFilter = excludeFilter;
         }
 
-		public DependencyNode getTransitiveDependencyTree( Session session, boolean full, boolean online, Map<String, Profile> profiles, PomFileLoader loader, Log log )
+		public DependencyNode getTransitiveDependencyTree( Session session, boolean full, boolean online, Map<String, Profile> profiles, PomFileLoader loader, ExecutorService fetchExecutor, int parallelism, Log log )
 		{
 			if( full && fullTree != null )
 				return fullTree;
@@ -85,12 +144,12 @@ public class TransitivityResolver
 
 			Gav gav = project.getGav();
 
-			DependencyKey key = new DependencyKey( gav.getGroupId(), gav.getArtifactId(), null, project.getMavenProject().getPackaging() );
+			DependencyKey key = new DependencyKey( gav.getGroupId(), gav.getArtifactId(), null, project.getPomModel().getPackaging() );
 			VersionScope vs = new VersionScope( gav.getVersion(), null, Scope.COMPILE );
 
 			DependencyNode rootNode = new DependencyNode( project, key, vs );
 			nodeQueue.add( rootNode );
-			buildDependencyTree( nodeQueue, full, online, session, profiles, loader, log );
+			buildDependencyTree( nodeQueue, full, online, session, profiles, loader, fetchExecutor, parallelism, log );
 
 			if( full )
 				fullTree = rootNode;
@@ -105,14 +164,7 @@ public class TransitivityResolver
 			if(excludeFilter!=null && !excludeFilter.test(ga))
 				return false;
 
-			while( node != null )
-			{
-				if( node.isExcluded( ga ) )
-					return true;
-				node = node.getParent();
-			}
-
-			return false;
+			return node.isExcludedInBranch( ga );
 		}
 
 		private List<Repository> getProjectRepositories( Session session, Project project, Log log )
@@ -122,15 +174,12 @@ public class TransitivityResolver
 			Project current = project;
 			while( current != null )
 			{
-				if( current.getMavenProject().getRepositories() != null && !current.getMavenProject().getRepositories().isEmpty() )
+				if( !current.getPomModel().getRepositories().isEmpty() )
 				{
 					if( res == null )
 						res = new ArrayList<>();
 
-					for( org.apache.maven.model.Repository r : current.getMavenProject().getRepositories() )
-					{
-						res.add( new Repository( r.getId(), r.getUrl() ) );
-					}
+					res.addAll( current.getPomModel().getRepositories() );
 				}
 				current = session.projects().getParentProject( current );
 			}
@@ -153,78 +202,247 @@ public class TransitivityResolver
 			return res;
 		}
 
-		private void buildDependencyTree( Queue<DependencyNode> nodeQueue, boolean full, boolean online, Session session, Map<String, Profile> profiles, PomFileLoader loader, Log log )
+		/**
+		 * Resolves the version, scope and exclusions of the node's dependencies
+		 * in the context of the node's tree, the dependencies which are not to
+		 * be added to the tree having a null version scope.
+		 *
+		 * <p>
+		 * Except for the roots, the resolution is shared in the session with
+		 * the nodes of the same project having the same context in any tree.
+		 */
+		private List<ResolvedDependency> resolveDependencies( DependencyNode node, Session session, Map<String, Profile> profiles, boolean online, Log log )
 		{
-			int neededLevels = full ? -1 : 1;
+			TransitiveDependencyCache sharedCache = session.transitiveDependencyCache();
+			Set<String> profileIds = profiles != null ? new HashSet<>( profiles.keySet() ) : null;
+			boolean shared = !node.isRoot() && node.getProject() != null && excludeFilter == null;
 
-			while( !nodeQueue.isEmpty() )
+			Map<DependencyKey, RawDependency> localDependencies = shared ? sharedCache.getDependencies( node.getProject().getGav(), profileIds ) : null;
+			if( localDependencies == null )
 			{
-				DependencyNode node = nodeQueue.poll();
+				localDependencies = getHierarchicalDependencies( session, node.getProject(), null, online, profiles, log );
+				if( localDependencies == null )
+					localDependencies = Collections.emptyMap();
 
-				if( neededLevels >= 0 && node.getLevel() >= neededLevels )
-					continue;
+				// the dependencies would change once the missing projects are loaded
+				shared = shared && isHierarchyLoaded( session, node.getProject() );
+				if( shared )
+					sharedCache.putDependencies( node.getProject().getGav(), profileIds, localDependencies );
+			}
 
-				node.collectDependencyManagement( profiles, session.projects(), log );
+			ChildrenKey key = null;
+			if( shared )
+			{
+				key = new ChildrenKey( node.getProject().getGav(), profileIds, node.getVs().getScope(), node.getInheritedExclusions(), getManagementFingerprint( node, localDependencies ) );
+				List<ResolvedDependency> cached = sharedCache.getChildren( key );
+				if( cached != null )
+					return cached;
+			}
 
-				Map<DependencyKey, RawDependency> localDependencies = getHierarchicalDependencies( session, node.getProject(), null, online, profiles, log );
-				if( localDependencies == null )
+			List<ResolvedDependency> result = new ArrayList<>();
+			for( Entry<DependencyKey, RawDependency> e : localDependencies.entrySet() )
+			{
+				DependencyKey dependencyKey = e.getKey();
+				RawDependency dependency = e.getValue();
+				if( dependency.isOptional() && !node.isRoot() )
 					continue;
 
-				for( Entry<DependencyKey, RawDependency> e : localDependencies.entrySet() )
-				{
-					DependencyKey dependencyKey = e.getKey();
-					RawDependency dependency = e.getValue();
-					if( dependency.isOptional() && !node.isRoot() )
-						continue;
-
-					GroupArtifact ga = new GroupArtifact( dependencyKey.getGroupId(), dependencyKey.getArtifactId() );
-					if( isGroupArtifactExcluded( node, ga ) )
-						continue;
-
-					DependencyNode existingNode = node.searchNodeForGroupArtifact( ga );
-					if( existingNode != null )
-					{
-						if( existingNode.getLevel() <= node.getLevel() + 1 )
-							continue;
-						else
-							existingNode.removeFromParent();
-					}
+				GroupArtifact ga = new GroupArtifact( dependencyKey.getGroupId(), dependencyKey.getArtifactId() );
+				if( isGroupArtifactExcluded( node, ga ) )
+					continue;
 
-					final Optional<VersionScope> optionalVs = getVersionScopeFromDependencyManagement( node, dependencyKey, dependency );
-					final VersionScope vs;
-					if(optionalVs.isPresent() )
+				final Optional<VersionScope> optionalVs = getVersionScopeFromDependencyManagement( node, dependencyKey, dependency );
+				VersionScope vs;
+				if(optionalVs.isPresent() )
+				{
+					vs = optionalVs.get();
+				}
+				else
+				{
+					vs = dependency.getVs();
+					if( node.isRoot() )
 					{
-						vs = optionalVs.get();
+						if(vs.getScope() == null) {
+							vs.setScope( Scope.COMPILE );
+						}
 					}
 					else
 					{
-						vs = dependency.getVs();
-						if( node.isRoot() )
-						{
-							if(vs.getScope() == null) {
-								vs.setScope( Scope.COMPILE );
-							}
-						}
-						else
-						{
-							Scope scope = Scope.getScopeTransformation( node.getVs().getScope(), dependency.getVs().getScope() );
-							if(scope == null )
-								continue;
-							vs.setScope( scope );
-						}
+						// the shared dependencies are not modified
+						Scope scope = Scope.getScopeTransformation( node.getVs().getScope(), dependency.getVs().getScope() );
+						vs = scope != null ? new VersionScope( vs.getVersion(), vs.isVersionSelfManaged().orElse( null ), scope ) : null;
 					}
+				}
 
+				if( vs != null )
+				{
 					Scope scope = vs.getScope();
 					assert scope != null;
 					assert vs.getVersion() != null : "null version of dependency " + dependencyKey + " -> " + dependency + " (for project " + project + ")";
 
 					if( scope == Scope.IMPORT || scope == Scope.SYSTEM )
+						vs = null;
+				}
+
+				Set<GroupArtifact> exclusions = dependency.getExclusions();
+				DependencyManagement dm = node.getLocalManagement( dependencyKey );
+				if( dm != null && dm.getExclusions() != null )
+				{
+					exclusions = exclusions != null ? new HashSet<>( exclusions ) : new HashSet<>();
+					exclusions.addAll( dm.getExclusions() );
+				}
+
+				result.add( new ResolvedDependency( dependencyKey, ga, vs, exclusions, dependency.isOptional() ) );
+			}
+
+			if( key != null )
+				sharedCache.putChildren( key, result );
+
+			return result;
+		}
+
+		/**
+		 * @return true if the parents and boms used to compute the project's
+		 *         dependencies are all in the session
+		 */
+		private static boolean isHierarchyLoaded( Session session, Project project )
+		{
+			Project current = project;
+			while( current != null )
+			{
+				for( Gav gav : current.getCacheDependencies() )
+				{
+					if( !session.projects().contains( gav ) )
+						return false;
+				}
+
+				Project parent = session.projects().getParentProject( current );
+				if( parent == null && current.getParentGav() != null )
+					return false;
+				current = parent;
+			}
+
+			return true;
+		}
+
+		/**
+		 * @return for each dependency, what the dependency management of the
+		 *         tree imposes to it
+		 */
+		private static List<Object> getManagementFingerprint( DependencyNode node, Map<DependencyKey, RawDependency> dependencies )
+		{
+			List<Object> result = new ArrayList<>( dependencies.size() );
+			for( Entry<DependencyKey, RawDependency> e : dependencies.entrySet() )
+			{
+				DependencyManagement management = node.getTopLevelManagement( e.getKey() );
+				if( management == null || management.getVs().getVersion() == null )
+				{
+					result.add( null );
+				}
+				else if( management == node.getLocalManagement( e.getKey() ) && e.getValue().getVs().getVersion() != null )
+				{
+					result.add( LOCAL_MANAGEMENT );
+				}
+				else
+				{
+					VersionScope vs = management.getVs();
+					result.add( Arrays.asList( vs.getVersion(), vs.getScope(), vs.isVersionSelfManaged().orElse( null ) ) );
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Fetches and analyzes in one batch the projects missing in the session
+		 * which the nodes' dependencies will need. The pom files are fetched
+		 * concurrently, and parsed concurrently by the batch analysis.
+		 *
+		 * <p>
+		 * The tree is not modified, a project which cannot be fetched here will
+		 * be tried again by {@link #buildDependencyTree}.
+		 */
+		private void prefetchMissingProjects( Collection<DependencyNode> nodes, Session session, Map<String, Profile> profiles, PomFileLoader loader, ExecutorService fetchExecutor, int parallelism, Log log )
+		{
+			Map<Gav, List<Repository>> missingProjects = new LinkedHashMap<>();
+			for( DependencyNode node : nodes )
+			{
+				node.collectDependencyManagement( profiles, session.projects(), log );
+
+				List<Repository> additionalRepos = null;
+				for( ResolvedDependency dependency : resolveDependencies( node, session, profiles, false, log ) )
+				{
+					if( dependency.vs == null )
 						continue;
 
-					// get remote repositories
-					List<Repository> additionalRepos = getProjectRepositories( session, node.getProject(), log );
+					Gav dependencyGav = new Gav( dependency.key.getGroupId(), dependency.key.getArtifactId(), dependency.vs.getVersion() );
+					if( missingProjects.containsKey( dependencyGav ) || session.projects().forGav( dependencyGav ) != null )
+						continue;
+
+					if( additionalRepos == null )
+						additionalRepos = getProjectRepositories( session, node.getProject(), log );
+					missingProjects.put( dependencyGav, additionalRepos );
+				}
+			}
 
-					Gav dependencyGav = new Gav( dependencyKey.getGroupId(), dependencyKey.getArtifactId(), vs.getVersion() );
+			if( missingProjects.isEmpty() )
+				return;
+
+			PomAnalysis analysis = new PomAnalysis( session, loader, null, false, log );
+			analysis.setParallelism( parallelism );
+			for( File pomFile : loader.loadPomFilesForGavs( missingProjects, fetchExecutor, log ).values() )
+			{
+				if( pomFile != null )
+					analysis.addFile( pomFile );
+			}
+			if( Thread.currentThread().isInterrupted() )
+				return;
+
+			analysis.loadProjects();
+			analysis.completeLoadedProjects();
+			analysis.addCompletedProjectsToSession();
+			analysis.addCompletedProjectsToGraph();
+		}
+
+		private void buildDependencyTree( Queue<DependencyNode> nodeQueue, boolean full, boolean online, Session session, Map<String, Profile> profiles, PomFileLoader loader, ExecutorService fetchExecutor, int parallelism, Log log )
+		{
+			int neededLevels = full ? -1 : 1;
+
+			// nodes whose missing dependencies were already fetched
+			Set<DependencyNode> prefetchedNodes = Collections.newSetFromMap( new IdentityHashMap<>() );
+
+			while( !nodeQueue.isEmpty() )
+			{
+				// when its head was not prefetched, the queue holds exactly the
+				// next level of the tree
+				if( fetchExecutor != null && !prefetchedNodes.contains( nodeQueue.peek() ) )
+				{
+					prefetchMissingProjects( nodeQueue, session, profiles, loader, fetchExecutor, parallelism, log );
+					prefetchedNodes.addAll( nodeQueue );
+				}
+
+				DependencyNode node = nodeQueue.poll();
+
+				if( neededLevels >= 0 && node.getLevel() >= neededLevels )
+					continue;
+
+				node.collectDependencyManagement( profiles, session.projects(), log );
+
+				for( ResolvedDependency dependency : resolveDependencies( node, session, profiles, online, log ) )
+				{
+					DependencyNode existingNode = node.searchNodeForGroupArtifact( dependency.groupArtifact );
+					if( existingNode != null )
+					{
+						if( existingNode.getLevel() <= node.getLevel() + 1 )
+							continue;
+						else
+							existingNode.removeFromParent();
+					}
+
+					VersionScope vs = dependency.vs;
+					if( vs == null )
+						continue;
+
+					Gav dependencyGav = new Gav( dependency.key.getGroupId(), dependency.key.getArtifactId(), vs.getVersion() );
 
 					Project childProject = null;
 
@@ -233,6 +451,9 @@ public class TransitivityResolver
 						childProject = session.projects().forGav( dependencyGav );
 						if( childProject == null )
 						{
+							// get remote repositories
+							List<Repository> additionalRepos = getProjectRepositories( session, node.getProject(), log );
+
 							File pomFile = loader.loadPomFileForGav( dependencyGav, additionalRepos, log );
 							if( pomFile == null )
 							{
@@ -265,22 +486,18 @@ public class TransitivityResolver
 						if( childProject == null )
 						{
 							// TODO : use specified repositories if needed !
-							log.html( Tools.warningMessage( "cannot fetch project " + dependencyGav + " referenced in " + node.getProject() + (dependency.isOptional() ? " (this is an optional dependency)" : "") ) );
+							log.html( Tools.warningMessage( "cannot fetch project " + dependencyGav + " referenced in " + node.getProject() + (dependency.optional ? " (this is an optional dependency)" : "") ) );
 							continue;
 						}
 					}
 
-					DependencyNode child = new DependencyNode( childProject, dependencyKey, vs );
-					child.addExclusions( dependency.getExclusions() );
+					DependencyNode child = new DependencyNode( childProject, dependency.key, vs );
+					child.addExclusions( dependency.exclusions );
 
 					node.addChild( child );
 
-					DependencyManagement dm = node.getLocalManagement( dependencyKey );
-					if( dm != null )
-						child.addExclusions( dm.getExclusions() );
-
 					//FIXME is always false
-					if( scope == Scope.SYSTEM )
+					if( vs.getScope() == Scope.SYSTEM )
 						continue;
 
 					// TODO it seems to me that transitive dependency policy only
@@ -0,0 +1,575 @@
+package fr.lteconsulting.pomexplorer.graph;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.jgrapht.graph.DirectedMultigraph;
+
+import fr.lteconsulting.pomexplorer.graph.relation.Relation;
+import fr.lteconsulting.pomexplorer.graph.relation.RelationType;
+import fr.lteconsulting.pomexplorer.model.Gav;
+
+/**
+ * Immutable graph in compressed sparse row form, used for the committed
+ * snapshots of a {@link PomGraph}.
+ *
+ * <p>
+ * Vertices and edges are numbered in the iteration order of the graph they
+ * were built from. The outgoing (and incoming) edges of a vertex are a range
+ * of a single int array, edges of each relation type are flagged in a bitmap.
+ * Gavs are looked up through an open addressing table of vertex ids.
+ */
+final class CompactGraph implements GraphStore
+{
+	private static final RelationType[] RELATION_TYPES = RelationType.values();
+
+	/**
+	 * Visited flags and queue reused by the walks of each thread, whatever
+	 * the graph
+	 */
+	private static final ThreadLocal<WalkState> walkStates = ThreadLocal.withInitial( WalkState::new );
+
+	private final Gav[] vertices;
+	private final int[] slots;
+
+	private final Relation[] edges;
+	private final int[] edgeSources;
+	private final int[] edgeTargets;
+
+	private final int[] outOffsets;
+	private final int[] outEdges;
+	private final int[] inOffsets;
+	private final int[] inEdges;
+
+	private final BitSet[] edgesByType;
+
+	private final Set<Gav> vertexSet = new VertexSet();
+	private final Set<Relation> edgeSet = new EdgeSet();
+
+	private volatile DirectedMultigraph<Gav, Relation> jgraphtGraph;
+	private volatile ReachabilityIndex reachabilityIndex;
+
+	private CompactGraph( DirectedMultigraph<Gav, Relation> graph )
+	{
+		vertices = graph.vertexSet().toArray( new Gav[0] );
+		slots = new int[tableSize( vertices.length )];
+		for( int v = 0; v < vertices.length; v++ )
+			slots[freeSlot( vertices[v] )] = v + 1;
+
+		edges = graph.edgeSet().toArray( new Relation[0] );
+		edgeSources = new int[edges.length];
+		edgeTargets = new int[edges.length];
+		edgesByType = new BitSet[RELATION_TYPES.length];
+		for( int t = 0; t < RELATION_TYPES.length; t++ )
+			edgesByType[t] = new BitSet( edges.length );
+
+		outOffsets = new int[vertices.length + 1];
+		inOffsets = new int[vertices.length + 1];
+		for( int e = 0; e < edges.length; e++ )
+		{
+			edgeSources[e] = indexOf( graph.getEdgeSource( edges[e] ) );
+			edgeTargets[e] = indexOf( graph.getEdgeTarget( edges[e] ) );
+			edgesByType[edges[e].getRelationType().ordinal()].set( e );
+
+			outOffsets[edgeSources[e] + 1]++;
+			inOffsets[edgeTargets[e] + 1]++;
+		}
+		for( int v = 0; v < vertices.length; v++ )
+		{
+			outOffsets[v + 1] += outOffsets[v];
+			inOffsets[v + 1] += inOffsets[v];
+		}
+
+		// edges are taken in order so that each vertex keeps its edges order
+		outEdges = new int[edges.length];
+		inEdges = new int[edges.length];
+		int[] outFill = new int[vertices.length];
+		int[] inFill = new int[vertices.length];
+		for( int e = 0; e < edges.length; e++ )
+		{
+			outEdges[outOffsets[edgeSources[e]] + outFill[edgeSources[e]]++] = e;
+			inEdges[inOffsets[edgeTargets[e]] + inFill[edgeTargets[e]]++] = e;
+		}
+	}
+
+	static CompactGraph of( DirectedMultigraph<Gav, Relation> graph )
+	{
+		return new CompactGraph( graph );
+	}
+
+	int vertexCount()
+	{
+		return vertices.length;
+	}
+
+	int edgeCount()
+	{
+		return edges.length;
+	}
+
+	/**
+	 * @return the id of the vertex, -1 if it is not in the graph
+	 */
+	int indexOf( Gav gav )
+	{
+		if( gav == null )
+			return -1;
+
+		int mask = slots.length - 1;
+		for( int slot = spread( gav.hashCode() ) & mask;; slot = (slot + 1) & mask )
+		{
+			int id = slots[slot] - 1;
+			if( id < 0 )
+				return -1;
+			if( vertices[id].equals( gav ) )
+				return id;
+		}
+	}
+
+	Gav vertex( int id )
+	{
+		return vertices[id];
+	}
+
+	Relation edge( int id )
+	{
+		return edges[id];
+	}
+
+	int edgeSource( int edge )
+	{
+		return edgeSources[edge];
+	}
+
+	int edgeTarget( int edge )
+	{
+		return edgeTargets[edge];
+	}
+
+	RelationType edgeType( int edge )
+	{
+		return edges[edge].getRelationType();
+	}
+
+	boolean isEdgeOfType( int edge, RelationType type )
+	{
+		return edgesByType[type.ordinal()].get( edge );
+	}
+
+	int outDegree( int vertex )
+	{
+		return outOffsets[vertex + 1] - outOffsets[vertex];
+	}
+
+	/**
+	 * @return the id of the i-th outgoing edge of the vertex
+	 */
+	int outEdge( int vertex, int i )
+	{
+		return outEdges[outOffsets[vertex] + i];
+	}
+
+	int inDegree( int vertex )
+	{
+		return inOffsets[vertex + 1] - inOffsets[vertex];
+	}
+
+	/**
+	 * @return the id of the i-th incoming edge of the vertex
+	 */
+	int inEdge( int vertex, int i )
+	{
+		return inEdges[inOffsets[vertex] + i];
+	}
+
+	@Override
+	public Set<Gav> vertices()
+	{
+		return vertexSet;
+	}
+
+	@Override
+	public Set<Relation> edges()
+	{
+		return edgeSet;
+	}
+
+	@Override
+	public boolean containsVertex( Gav gav )
+	{
+		return indexOf( gav ) >= 0;
+	}
+
+	@Override
+	public Collection<Relation> outgoing( Gav gav )
+	{
+		int vertex = indexOf( gav );
+		if( vertex < 0 )
+			return Collections.emptyList();
+
+		return new EdgeRange( outEdges, outOffsets[vertex], outOffsets[vertex + 1] );
+	}
+
+	@Override
+	public Collection<Relation> incoming( Gav gav )
+	{
+		int vertex = indexOf( gav );
+		if( vertex < 0 )
+			return Collections.emptyList();
+
+		return new EdgeRange( inEdges, inOffsets[vertex], inOffsets[vertex + 1] );
+	}
+
+	@Override
+	public Collection<Relation> outgoing( Gav gav, RelationType type )
+	{
+		int vertex = indexOf( gav );
+		if( vertex < 0 )
+			return Collections.emptyList();
+
+		return edgesOfType( outEdges, outOffsets[vertex], outOffsets[vertex + 1], type );
+	}
+
+	@Override
+	public Collection<Relation> incoming( Gav gav, RelationType type )
+	{
+		int vertex = indexOf( gav );
+		if( vertex < 0 )
+			return Collections.emptyList();
+
+		return edgesOfType( inEdges, inOffsets[vertex], inOffsets[vertex + 1], type );
+	}
+
+	@Override
+	public void walk( Gav start, boolean reverse, Predicate<? super Relation> follow, int maxDepth, Consumer<Relation> visitor )
+	{
+		int startVertex = indexOf( start );
+		if( startVertex < 0 )
+			return;
+
+		WalkState state = walkStates.get();
+		if( state.inUse )
+		{
+			// walk started from a visitor, it needs its own state
+			state = new WalkState();
+		}
+
+		int[] offsets = reverse ? inOffsets : outOffsets;
+		int[] adjacency = reverse ? inEdges : outEdges;
+		int[] ends = reverse ? edgeSources : edgeTargets;
+
+		BitSet visited = state.visited;
+		int[] queue = state.queue( vertices.length );
+		int head = 0;
+		int tail = 0;
+
+		state.inUse = true;
+		try
+		{
+			visited.set( startVertex );
+			queue[tail++] = startVertex;
+
+			for( int depth = 1; head < tail && depth <= maxDepth; depth++ )
+			{
+				int levelEnd = tail;
+				while( head < levelEnd )
+				{
+					int vertex = queue[head++];
+					for( int i = offsets[vertex]; i < offsets[vertex + 1]; i++ )
+					{
+						int edge = adjacency[i];
+						if( !follow.test( edges[edge] ) )
+							continue;
+
+						visitor.accept( edges[edge] );
+
+						int next = ends[edge];
+						if( !visited.get( next ) )
+						{
+							visited.set( next );
+							queue[tail++] = next;
+						}
+					}
+				}
+			}
+		}
+		finally
+		{
+			// only the flags which were set are cleared
+			for( int i = 0; i < tail; i++ )
+				visited.clear( queue[i] );
+			state.inUse = false;
+		}
+	}
+
+	@Override
+	public boolean reaches( Gav from, Gav to )
+	{
+		int fromVertex = indexOf( from );
+		int toVertex = indexOf( to );
+		if( fromVertex < 0 || toVertex < 0 )
+			return false;
+
+		return reachabilityIndex().reaches( fromVertex, toVertex );
+	}
+
+	@Override
+	public Set<Gav> reachable( Gav start, boolean reverse )
+	{
+		int vertex = indexOf( start );
+		if( vertex < 0 )
+			return new HashSet<>();
+
+		return reachabilityIndex().reachable( vertex, reverse );
+	}
+
+	@Override
+	public int topologicalRank( Gav gav )
+	{
+		int vertex = indexOf( gav );
+		if( vertex < 0 )
+			return -1;
+
+		return reachabilityIndex().rank( vertex );
+	}
+
+	@Override
+	public List<Gav> topologicalOrder()
+	{
+		return reachabilityIndex().topologicalOrder();
+	}
+
+	/**
+	 * The index is built on the first reachability or ordering query, and then kept for
+	 * the life of the snapshot
+	 */
+	ReachabilityIndex reachabilityIndex()
+	{
+		ReachabilityIndex index = reachabilityIndex;
+		if( index == null )
+		{
+			synchronized( this )
+			{
+				index = reachabilityIndex;
+				if( index == null )
+				{
+					index = ReachabilityIndex.of( this );
+					reachabilityIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * The jgrapht graph is only built when an algorithm needs it, and then
+	 * kept for the life of the snapshot
+	 */
+	@Override
+	public DirectedMultigraph<Gav, Relation> toJGraphT()
+	{
+		DirectedMultigraph<Gav, Relation> graph = jgraphtGraph;
+		if( graph == null )
+		{
+			synchronized( this )
+			{
+				graph = jgraphtGraph;
+				if( graph == null )
+				{
+					graph = copyToJGraphT();
+
+					// jgrapht creates the edge containers lazily when they are first
+					// queried, create them all before the graph is shared between threads
+					for( Gav gav : vertices )
+					{
+						graph.outgoingEdgesOf( gav );
+						graph.incomingEdgesOf( gav );
+					}
+
+					jgraphtGraph = graph;
+				}
+			}
+		}
+		return graph;
+	}
+
+	@Override
+	public DirectedMultigraph<Gav, Relation> copyToJGraphT()
+	{
+		DirectedMultigraph<Gav, Relation> graph = JGraphTStore.createGraph();
+		for( Gav gav : vertices )
+			graph.addVertex( gav );
+		for( int e = 0; e < edges.length; e++ )
+			graph.addEdge( vertices[edgeSources[e]], vertices[edgeTargets[e]], edges[e] );
+		return graph;
+	}
+
+	private List<Relation> edgesOfType( int[] adjacency, int from, int to, RelationType type )
+	{
+		BitSet typeEdges = edgesByType[type.ordinal()];
+		List<Relation> result = new ArrayList<>();
+		for( int i = from; i < to; i++ )
+		{
+			if( typeEdges.get( adjacency[i] ) )
+				result.add( edges[adjacency[i]] );
+		}
+		return result;
+	}
+
+	private int freeSlot( Gav gav )
+	{
+		int mask = slots.length - 1;
+		int slot = spread( gav.hashCode() ) & mask;
+		while( slots[slot] != 0 )
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private static int tableSize( int count )
+	{
+		int size = 2;
+		while( size < count * 2 )
+			size <<= 1;
+		return size;
+	}
+
+	private static int spread( int hash )
+	{
+		return hash ^ (hash >>> 16);
+	}
+
+	private class EdgeRange extends AbstractList<Relation>
+	{
+		private final int[] adjacency;
+		private final int from;
+		private final int to;
+
+		EdgeRange( int[] adjacency, int from, int to )
+		{
+			this.adjacency = adjacency;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public Relation get( int index )
+		{
+			if( index < 0 || index >= to - from )
+				throw new IndexOutOfBoundsException( "index " + index + ", size " + (to - from) );
+
+			return edges[adjacency[from + index]];
+		}
+
+		@Override
+		public int size()
+		{
+			return to - from;
+		}
+	}
+
+	private class VertexSet extends AbstractSet<Gav>
+	{
+		@Override
+		public boolean contains( Object o )
+		{
+			return o instanceof Gav && indexOf( (Gav) o ) >= 0;
+		}
+
+		@Override
+		public Iterator<Gav> iterator()
+		{
+			return new ArrayIterator<>( vertices );
+		}
+
+		@Override
+		public int size()
+		{
+			return vertices.length;
+		}
+	}
+
+	private class EdgeSet extends AbstractSet<Relation>
+	{
+		@Override
+		public boolean contains( Object o )
+		{
+			if( !(o instanceof Relation) )
+				return false;
+
+			Relation relation = (Relation) o;
+			int source = indexOf( relation.getSource() );
+			if( source < 0 )
+				return false;
+
+			for( int i = outOffsets[source]; i < outOffsets[source + 1]; i++ )
+			{
+				if( edges[outEdges[i]].equals( relation ) )
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		public Iterator<Relation> iterator()
+		{
+			return new ArrayIterator<>( edges );
+		}
+
+		@Override
+		public int size()
+		{
+			return edges.length;
+		}
+	}
+
+	private static class WalkState
+	{
+		final BitSet visited = new BitSet();
+		private int[] queue = new int[0];
+		boolean inUse;
+
+		int[] queue( int capacity )
+		{
+			if( queue.length < capacity )
+				queue = new int[capacity];
+			return queue;
+		}
+	}
+
+	private static class ArrayIterator<T> implements Iterator<T>
+	{
+		private final T[] array;
+		private int next;
+
+		ArrayIterator( T[] array )
+		{
+			this.array = array;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return next < array.length;
+		}
+
+		@Override
+		public T next()
+		{
+			if( next >= array.length )
+				throw new NoSuchElementException();
+
+			return array[next++];
+		}
+	}
+}
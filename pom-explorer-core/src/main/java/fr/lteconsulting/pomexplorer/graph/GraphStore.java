@@ -0,0 +1,90 @@
+package fr.lteconsulting.pomexplorer.graph;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.jgrapht.graph.DirectedMultigraph;
+
+import fr.lteconsulting.pomexplorer.graph.relation.Relation;
+import fr.lteconsulting.pomexplorer.graph.relation.RelationType;
+import fr.lteconsulting.pomexplorer.model.Gav;
+
+/**
+ * Storage of the vertices and edges behind a {@link PomGraph.PomGraphReadTransaction}
+ */
+interface GraphStore
+{
+	Set<Gav> vertices();
+
+	Set<Relation> edges();
+
+	boolean containsVertex( Gav gav );
+
+	/**
+	 * @return the outgoing edges of the vertex, empty if it is not in the graph
+	 */
+	Collection<Relation> outgoing( Gav gav );
+
+	/**
+	 * @return the incoming edges of the vertex, empty if it is not in the graph
+	 */
+	Collection<Relation> incoming( Gav gav );
+
+	Collection<Relation> outgoing( Gav gav, RelationType type );
+
+	Collection<Relation> incoming( Gav gav, RelationType type );
+
+	/**
+	 * Walks the graph breadth first from the vertex, without recursion.
+	 * Each vertex is visited once, the visitor receives each followed relation
+	 * of the visited vertices.
+	 *
+	 * @param reverse
+	 *            true to walk through the incoming relations
+	 * @param follow
+	 *            relations to walk through, the other ones are ignored
+	 * @param maxDepth
+	 *            number of relations from the start vertex after which the
+	 *            walk stops
+	 */
+	void walk( Gav start, boolean reverse, Predicate<? super Relation> follow, int maxDepth, Consumer<Relation> visitor );
+
+	/**
+	 * @return true if there is a path of at least one relation from the
+	 *         vertex to the target
+	 */
+	boolean reaches( Gav from, Gav to );
+
+	/**
+	 * @return the vertices at the end of a path of at least one relation
+	 *         starting from the vertex, or ending at it when reverse
+	 */
+	Set<Gav> reachable( Gav start, boolean reverse );
+
+	/**
+	 * @return the rank of the vertex in the topological order, -1 if it is not
+	 *         in the graph
+	 * @see #topologicalOrder()
+	 */
+	int topologicalRank( Gav gav );
+
+	/**
+	 * Orders the strongly connected components of the graph so that a vertex
+	 * comes after the vertices it reaches. Vertices of a cycle are next to
+	 * each other and share the same rank.
+	 */
+	List<Gav> topologicalOrder();
+
+	/**
+	 * @return the graph as a jgrapht graph, which must not be modified
+	 */
+	DirectedMultigraph<Gav, Relation> toJGraphT();
+
+	/**
+	 * @return a new modifiable jgrapht graph with the same vertices and edges
+	 */
+	DirectedMultigraph<Gav, Relation> copyToJGraphT();
+}
@@ -0,0 +1,181 @@
+package fr.lteconsulting.pomexplorer.graph;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.jgrapht.graph.DirectedMultigraph;
+
+import fr.lteconsulting.pomexplorer.graph.relation.Relation;
+import fr.lteconsulting.pomexplorer.graph.relation.RelationType;
+import fr.lteconsulting.pomexplorer.model.Gav;
+
+/**
+ * Modifiable store backed by a jgrapht graph, used by write transactions
+ */
+class JGraphTStore implements GraphStore
+{
+	private final DirectedMultigraph<Gav, Relation> graph;
+
+	/**
+	 * Indexed copy of the graph giving the topological order, dropped when
+	 * the graph is modified
+	 */
+	private CompactGraph ranking;
+
+	JGraphTStore( DirectedMultigraph<Gav, Relation> graph )
+	{
+		this.graph = graph;
+	}
+
+	static DirectedMultigraph<Gav, Relation> createGraph()
+	{
+		@SuppressWarnings( "unchecked" )
+		Class<? extends Relation> edgeClass = Relation.class;
+		return new DirectedMultigraph<>( edgeClass );
+	}
+
+	@Override
+	public Set<Gav> vertices()
+	{
+		return graph.vertexSet();
+	}
+
+	@Override
+	public Set<Relation> edges()
+	{
+		return graph.edgeSet();
+	}
+
+	@Override
+	public boolean containsVertex( Gav gav )
+	{
+		return graph.containsVertex( gav );
+	}
+
+	@Override
+	public Collection<Relation> outgoing( Gav gav )
+	{
+		if( !graph.containsVertex( gav ) )
+			return Collections.emptySet();
+
+		return graph.outgoingEdgesOf( gav );
+	}
+
+	@Override
+	public Collection<Relation> incoming( Gav gav )
+	{
+		if( !graph.containsVertex( gav ) )
+			return Collections.emptySet();
+
+		return graph.incomingEdgesOf( gav );
+	}
+
+	@Override
+	public Collection<Relation> outgoing( Gav gav, RelationType type )
+	{
+		return outgoing( gav ).stream().filter( r -> r.getRelationType() == type ).collect( Collectors.toList() );
+	}
+
+	@Override
+	public Collection<Relation> incoming( Gav gav, RelationType type )
+	{
+		return incoming( gav ).stream().filter( r -> r.getRelationType() == type ).collect( Collectors.toList() );
+	}
+
+	@Override
+	public void walk( Gav start, boolean reverse, Predicate<? super Relation> follow, int maxDepth, Consumer<Relation> visitor )
+	{
+		if( !graph.containsVertex( start ) )
+			return;
+
+		Set<Gav> visited = new HashSet<>();
+		Deque<Gav> queue = new ArrayDeque<>();
+		visited.add( start );
+		queue.add( start );
+
+		for( int depth = 1; !queue.isEmpty() && depth <= maxDepth; depth++ )
+		{
+			for( int levelSize = queue.size(); levelSize > 0; levelSize-- )
+			{
+				Gav gav = queue.poll();
+				for( Relation relation : reverse ? graph.incomingEdgesOf( gav ) : graph.outgoingEdgesOf( gav ) )
+				{
+					if( !follow.test( relation ) )
+						continue;
+
+					visitor.accept( relation );
+
+					Gav next = reverse ? relation.getSource() : relation.getTarget();
+					if( visited.add( next ) )
+						queue.add( next );
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean reaches( Gav from, Gav to )
+	{
+		return reachable( from, false ).contains( to );
+	}
+
+	@Override
+	public Set<Gav> reachable( Gav start, boolean reverse )
+	{
+		Set<Gav> result = new HashSet<>();
+		walk( start, reverse, r -> true, Integer.MAX_VALUE, r -> result.add( reverse ? r.getSource() : r.getTarget() ) );
+		return result;
+	}
+
+	@Override
+	public int topologicalRank( Gav gav )
+	{
+		return ranking().topologicalRank( gav );
+	}
+
+	@Override
+	public List<Gav> topologicalOrder()
+	{
+		return ranking().topologicalOrder();
+	}
+
+	/**
+	 * Must be called after each modification of the graph
+	 */
+	void modified()
+	{
+		ranking = null;
+	}
+
+	private CompactGraph ranking()
+	{
+		if( ranking == null )
+			ranking = CompactGraph.of( graph );
+		return ranking;
+	}
+
+	@Override
+	public DirectedMultigraph<Gav, Relation> toJGraphT()
+	{
+		return graph;
+	}
+
+	@Override
+	public DirectedMultigraph<Gav, Relation> copyToJGraphT()
+	{
+		DirectedMultigraph<Gav, Relation> copy = createGraph();
+		for( Gav gav : graph.vertexSet() )
+			copy.addVertex( gav );
+		for( Relation edge : graph.edgeSet() )
+			copy.addEdge( graph.getEdgeSource( edge ), graph.getEdgeTarget( edge ), edge );
+		return copy;
+	}
+}
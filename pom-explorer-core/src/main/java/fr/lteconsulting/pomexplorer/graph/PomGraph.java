@@ -1,9 +1,13 @@
 package fr.lteconsulting.pomexplorer.graph;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import fr.lteconsulting.pomexplorer.graph.relation.*;
@@ -11,71 +15,129 @@ import org.jgrapht.graph.DirectedMultigraph;
 
 import fr.lteconsulting.pomexplorer.model.Gav;
 
+/**
+ * Graph of the relations between gavs, with multi-version concurrency.
+ *
+ * <p>
+ * Each committed version of the graph is an immutable snapshot in a compact
+ * indexed form, published atomically. Readers are never blocked: {@link #read()} returns the latest
+ * snapshot, or the one pinned on the current thread with {@link #pin()}.
+ * Writers work on a private copy. When another writer committed in the
+ * meantime, their modifications are replayed on top of the latest snapshot.
+ */
 public class PomGraph
 {
-	private PomGraphReadTransaction readTransaction = null;
+	public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
 
-	private final AtomicReference<DirectedMultigraph<Gav, Relation>> graphReference = new AtomicReference<>( createGraph() );
+	private static final Predicate<Relation> ALL_RELATIONS = r -> true;
 
+	private final AtomicReference<PomGraphReadTransaction> snapshot = new AtomicReference<>( new PomGraphReadTransaction( CompactGraph.of( JGraphTStore.createGraph() ), 0 ) );
+
+	private final ThreadLocal<PomGraphReadTransaction> pinnedSnapshot = new ThreadLocal<>();
+
+	/**
+	 * Opens a write transaction working on a private copy of the graph,
+	 * published on commit. Since opening it copies the whole graph, callers
+	 * should batch their modifications in one transaction.
+	 */
 	public PomGraphWriteTransaction write()
 	{
-		return new PomGraphWriteTransaction();
+		return new PomGraphWriteTransaction( snapshot.get() );
 	}
 
+	/**
+	 * @return the snapshot pinned on the current thread if any, the latest
+	 *         one otherwise
+	 */
 	public PomGraphReadTransaction read()
 	{
-		if( readTransaction == null )
-			readTransaction = new PomGraphReadTransaction( graphReference.get() );
-		return readTransaction;
+		PomGraphReadTransaction pinned = pinnedSnapshot.get();
+		if( pinned != null )
+			return pinned;
+
+		return snapshot.get();
 	}
 
-	private DirectedMultigraph<Gav, Relation> copyGraph( DirectedMultigraph<Gav, Relation> graph )
+	/**
+	 * Pins the latest snapshot on the current thread, so that all the reads
+	 * done until the pin is closed see the same version of the graph. Commits
+	 * done on the current thread move the pin to the committed version.
+	 */
+	public Pin pin()
 	{
-		DirectedMultigraph<Gav, Relation> newGraph = createGraph();
-		for( Gav gav : graph.vertexSet() )
-			newGraph.addVertex( gav );
-		for( Relation edge : graph.edgeSet() )
-			newGraph.addEdge( graph.getEdgeSource( edge ), graph.getEdgeTarget( edge ), edge );
-		return newGraph;
+		return new Pin();
 	}
 
-	private DirectedMultigraph<Gav, Relation> createGraph()
+	/**
+	 * A snapshot pinned on a thread, to be closed on the same thread
+	 */
+	public class Pin implements AutoCloseable
 	{
-		@SuppressWarnings( "unchecked" )
-		Class<? extends Relation> edgeClass = Relation.class;
-		return new DirectedMultigraph<>(edgeClass);
+		private final PomGraphReadTransaction previous;
+
+		private Pin()
+		{
+			previous = pinnedSnapshot.get();
+			pinnedSnapshot.set( snapshot.get() );
+		}
+
+		@Override
+		public void close()
+		{
+			if( previous != null )
+				pinnedSnapshot.set( previous );
+			else
+				pinnedSnapshot.remove();
+		}
 	}
 
 	public static class PomGraphReadTransaction
 	{
-		protected final DirectedMultigraph<Gav, Relation> txGraph;
+		protected final GraphStore store;
+		private final long version;
 
 		public PomGraphReadTransaction( DirectedMultigraph<Gav, Relation> txGraph )
 		{
-			this.txGraph = txGraph;
+			this( new JGraphTStore( txGraph ), -1 );
+		}
+
+		private PomGraphReadTransaction( GraphStore store, long version )
+		{
+			this.store = store;
+			this.version = version;
+		}
+
+		/**
+		 * @return the version of the snapshot, incremented at each commit. For
+		 *         a write transaction, the version it started from
+		 */
+		public long version()
+		{
+			return version;
 		}
 
 		public Set<Gav> gavs()
 		{
-			return txGraph.vertexSet();
+			return store.vertices();
 		}
 
 		public Set<Relation> relations()
 		{
-			return txGraph.edgeSet();
+			return store.edges();
 		}
 
 		public boolean hasArtifact( Gav gav )
 		{
-			return txGraph.containsVertex( gav );
+			return store.containsVertex( gav );
 		}
 
 		/**
-		 * For read only purpose only !
+		 * For read only purpose only ! For committed snapshots, the jgrapht
+		 * graph is built on the first call.
 		 */
 		public DirectedMultigraph<Gav, Relation> internalGraph()
 		{
-			return txGraph;
+			return store.toJGraphT();
 		}
 
 		public Gav sourceOf( Relation relation )
@@ -90,21 +152,20 @@ public class PomGraph
 
 		public Gav parent( Gav gav )
 		{
-			Set<ParentRelation> relations = filterParentRelations( relations( gav ) );
+			Collection<Relation> relations = store.outgoing( gav, RelationType.PARENT );
 
-			if( relations == null || relations.size() != 1 )
+			if( relations.size() != 1 )
 				return null;
 
-			return txGraph.getEdgeTarget( relations.iterator().next() );
+			return relations.iterator().next().getTarget();
 		}
 
 		public Set<Gav> children( Gav gav )
 		{
 			Set<Gav> res = new HashSet<>();
 
-			Set<ParentRelation> relations = filterParentRelations( relationsReverse( gav ) );
-			for( ParentRelation relation : relations )
-				res.add( txGraph.getEdgeSource( relation ) );
+			for( Relation relation : store.incoming( gav, RelationType.PARENT ) )
+				res.add( relation.getSource() );
 
 			return res;
 		}
@@ -123,9 +184,22 @@ public class PomGraph
 		 * Recursively gets the outgoing relations of a GAV
 		 */
 		public Set<Relation> relationsRec( Gav gav )
+		{
+			return relationsRec( gav, ALL_RELATIONS, UNLIMITED_DEPTH );
+		}
+
+		/**
+		 * Recursively gets the outgoing relations of a GAV, only walking
+		 * through the relations accepted by the filter
+		 *
+		 * @param maxDepth
+		 *            1 for the direct relations only, {@link #UNLIMITED_DEPTH}
+		 *            for no limit
+		 */
+		public Set<Relation> relationsRec( Gav gav, Predicate<? super Relation> follow, int maxDepth )
 		{
 			Set<Relation> res = new HashSet<>();
-			relationsRec( gav, res, new HashSet<>() );
+			store.walk( gav, false, follow, maxDepth, res::add );
 			return res;
 		}
 
@@ -134,49 +208,113 @@ public class PomGraph
 		 */
 		public Set<Relation> relationsReverse( Gav gav )
 		{
-			if( !txGraph.containsVertex( gav ) )
+			if( !store.containsVertex( gav ) )
 				return null;
-			return txGraph.incomingEdgesOf( gav );
+			return new HashSet<>( store.incoming( gav ) );
 		}
 
 		/**
 		 * Recursively gets the ingoing relations of a GAV
 		 */
 		public Set<Relation> relationsReverseRec( Gav gav )
+		{
+			return relationsReverseRec( gav, ALL_RELATIONS, UNLIMITED_DEPTH );
+		}
+
+		/**
+		 * Recursively gets the ingoing relations of a GAV, only walking
+		 * through the relations accepted by the filter
+		 *
+		 * @param maxDepth
+		 *            1 for the direct relations only, {@link #UNLIMITED_DEPTH}
+		 *            for no limit
+		 */
+		public Set<Relation> relationsReverseRec( Gav gav, Predicate<? super Relation> follow, int maxDepth )
 		{
 			Set<Relation> res = new HashSet<>();
-			relationsReverseRec( gav, res, new HashSet<>() );
+			store.walk( gav, true, follow, maxDepth, res::add );
 			return res;
 		}
 
+		/**
+		 * Tells if the target is reachable from the GAV through relations of
+		 * any type. On committed snapshots, this walks the graph of the
+		 * strongly connected components, only visiting the ones which are
+		 * before the target in topological order.
+		 */
+		public boolean reaches( Gav gav, Gav target )
+		{
+			return store.reaches( gav, target );
+		}
+
+		/**
+		 * Gets the GAVs reachable from a GAV, ie. the targets of
+		 * {@link #relationsRec(Gav)}
+		 */
+		public Set<Gav> reachableGavs( Gav gav )
+		{
+			return store.reachable( gav, false );
+		}
+
+		/**
+		 * Gets the GAVs from which a GAV is reachable, ie. the sources of
+		 * {@link #relationsReverseRec(Gav)}
+		 */
+		public Set<Gav> reachableGavsReverse( Gav gav )
+		{
+			return store.reachable( gav, true );
+		}
+
+		/**
+		 * Gets the GAVs in a build order: a GAV comes after the GAVs it
+		 * reaches. GAVs in a cycle are next to each other. The order is
+		 * computed once per snapshot, and once per modification in a write
+		 * transaction.
+		 */
+		public List<Gav> topologicalOrder()
+		{
+			return store.topologicalOrder();
+		}
+
+		/**
+		 * Gets the rank of a GAV in {@link #topologicalOrder()}, GAVs in the
+		 * same cycle having the same rank
+		 *
+		 * @return the rank, -1 if the GAV is not in the graph
+		 */
+		public int topologicalRank( Gav gav )
+		{
+			return store.topologicalRank( gav );
+		}
+
 		public Set<DependencyManagementRelation> dependenciesManagement( Gav gav )
 		{
-			return filterDependencyManagementRelations( relations( gav ) );
+			return filterRelations( store.outgoing( gav, RelationType.DEPENDENCY_MANAGEMENT ), DependencyManagementRelation.class );
 		}
 
 		public Set<DependencyManagementRelation> dependenciesManagementRec( Gav gav )
 		{
-			return filterDependencyManagementRelations( relationsRec( gav ) );
+			return collectRec( gav, false, DependencyManagementRelation.class );
 		}
 
 		public Set<DependencyRelation> dependencies( Gav gav )
 		{
-			return filterDependencyRelations( relations( gav ) );
+			return filterRelations( store.outgoing( gav, RelationType.DEPENDENCY ), DependencyRelation.class );
 		}
 
 		public Set<DependencyRelation> dependenciesRec( Gav gav )
 		{
-			return filterDependencyRelations( relationsRec( gav ) );
+			return collectRec( gav, false, DependencyRelation.class );
 		}
 
 		public Set<BuildDependencyRelation> buildDependencies( Gav gav )
 		{
-			return filterBuildDependencyRelations( relations( gav ) );
+			return filterRelations( store.outgoing( gav, RelationType.BUILD_DEPENDENCY ), BuildDependencyRelation.class );
 		}
 
 		public Set<BuildDependencyRelation> buildDependenciesRec( Gav gav )
 		{
-			return filterBuildDependencyRelations( relationsRec( gav ) );
+			return collectRec( gav, false, BuildDependencyRelation.class );
 		}
 
 		/**
@@ -184,56 +322,35 @@ public class PomGraph
 		 */
 		public Set<DependencyRelation> dependents( Gav gav )
 		{
-			return filterDependencyRelations( relationsReverse( gav ) );
+			return filterRelations( store.incoming( gav, RelationType.DEPENDENCY ), DependencyRelation.class );
 		}
 
 		public Set<DependencyRelation> dependentsRec( Gav gav )
 		{
-			return filterDependencyRelations( relationsReverseRec( gav ) );
+			return collectRec( gav, true, DependencyRelation.class );
 		}
 
 		public Set<DependencyManagementRelation> dependentsManagement( Gav gav )
 		{
-			return filterDependencyManagementRelations( relationsReverse( gav ) );
+			return filterRelations( store.incoming( gav, RelationType.DEPENDENCY_MANAGEMENT ), DependencyManagementRelation.class );
 		}
 
 		public Set<DependencyManagementRelation> dependentsManagementRec( Gav gav )
 		{
-			return filterDependencyManagementRelations( relationsReverseRec( gav ) );
+			return collectRec( gav, true, DependencyManagementRelation.class );
 		}
 
 		public Set<BuildDependencyRelation> buildDependents( Gav gav )
 		{
-			return filterBuildDependencyRelations( relationsReverse( gav ) );
+			return filterRelations( store.incoming( gav, RelationType.BUILD_DEPENDENCY ), BuildDependencyRelation.class );
 		}
 
 		public Set<BuildDependencyRelation> buildDependentsRec( Gav gav )
 		{
-			return filterBuildDependencyRelations( relationsReverseRec( gav ) );
-		}
-
-		private static Set<ParentRelation> filterParentRelations( Set<Relation> relations )
-		{
-            return filterRelations(relations, ParentRelation.class);
-		}
-
-        private static Set<DependencyRelation> filterDependencyRelations( Set<Relation> relations )
-		{
-            return filterRelations(relations, DependencyRelation.class);
-		}
-
-		private static Set<DependencyManagementRelation> filterDependencyManagementRelations( Set<Relation> relations )
-		{
-			return filterRelations(relations, DependencyManagementRelation.class);
+			return collectRec( gav, true, BuildDependencyRelation.class );
 		}
 
-
-		private static Set<BuildDependencyRelation> filterBuildDependencyRelations( Set<Relation> relations )
-		{
-		    return filterRelations(relations, BuildDependencyRelation.class);
-		}
-
-        private static <T> Set<T> filterRelations(Set<Relation> relations, Class<T> clazz) {
+        private static <T> Set<T> filterRelations(Collection<Relation> relations, Class<T> clazz) {
             return relations.stream()
                     .filter(clazz::isInstance)
                     .map(clazz::cast)
@@ -242,71 +359,114 @@ public class PomGraph
 
 		private void relations( Gav gav, Set<Relation> set )
 		{
-			if( !txGraph.containsVertex( gav ) )
-				return;
-
-			set.addAll( txGraph.outgoingEdgesOf( gav ) );
-		}
-
-		private void relationsRec( Gav gav, Set<Relation> set, Set<Gav> visitedGavs )
-		{
-			if( !txGraph.containsVertex( gav ) )
-				return;
-			if( visitedGavs.contains( gav ) )
-				return;
-			visitedGavs.add( gav );
-
-			Set<Relation> relations = txGraph.outgoingEdgesOf( gav );
-			set.addAll( relations );
-			for( Relation r : relations )
-			{
-				Gav target = txGraph.getEdgeTarget( r );
-				relationsRec( target, set, visitedGavs );
-			}
+			set.addAll( store.outgoing( gav ) );
 		}
 
-		private void relationsReverseRec( Gav gav, Set<Relation> set, Set<Gav> visitedGavs )
+		/**
+		 * Walks through all the relations and only collects those of the given class
+		 */
+		private <T extends Relation> Set<T> collectRec( Gav gav, boolean reverse, Class<T> clazz )
 		{
-			if( visitedGavs.contains( gav ) )
-				return;
-			visitedGavs.add( gav );
-
-			Set<Relation> relations = txGraph.incomingEdgesOf( gav );
-			for( Relation r : relations )
-			{
-				Gav source = txGraph.getEdgeSource( r );
-				set.add( r );
-				relationsReverseRec( source, set, visitedGavs );
-			}
+			Set<T> res = new HashSet<>();
+			store.walk( gav, reverse, ALL_RELATIONS, UNLIMITED_DEPTH, r -> {
+				if( clazz.isInstance( r ) )
+					res.add( clazz.cast( r ) );
+			} );
+			return res;
 		}
 	}
 
 	public class PomGraphWriteTransaction extends PomGraphReadTransaction
 	{
-		private PomGraphWriteTransaction()
+		private final PomGraphReadTransaction base;
+		private final JGraphTStore txStore;
+		private final DirectedMultigraph<Gav, Relation> txGraph;
+
+		/**
+		 * Modifications done in this transaction, replayed on the latest
+		 * snapshot if another transaction committed in the meantime
+		 */
+		private final List<Consumer<DirectedMultigraph<Gav, Relation>>> operations = new ArrayList<>();
+
+		private boolean committed;
+
+		private PomGraphWriteTransaction( PomGraphReadTransaction base )
+		{
+			this( base, new JGraphTStore( base.store.copyToJGraphT() ) );
+		}
+
+		private PomGraphWriteTransaction( PomGraphReadTransaction base, JGraphTStore txStore )
 		{
-			super( copyGraph( graphReference.get() ) );
+			super( txStore, base.version );
+			this.base = base;
+			this.txStore = txStore;
+			this.txGraph = txStore.toJGraphT();
 		}
 
+		/**
+		 * Publishes the modifications. The transaction cannot be modified
+		 * afterwards.
+		 */
 		public void commit()
 		{
-			graphReference.set( txGraph );
-			readTransaction = null;
+			checkNotCommitted();
+			committed = true;
+
+			while( true )
+			{
+				PomGraphReadTransaction latest = snapshot.get();
+
+				DirectedMultigraph<Gav, Relation> graph = txGraph;
+				if( latest != base )
+				{
+					graph = latest.store.copyToJGraphT();
+					for( Consumer<DirectedMultigraph<Gav, Relation>> operation : operations )
+						operation.accept( graph );
+				}
+
+				PomGraphReadTransaction committedSnapshot = new PomGraphReadTransaction( CompactGraph.of( graph ), latest.version + 1 );
+				if( snapshot.compareAndSet( latest, committedSnapshot ) )
+				{
+					if( pinnedSnapshot.get() != null )
+						pinnedSnapshot.set( committedSnapshot );
+					return;
+				}
+			}
 		}
 
 		public boolean addGav( Gav gav )
 		{
-			return txGraph.addVertex( gav );
+			checkNotCommitted();
+
+			Gav canonical = gav.intern();
+			operations.add( graph -> graph.addVertex( canonical ) );
+			txStore.modified();
+			return txGraph.addVertex( canonical );
 		}
 
 		public boolean addRelation( Relation relation )
 		{
+			checkNotCommitted();
+
+			operations.add( graph -> graph.addEdge( relation.getSource(), relation.getTarget(), relation ) );
+			txStore.modified();
 			return txGraph.addEdge( relation.getSource(), relation.getTarget(), relation );
 		}
 
 		public void removeRelations( Collection<Relation> relations )
 		{
-			txGraph.removeAllEdges( relations );
+			checkNotCommitted();
+
+			List<Relation> removed = new ArrayList<>( relations );
+			operations.add( graph -> graph.removeAllEdges( removed ) );
+			txStore.modified();
+			txGraph.removeAllEdges( removed );
+		}
+
+		private void checkNotCommitted()
+		{
+			if( committed )
+				throw new IllegalStateException( "the transaction has already been committed" );
 		}
 	}
 }
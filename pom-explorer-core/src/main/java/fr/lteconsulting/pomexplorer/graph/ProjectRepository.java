@@ -2,7 +2,9 @@ package fr.lteconsulting.pomexplorer.graph;
 
 import fr.lteconsulting.pomexplorer.Project;
 import fr.lteconsulting.pomexplorer.ProjectContainer;
+import fr.lteconsulting.pomexplorer.PropertyResolutionCache;
 import fr.lteconsulting.pomexplorer.Session;
+import fr.lteconsulting.pomexplorer.TransitiveDependencyCache;
 import fr.lteconsulting.pomexplorer.model.Gav;
 
 import java.util.*;
@@ -36,7 +38,53 @@ public class ProjectRepository implements ProjectContainer
 
 	public void remove( Project project )
 	{
-		projects.remove( project );
+		projects.remove( project.getGav(), project );
+	}
+
+	/**
+	 * Invalidates the caches of the projects which looked up one of the given
+	 * GAVs to compute them, and recursively of the projects which looked up
+	 * those invalidated projects
+	 *
+	 * @return the projects whose caches were invalidated
+	 */
+	public Set<Project> invalidateDependentCaches( Collection<Gav> changedGavs )
+	{
+		Map<Gav, List<Project>> dependents = new HashMap<>();
+		for( Project project : projects.values() )
+		{
+			for( Gav gav : project.getCacheDependencies() )
+				dependents.computeIfAbsent( gav, k -> new ArrayList<>() ).add( project );
+		}
+
+		Set<Project> invalidated = new HashSet<>();
+		Set<Gav> visited = new HashSet<>( changedGavs );
+		Deque<Gav> toVisit = new ArrayDeque<>( changedGavs );
+		while( !toVisit.isEmpty() )
+		{
+			List<Project> gavDependents = dependents.get( toVisit.poll() );
+			if( gavDependents == null )
+				continue;
+
+			for( Project project : gavDependents )
+			{
+				invalidated.add( project );
+				if( visited.add( project.getGav() ) )
+					toVisit.add( project.getGav() );
+			}
+		}
+
+		invalidated.forEach( Project::invalidateCaches );
+
+		PropertyResolutionCache cache = session.propertyResolutionCache();
+		cache.invalidate( changedGavs );
+		cache.invalidate( invalidated.stream().map( Project::getGav ).collect( Collectors.toList() ) );
+
+		TransitiveDependencyCache transitiveCache = session.transitiveDependencyCache();
+		transitiveCache.invalidate( changedGavs );
+		transitiveCache.invalidate( invalidated.stream().map( Project::getGav ).collect( Collectors.toList() ) );
+
+		return invalidated;
 	}
 
 	@Override
@@ -45,6 +93,12 @@ public class ProjectRepository implements ProjectContainer
 		return projects.get( gav );
 	}
 
+	@Override
+	public PropertyResolutionCache propertyResolutionCache()
+	{
+		return session.propertyResolutionCache();
+	}
+
 	public int size()
 	{
 		return projects.size();
@@ -0,0 +1,303 @@
+package fr.lteconsulting.pomexplorer.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import fr.lteconsulting.pomexplorer.model.Gav;
+
+/**
+ * Strongly connected components and topological order of a
+ * {@link CompactGraph}, following relations of any type.
+ *
+ * <p>
+ * Vertices are grouped by strongly connected component, the condensed graph
+ * being acyclic. Only the condensed graph is kept, in memory linear in the
+ * size of the graph : reachability is answered by a walk of the components,
+ * which is pruned by their topological numbering. Ordering the components
+ * rather than the vertices keeps the topological order defined when there
+ * are cycles.
+ */
+final class ReachabilityIndex
+{
+	private final CompactGraph graph;
+
+	/**
+	 * Component of each vertex. Components are numbered in reverse
+	 * topological order, a component only reaches lower numbered ones.
+	 */
+	private final int[] components;
+	private final int componentCount;
+
+	/**
+	 * Vertices of each component, in compressed sparse row form
+	 */
+	private final int[] memberOffsets;
+	private final int[] members;
+
+	/**
+	 * Distinct successors and predecessors of each component in the
+	 * condensed graph, in compressed sparse row form
+	 */
+	private final int[] successorOffsets;
+	private final int[] successors;
+	private final int[] predecessorOffsets;
+	private final int[] predecessors;
+
+	/**
+	 * Components in a cycle, which reach themselves
+	 */
+	private final BitSet cyclic;
+
+	private final List<Gav> topologicalOrder;
+
+	private ReachabilityIndex( CompactGraph graph )
+	{
+		this.graph = graph;
+
+		int vertexCount = graph.vertexCount();
+		components = new int[vertexCount];
+		componentCount = findComponents();
+
+		memberOffsets = new int[componentCount + 1];
+		members = new int[vertexCount];
+		for( int v = 0; v < vertexCount; v++ )
+			memberOffsets[components[v] + 1]++;
+		for( int c = 0; c < componentCount; c++ )
+			memberOffsets[c + 1] += memberOffsets[c];
+		int[] fill = new int[componentCount];
+		for( int v = 0; v < vertexCount; v++ )
+			members[memberOffsets[components[v]] + fill[components[v]]++] = v;
+
+		Gav[] ordered = new Gav[vertexCount];
+		for( int m = 0; m < vertexCount; m++ )
+			ordered[m] = graph.vertex( members[m] );
+		topologicalOrder = Collections.unmodifiableList( Arrays.asList( ordered ) );
+
+		cyclic = new BitSet( componentCount );
+		successorOffsets = new int[componentCount + 1];
+		int[] condensed = new int[graph.edgeCount()];
+		int condensedCount = 0;
+
+		// last component from which each component was found as a successor, to skip parallel edges
+		int[] seenFrom = new int[componentCount];
+		Arrays.fill( seenFrom, -1 );
+		for( int c = 0; c < componentCount; c++ )
+		{
+			for( int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++ )
+			{
+				int vertex = members[m];
+				for( int i = 0; i < graph.outDegree( vertex ); i++ )
+				{
+					int target = components[graph.edgeTarget( graph.outEdge( vertex, i ) )];
+					if( target == c )
+						cyclic.set( c );
+					else if( seenFrom[target] != c )
+					{
+						seenFrom[target] = c;
+						condensed[condensedCount++] = target;
+					}
+				}
+			}
+			successorOffsets[c + 1] = condensedCount;
+		}
+		successors = Arrays.copyOf( condensed, condensedCount );
+
+		predecessorOffsets = new int[componentCount + 1];
+		predecessors = new int[condensedCount];
+		for( int s : successors )
+			predecessorOffsets[s + 1]++;
+		for( int c = 0; c < componentCount; c++ )
+			predecessorOffsets[c + 1] += predecessorOffsets[c];
+		Arrays.fill( fill, 0 );
+		for( int c = 0; c < componentCount; c++ )
+		{
+			for( int e = successorOffsets[c]; e < successorOffsets[c + 1]; e++ )
+				predecessors[predecessorOffsets[successors[e]] + fill[successors[e]]++] = c;
+		}
+	}
+
+	static ReachabilityIndex of( CompactGraph graph )
+	{
+		return new ReachabilityIndex( graph );
+	}
+
+	/**
+	 * @return true if there is a path of at least one relation between the
+	 *         two vertices
+	 */
+	boolean reaches( int from, int to )
+	{
+		int fromComponent = components[from];
+		int toComponent = components[to];
+		if( fromComponent == toComponent )
+			return cyclic.get( fromComponent );
+		if( fromComponent < toComponent )
+			return false;
+
+		// components numbered below the target cannot reach it
+		BitSet visited = new BitSet( fromComponent + 1 );
+		int[] stack = new int[fromComponent - toComponent + 1];
+		int stackSize = 0;
+		stack[stackSize++] = fromComponent;
+		visited.set( fromComponent );
+		while( stackSize > 0 )
+		{
+			int component = stack[--stackSize];
+			for( int e = successorOffsets[component]; e < successorOffsets[component + 1]; e++ )
+			{
+				int successor = successors[e];
+				if( successor == toComponent )
+					return true;
+				if( successor > toComponent && !visited.get( successor ) )
+				{
+					visited.set( successor );
+					stack[stackSize++] = successor;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the vertices at the end of a path of at least one relation
+	 *         starting from the vertex, or ending at it when reverse
+	 */
+	Set<Gav> reachable( int vertex, boolean reverse )
+	{
+		int[] offsets = reverse ? predecessorOffsets : successorOffsets;
+		int[] neighbours = reverse ? predecessors : successors;
+
+		Set<Gav> result = new HashSet<>();
+		int start = components[vertex];
+		if( cyclic.get( start ) )
+			addMembers( start, result );
+
+		BitSet visited = new BitSet( componentCount );
+		int[] stack = new int[componentCount];
+		int stackSize = 0;
+		stack[stackSize++] = start;
+		visited.set( start );
+		while( stackSize > 0 )
+		{
+			int component = stack[--stackSize];
+			for( int e = offsets[component]; e < offsets[component + 1]; e++ )
+			{
+				int neighbour = neighbours[e];
+				if( !visited.get( neighbour ) )
+				{
+					visited.set( neighbour );
+					stack[stackSize++] = neighbour;
+					addMembers( neighbour, result );
+				}
+			}
+		}
+		return result;
+	}
+
+	private void addMembers( int component, Set<Gav> result )
+	{
+		for( int m = memberOffsets[component]; m < memberOffsets[component + 1]; m++ )
+			result.add( graph.vertex( members[m] ) );
+	}
+
+	/**
+	 * @return the rank of the component of the vertex. A vertex has a greater
+	 *         rank than the vertices it reaches, except those in the same cycle
+	 *         which have the same rank.
+	 */
+	int rank( int vertex )
+	{
+		return components[vertex];
+	}
+
+	/**
+	 * @return the vertices by increasing rank
+	 */
+	List<Gav> topologicalOrder()
+	{
+		return topologicalOrder;
+	}
+
+	/**
+	 * Iterative Tarjan algorithm, filling the component of each vertex
+	 *
+	 * @return the number of components
+	 */
+	private int findComponents()
+	{
+		int vertexCount = graph.vertexCount();
+
+		int[] order = new int[vertexCount];
+		int[] low = new int[vertexCount];
+		Arrays.fill( order, -1 );
+		BitSet onStack = new BitSet( vertexCount );
+		int[] stack = new int[vertexCount];
+		int stackSize = 0;
+
+		// explored vertices and the next outgoing edge to follow for each of them
+		int[] path = new int[vertexCount];
+		int[] nextEdge = new int[vertexCount];
+
+		int counter = 0;
+		int componentCount = 0;
+
+		for( int root = 0; root < vertexCount; root++ )
+		{
+			if( order[root] >= 0 )
+				continue;
+
+			int depth = 0;
+			path[0] = root;
+			nextEdge[0] = 0;
+			order[root] = low[root] = counter++;
+			stack[stackSize++] = root;
+			onStack.set( root );
+
+			while( depth >= 0 )
+			{
+				int vertex = path[depth];
+				if( nextEdge[depth] < graph.outDegree( vertex ) )
+				{
+					int target = graph.edgeTarget( graph.outEdge( vertex, nextEdge[depth]++ ) );
+					if( order[target] < 0 )
+					{
+						order[target] = low[target] = counter++;
+						stack[stackSize++] = target;
+						onStack.set( target );
+						depth++;
+						path[depth] = target;
+						nextEdge[depth] = 0;
+					}
+					else if( onStack.get( target ) )
+					{
+						low[vertex] = Math.min( low[vertex], order[target] );
+					}
+					continue;
+				}
+
+				if( low[vertex] == order[vertex] )
+				{
+					int member;
+					do
+					{
+						member = stack[--stackSize];
+						onStack.clear( member );
+						components[member] = componentCount;
+					}
+					while( member != vertex );
+					componentCount++;
+				}
+
+				depth--;
+				if( depth >= 0 )
+					low[path[depth]] = Math.min( low[path[depth]], low[vertex] );
+			}
+		}
+
+		return componentCount;
+	}
+}
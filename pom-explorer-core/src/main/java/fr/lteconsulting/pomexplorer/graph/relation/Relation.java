@@ -11,8 +11,8 @@ public abstract class Relation
 	protected Relation( Gav source, Gav target, RelationType type )
 	{
 		this.type = type;
-		this.source = source;
-		this.target = target;
+		this.source = source.intern();
+		this.target = target.intern();
 	}
 
 	public Gav getSource()
@@ -0,0 +1,38 @@
+package fr.lteconsulting.pomexplorer.graph.relation;
+
+import java.util.EnumSet;
+import java.util.function.Predicate;
+
+/**
+ * Filters of the relations to follow when walking the graph
+ */
+public final class RelationFilters
+{
+	private RelationFilters()
+	{
+	}
+
+	public static Predicate<Relation> ofTypes( RelationType first, RelationType... others )
+	{
+		EnumSet<RelationType> types = EnumSet.of( first, others );
+		return relation -> types.contains( relation.getRelationType() );
+	}
+
+	public static Predicate<Relation> excludingTypes( RelationType first, RelationType... others )
+	{
+		return ofTypes( first, others ).negate();
+	}
+
+	/**
+	 * Excludes the dependency relations with one of the scopes, the other
+	 * relations are kept
+	 */
+	public static Predicate<Relation> excludingScopes( Scope first, Scope... others )
+	{
+		EnumSet<Scope> scopes = EnumSet.of( first, others );
+		return relation -> {
+			DependencyLikeRelation dependency = relation.asDependencyLikeRelation();
+			return dependency == null || dependency.getDependency() == null || !scopes.contains( dependency.getDependency().getScope() );
+		};
+	}
+}
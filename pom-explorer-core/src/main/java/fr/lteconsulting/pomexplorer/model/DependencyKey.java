@@ -8,6 +8,7 @@ public class DependencyKey implements Comparable<DependencyKey>
 	final String artifactId;
 	final String classifier;
 	final String type;
+	private final int hashCode;
 
 	public static DependencyKey parse( String string )
 	{
@@ -31,6 +32,15 @@ public class DependencyKey implements Comparable<DependencyKey>
 		this.artifactId = artifactId;
 		this.classifier = classifier;
 		this.type = (type == null || type.isEmpty()) ? "jar" : type;
+		this.hashCode = computeHashCode();
+	}
+
+	/**
+	 * @return the canonical instance equal to this one
+	 */
+	public DependencyKey intern()
+	{
+		return Interner.intern( this );
 	}
 
 	public boolean isComplete()
@@ -66,6 +76,11 @@ public class DependencyKey implements Comparable<DependencyKey>
 
 	@Override
 	public int hashCode()
+	{
+		return hashCode;
+	}
+
+	private int computeHashCode()
 	{
 		final int prime = 31;
 		int result = 1;
@@ -86,6 +101,8 @@ public class DependencyKey implements Comparable<DependencyKey>
 		if( getClass() != obj.getClass() )
 			return false;
 		DependencyKey other = (DependencyKey) obj;
+		if( hashCode != other.hashCode )
+			return false;
 		if( artifactId == null )
 		{
 			if( other.artifactId != null )
@@ -9,6 +9,7 @@ public class Gav
 	private final String groupId;
 	private final String artifactId;
 	private final String version;
+	private final int hashCode;
 
 	public static final Comparator<Gav> alphabeticalComparator = new Comparator<Gav>()
 	{
@@ -56,6 +57,7 @@ public class Gav
 		this.groupId = groupId;
 		this.artifactId = artifactId;
 		this.version = version;
+		this.hashCode = computeHashCode();
 	}
 
 	public Gav( Gav gav )
@@ -63,6 +65,14 @@ public class Gav
 		this( gav.groupId, gav.artifactId, gav.version );
 	}
 
+	/**
+	 * @return the canonical instance equal to this one
+	 */
+	public Gav intern()
+	{
+		return Interner.intern( this );
+	}
+
 	public String getGroupId()
 	{
 		return groupId;
@@ -104,6 +114,11 @@ public class Gav
 
 	@Override
 	public int hashCode()
+	{
+		return hashCode;
+	}
+
+	private int computeHashCode()
 	{
 		final int prime = 31;
 		int result = 1;
@@ -123,6 +138,8 @@ public class Gav
 		if( getClass() != obj.getClass() )
 			return false;
 		Gav other = (Gav) obj;
+		if( hashCode != other.hashCode )
+			return false;
 		if( artifactId == null )
 		{
 			if( other.artifactId != null )
@@ -4,6 +4,7 @@ public class GroupArtifact
 {
 	private final String groupId;
 	private final String artifactId;
+	private final int hashCode;
 
 	public static GroupArtifact parse( String string )
 	{
@@ -21,6 +22,15 @@ public class GroupArtifact
 	{
 		this.groupId = groupId;
 		this.artifactId = artifactId;
+		this.hashCode = computeHashCode();
+	}
+
+	/**
+	 * @return the canonical instance equal to this one
+	 */
+	public GroupArtifact intern()
+	{
+		return Interner.intern( this );
 	}
 
 	public String getGroupId()
@@ -41,6 +51,11 @@ public class GroupArtifact
 
 	@Override
 	public int hashCode()
+	{
+		return hashCode;
+	}
+
+	private int computeHashCode()
 	{
 		final int prime = 31;
 		int result = 1;
@@ -59,6 +74,8 @@ public class GroupArtifact
 		if( getClass() != obj.getClass() )
 			return false;
 		GroupArtifact other = (GroupArtifact) obj;
+		if( hashCode != other.hashCode )
+			return false;
 		if( artifactId == null )
 		{
 			if( other.artifactId != null )
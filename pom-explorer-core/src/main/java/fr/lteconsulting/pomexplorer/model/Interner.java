@@ -0,0 +1,85 @@
+package fr.lteconsulting.pomexplorer.model;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Weak pools of canonical {@link Gav}, {@link GroupArtifact} and
+ * {@link DependencyKey} instances, and of the strings they are made of.
+ *
+ * <p>
+ * Instances are only retained as long as something else references them.
+ * Each pool is split in stripes so that parallel pom loading does not
+ * contend on a single lock.
+ */
+final class Interner
+{
+	private static final Pool<String> strings = new Pool<>();
+	private static final Pool<Gav> gavs = new Pool<>();
+	private static final Pool<GroupArtifact> groupArtifacts = new Pool<>();
+	private static final Pool<DependencyKey> dependencyKeys = new Pool<>();
+
+	private Interner()
+	{
+	}
+
+	static String intern( String value )
+	{
+		return value == null ? null : strings.intern( value, UnaryOperator.identity() );
+	}
+
+	static Gav intern( Gav gav )
+	{
+		return gavs.intern( gav, g -> new Gav( intern( g.getGroupId() ), intern( g.getArtifactId() ), intern( g.getVersion() ) ) );
+	}
+
+	static GroupArtifact intern( GroupArtifact groupArtifact )
+	{
+		return groupArtifacts.intern( groupArtifact, ga -> new GroupArtifact( intern( ga.getGroupId() ), intern( ga.getArtifactId() ) ) );
+	}
+
+	static DependencyKey intern( DependencyKey key )
+	{
+		return dependencyKeys.intern( key, k -> new DependencyKey( intern( k.groupId ), intern( k.artifactId ), intern( k.classifier ), intern( k.type ) ) );
+	}
+
+	private static class Pool<T>
+	{
+		private static final int STRIPES = 32;
+
+		private final Map<T, WeakReference<T>>[] stripes;
+
+		@SuppressWarnings( "unchecked" )
+		Pool()
+		{
+			stripes = new Map[STRIPES];
+			for( int i = 0; i < STRIPES; i++ )
+				stripes[i] = new WeakHashMap<>();
+		}
+
+		/**
+		 * @param canonical
+		 *            builds the instance to keep in the pool when there is no
+		 *            equal instance yet
+		 */
+		T intern( T value, UnaryOperator<T> canonical )
+		{
+			int hash = value.hashCode();
+			Map<T, WeakReference<T>> stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+
+			synchronized( stripe )
+			{
+				WeakReference<T> reference = stripe.get( value );
+				T existing = reference != null ? reference.get() : null;
+				if( existing != null )
+					return existing;
+
+				T result = canonical.apply( value );
+				stripe.put( result, new WeakReference<>( result ) );
+				return result;
+			}
+		}
+	}
+}
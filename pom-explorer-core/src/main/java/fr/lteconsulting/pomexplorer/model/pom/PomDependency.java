@@ -0,0 +1,92 @@
+package fr.lteconsulting.pomexplorer.model.pom;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import fr.lteconsulting.pomexplorer.model.GroupArtifact;
+
+/**
+ * A dependency as declared in a pom file, values are not interpolated
+ */
+public class PomDependency
+{
+	private final String groupId;
+	private final String artifactId;
+	private final String version;
+	private final String type;
+	private final String classifier;
+	private final String scope;
+	private final boolean optional;
+	private final List<GroupArtifact> exclusions;
+
+	public PomDependency( String groupId, String artifactId, String version, String type, String classifier, String scope, boolean optional, List<GroupArtifact> exclusions )
+	{
+		this.groupId = groupId;
+		this.artifactId = artifactId;
+		this.version = version;
+		this.type = type;
+		this.classifier = classifier;
+		this.scope = scope;
+		this.optional = optional;
+		this.exclusions = PomModel.immutable( exclusions );
+	}
+
+	static PomDependency fromMavenDependency( org.apache.maven.model.Dependency d )
+	{
+		List<GroupArtifact> exclusions = d.getExclusions() == null ? null
+				: d.getExclusions().stream()
+						.map( exclusion -> new GroupArtifact( exclusion.getGroupId(), exclusion.getArtifactId() ) )
+						.collect( Collectors.toList() );
+
+		return new PomDependency( d.getGroupId(), d.getArtifactId(), d.getVersion(), d.getType(), d.getClassifier(), d.getScope(), d.isOptional(), exclusions );
+	}
+
+	public String getGroupId()
+	{
+		return groupId;
+	}
+
+	public String getArtifactId()
+	{
+		return artifactId;
+	}
+
+	public String getVersion()
+	{
+		return version;
+	}
+
+	public String getType()
+	{
+		return type;
+	}
+
+	public String getClassifier()
+	{
+		return classifier;
+	}
+
+	public String getScope()
+	{
+		return scope;
+	}
+
+	public boolean isOptional()
+	{
+		return optional;
+	}
+
+	/**
+	 * @return the excluded artifacts, never null
+	 */
+	public List<GroupArtifact> getExclusions()
+	{
+		return exclusions;
+	}
+
+	@Override
+	public String toString()
+	{
+		return groupId + ":" + artifactId + ":" + version + ":" + type + (classifier != null ? ":" + classifier : "") + (scope != null ? ":" + scope : "");
+	}
+}
@@ -0,0 +1,194 @@
+package fr.lteconsulting.pomexplorer.model.pom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+
+import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
+
+/**
+ * Compact and immutable model of a pom file, keeping only the sections
+ * used for the analysis. Values are not interpolated.
+ *
+ * <p>
+ * Lists are never null, except the management sections which are null
+ * when absent from the pom file.
+ */
+public class PomModel
+{
+	private final String groupId;
+	private final String artifactId;
+	private final String version;
+	private final String packaging;
+	private final Gav parent;
+	private final Map<String, String> properties;
+	private final List<PomDependency> dependencies;
+	private final List<PomDependency> dependencyManagement;
+	private final List<PomPlugin> buildPlugins;
+	private final List<PomPlugin> pluginManagement;
+	private final List<PomProfile> profiles;
+	private final List<String> modules;
+	private final List<Repository> repositories;
+	private final String prerequisitesMaven;
+
+	public PomModel( String groupId, String artifactId, String version, String packaging, Gav parent, Map<String, String> properties, List<PomDependency> dependencies,
+			List<PomDependency> dependencyManagement, List<PomPlugin> buildPlugins, List<PomPlugin> pluginManagement, List<PomProfile> profiles, List<String> modules,
+			List<Repository> repositories, String prerequisitesMaven )
+	{
+		this.groupId = groupId;
+		this.artifactId = artifactId;
+		this.version = version;
+		this.packaging = packaging;
+		this.parent = parent;
+		this.properties = properties == null || properties.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap( new HashMap<>( properties ) );
+		this.dependencies = immutable( dependencies );
+		this.dependencyManagement = dependencyManagement == null ? null : immutable( dependencyManagement );
+		this.buildPlugins = immutable( buildPlugins );
+		this.pluginManagement = pluginManagement == null ? null : immutable( pluginManagement );
+		this.profiles = immutable( profiles );
+		this.modules = immutable( modules );
+		this.repositories = immutable( repositories );
+		this.prerequisitesMaven = prerequisitesMaven;
+	}
+
+	public static PomModel fromMavenModel( Model model )
+	{
+		Parent parent = model.getParent();
+
+		Map<String, String> properties = new HashMap<>();
+		model.getProperties().forEach( ( key, value ) -> properties.put( key.toString(), value.toString() ) );
+
+		return new PomModel(
+				model.getGroupId(),
+				model.getArtifactId(),
+				model.getVersion(),
+				model.getPackaging(),
+				parent == null ? null : new Gav( parent.getGroupId(), parent.getArtifactId(), parent.getVersion() ),
+				properties,
+				dependencies( model.getDependencies() ),
+				model.getDependencyManagement() == null ? null : dependencies( model.getDependencyManagement().getDependencies() ),
+				model.getBuild() == null ? null : plugins( model.getBuild().getPlugins() ),
+				model.getBuild() == null || model.getBuild().getPluginManagement() == null ? null : plugins( model.getBuild().getPluginManagement().getPlugins() ),
+				model.getProfiles() == null ? null : model.getProfiles().stream().map( PomProfile::fromMavenProfile ).collect( Collectors.toList() ),
+				model.getModules(),
+				model.getRepositories() == null ? null : model.getRepositories().stream().map( r -> new Repository( r.getId(), r.getUrl() ) ).collect( Collectors.toList() ),
+				model.getPrerequisites() == null ? null : model.getPrerequisites().getMaven() );
+	}
+
+	/**
+	 * @return the group id as declared, null if inherited from the parent
+	 */
+	public String getGroupId()
+	{
+		return groupId;
+	}
+
+	public String getArtifactId()
+	{
+		return artifactId;
+	}
+
+	/**
+	 * @return the version as declared, null if inherited from the parent
+	 */
+	public String getVersion()
+	{
+		return version;
+	}
+
+	public String getPackaging()
+	{
+		return packaging;
+	}
+
+	/**
+	 * @return the declared parent or null
+	 */
+	public Gav getParent()
+	{
+		return parent;
+	}
+
+	public Map<String, String> getProperties()
+	{
+		return properties;
+	}
+
+	public List<PomDependency> getDependencies()
+	{
+		return dependencies;
+	}
+
+	/**
+	 * @return null if the pom has no dependency management section
+	 */
+	public List<PomDependency> getDependencyManagement()
+	{
+		return dependencyManagement;
+	}
+
+	public List<PomPlugin> getBuildPlugins()
+	{
+		return buildPlugins;
+	}
+
+	/**
+	 * @return null if the pom has no plugin management section
+	 */
+	public List<PomPlugin> getPluginManagement()
+	{
+		return pluginManagement;
+	}
+
+	public List<PomProfile> getProfiles()
+	{
+		return profiles;
+	}
+
+	public List<String> getModules()
+	{
+		return modules;
+	}
+
+	public List<Repository> getRepositories()
+	{
+		return repositories;
+	}
+
+	public String getPrerequisitesMaven()
+	{
+		return prerequisitesMaven;
+	}
+
+	static List<PomDependency> dependencies( List<org.apache.maven.model.Dependency> dependencies )
+	{
+		if( dependencies == null )
+			return null;
+
+		return dependencies.stream().map( PomDependency::fromMavenDependency ).collect( Collectors.toList() );
+	}
+
+	static List<PomPlugin> plugins( List<Plugin> plugins )
+	{
+		if( plugins == null )
+			return null;
+
+		return plugins.stream().map( PomPlugin::fromMavenPlugin ).collect( Collectors.toList() );
+	}
+
+	static <T> List<T> immutable( List<T> list )
+	{
+		if( list == null || list.isEmpty() )
+			return Collections.emptyList();
+
+		return Collections.unmodifiableList( new ArrayList<>( list ) );
+	}
+}
@@ -0,0 +1,512 @@
+package fr.lteconsulting.pomexplorer.model.pom;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.GroupArtifact;
+import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
+
+/**
+ * Streaming reader building a {@link PomModel} directly from a pom file.
+ *
+ * <p>
+ * Only the sections kept in the {@link PomModel} are read, the other ones
+ * (reporting, distribution management, developers, plugin configurations...)
+ * are skipped without building any object. Unknown elements are ignored,
+ * values are trimmed and defaulted like the maven model does.
+ */
+public class PomModelReader
+{
+	private static final String DEFAULT_PACKAGING = "jar";
+	private static final String DEFAULT_DEPENDENCY_TYPE = "jar";
+	private static final String DEFAULT_PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+	private static final String DEFAULT_PROFILE_ID = "default";
+	private static final String DEFAULT_PREREQUISITES_MAVEN = "2.0";
+
+	private static final ThreadLocal<XMLInputFactory> factories = ThreadLocal.withInitial( () -> {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+		factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+		factory.setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, false );
+		return factory;
+	} );
+
+	private final XMLStreamReader reader;
+
+	private PomModelReader( XMLStreamReader reader )
+	{
+		this.reader = reader;
+	}
+
+	public static PomModel read( File pomFile ) throws IOException
+	{
+		try( InputStream in = new BufferedInputStream( new FileInputStream( pomFile ) ) )
+		{
+			XMLStreamReader reader = factories.get().createXMLStreamReader( in );
+			try
+			{
+				return new PomModelReader( reader ).readProject();
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		catch( XMLStreamException e )
+		{
+			throw new IOException( "cannot parse pom file " + pomFile.getAbsolutePath() + ": " + e.getMessage(), e );
+		}
+	}
+
+	private PomModel readProject() throws XMLStreamException
+	{
+		reader.nextTag();
+		if( !"project".equals( reader.getLocalName() ) )
+			throw new XMLStreamException( "expected a 'project' root element but found '" + reader.getLocalName() + "'", reader.getLocation() );
+
+		String groupId = null;
+		String artifactId = null;
+		String version = null;
+		String packaging = DEFAULT_PACKAGING;
+		Gav parent = null;
+		Map<String, String> properties = null;
+		List<PomDependency> dependencies = null;
+		List<PomDependency> dependencyManagement = null;
+		List<PomPlugin> buildPlugins = null;
+		List<PomPlugin> pluginManagement = null;
+		List<PomProfile> profiles = null;
+		List<String> modules = null;
+		List<Repository> repositories = null;
+		String prerequisitesMaven = null;
+
+		while( nextChild() )
+		{
+			switch( reader.getLocalName() )
+			{
+				case "groupId":
+					groupId = text();
+					break;
+				case "artifactId":
+					artifactId = text();
+					break;
+				case "version":
+					version = text();
+					break;
+				case "packaging":
+					packaging = text();
+					break;
+				case "parent":
+					parent = readParent();
+					break;
+				case "properties":
+					properties = readProperties();
+					break;
+				case "dependencies":
+					dependencies = readDependencies();
+					break;
+				case "dependencyManagement":
+					dependencyManagement = readDependencyManagement();
+					break;
+				case "build":
+					buildPlugins = new ArrayList<>();
+					pluginManagement = readBuild( buildPlugins );
+					break;
+				case "profiles":
+					profiles = readProfiles();
+					break;
+				case "modules":
+					modules = readStrings( "module" );
+					break;
+				case "repositories":
+					repositories = readRepositories();
+					break;
+				case "prerequisites":
+					prerequisitesMaven = readPrerequisites();
+					break;
+				default:
+					skip();
+			}
+		}
+
+		return new PomModel( groupId, artifactId, version, packaging, parent, properties, dependencies, dependencyManagement, buildPlugins, pluginManagement, profiles, modules,
+				repositories, prerequisitesMaven );
+	}
+
+	private Gav readParent() throws XMLStreamException
+	{
+		String groupId = null;
+		String artifactId = null;
+		String version = null;
+
+		while( nextChild() )
+		{
+			switch( reader.getLocalName() )
+			{
+				case "groupId":
+					groupId = text();
+					break;
+				case "artifactId":
+					artifactId = text();
+					break;
+				case "version":
+					version = text();
+					break;
+				default:
+					skip();
+			}
+		}
+
+		return new Gav( groupId, artifactId, version );
+	}
+
+	private Map<String, String> readProperties() throws XMLStreamException
+	{
+		Map<String, String> properties = new HashMap<>();
+		while( nextChild() )
+			properties.put( reader.getLocalName(), text() );
+		return properties;
+	}
+
+	private List<PomDependency> readDependencyManagement() throws XMLStreamException
+	{
+		List<PomDependency> dependencies = new ArrayList<>();
+		while( nextChild() )
+		{
+			if( "dependencies".equals( reader.getLocalName() ) )
+				dependencies.addAll( readDependencies() );
+			else
+				skip();
+		}
+		return dependencies;
+	}
+
+	private List<PomDependency> readDependencies() throws XMLStreamException
+	{
+		List<PomDependency> dependencies = new ArrayList<>();
+		while( nextChild() )
+		{
+			if( "dependency".equals( reader.getLocalName() ) )
+				dependencies.add( readDependency() );
+			else
+				skip();
+		}
+		return dependencies;
+	}
+
+	private PomDependency readDependency() throws XMLStreamException
+	{
+		String groupId = null;
+		String artifactId = null;
+		String version = null;
+		String type = DEFAULT_DEPENDENCY_TYPE;
+		String classifier = null;
+		String scope = null;
+		boolean optional = false;
+		List<GroupArtifact> exclusions = null;
+
+		while( nextChild() )
+		{
+			switch( reader.getLocalName() )
+			{
+				case "groupId":
+					groupId = text();
+					break;
+				case "artifactId":
+					artifactId = text();
+					break;
+				case "version":
+					version = text();
+					break;
+				case "type":
+					type = text();
+					break;
+				case "classifier":
+					classifier = text();
+					break;
+				case "scope":
+					scope = text();
+					break;
+				case "optional":
+					optional = Boolean.parseBoolean( text() );
+					break;
+				case "exclusions":
+					exclusions = readExclusions();
+					break;
+				default:
+					skip();
+			}
+		}
+
+		return new PomDependency( groupId, artifactId, version, type, classifier, scope, optional, exclusions );
+	}
+
+	private List<GroupArtifact> readExclusions() throws XMLStreamException
+	{
+		List<GroupArtifact> exclusions = new ArrayList<>();
+		while( nextChild() )
+		{
+			if( !"exclusion".equals( reader.getLocalName() ) )
+			{
+				skip();
+				continue;
+			}
+
+			String groupId = null;
+			String artifactId = null;
+			while( nextChild() )
+			{
+				switch( reader.getLocalName() )
+				{
+					case "groupId":
+						groupId = text();
+						break;
+					case "artifactId":
+						artifactId = text();
+						break;
+					default:
+						skip();
+				}
+			}
+			exclusions.add( new GroupArtifact( groupId, artifactId ) );
+		}
+		return exclusions;
+	}
+
+	/**
+	 * Reads a build (or profile build) section, filling the given plugin list
+	 *
+	 * @return the plugin management, null if absent
+	 */
+	private List<PomPlugin> readBuild( List<PomPlugin> plugins ) throws XMLStreamException
+	{
+		List<PomPlugin> pluginManagement = null;
+		while( nextChild() )
+		{
+			switch( reader.getLocalName() )
+			{
+				case "plugins":
+					plugins.addAll( readPlugins() );
+					break;
+				case "pluginManagement":
+					pluginManagement = new ArrayList<>();
+					while( nextChild() )
+					{
+						if( "plugins".equals( reader.getLocalName() ) )
+							pluginManagement.addAll( readPlugins() );
+						else
+							skip();
+					}
+					break;
+				default:
+					skip();
+			}
+		}
+		return pluginManagement;
+	}
+
+	private List<PomPlugin> readPlugins() throws XMLStreamException
+	{
+		List<PomPlugin> plugins = new ArrayList<>();
+		while( nextChild() )
+		{
+			if( !"plugin".equals( reader.getLocalName() ) )
+			{
+				skip();
+				continue;
+			}
+
+			String groupId = DEFAULT_PLUGIN_GROUP_ID;
+			String artifactId = null;
+			String version = null;
+			while( nextChild() )
+			{
+				switch( reader.getLocalName() )
+				{
+					case "groupId":
+						groupId = text();
+						break;
+					case "artifactId":
+						artifactId = text();
+						break;
+					case "version":
+						version = text();
+						break;
+					default:
+						// executions, configuration and plugin dependencies are not used
+						skip();
+				}
+			}
+			plugins.add( new PomPlugin( groupId, artifactId, version ) );
+		}
+		return plugins;
+	}
+
+	private List<PomProfile> readProfiles() throws XMLStreamException
+	{
+		List<PomProfile> profiles = new ArrayList<>();
+		while( nextChild() )
+		{
+			if( "profile".equals( reader.getLocalName() ) )
+				profiles.add( readProfile() );
+			else
+				skip();
+		}
+		return profiles;
+	}
+
+	private PomProfile readProfile() throws XMLStreamException
+	{
+		String id = DEFAULT_PROFILE_ID;
+		boolean activeByDefault = false;
+		List<String> modules = null;
+		List<PomDependency> dependencies = null;
+		List<PomDependency> dependencyManagement = null;
+		List<PomPlugin> buildPlugins = null;
+
+		while( nextChild() )
+		{
+			switch( reader.getLocalName() )
+			{
+				case "id":
+					id = text();
+					break;
+				case "activation":
+					while( nextChild() )
+					{
+						if( "activeByDefault".equals( reader.getLocalName() ) )
+							activeByDefault = Boolean.parseBoolean( text() );
+						else
+							skip();
+					}
+					break;
+				case "modules":
+					modules = readStrings( "module" );
+					break;
+				case "dependencies":
+					dependencies = readDependencies();
+					break;
+				case "dependencyManagement":
+					dependencyManagement = readDependencyManagement();
+					break;
+				case "build":
+					buildPlugins = new ArrayList<>();
+					readBuild( buildPlugins );
+					break;
+				default:
+					skip();
+			}
+		}
+
+		return new PomProfile( id, activeByDefault, modules, dependencies, dependencyManagement, buildPlugins );
+	}
+
+	private List<Repository> readRepositories() throws XMLStreamException
+	{
+		List<Repository> repositories = new ArrayList<>();
+		while( nextChild() )
+		{
+			if( !"repository".equals( reader.getLocalName() ) )
+			{
+				skip();
+				continue;
+			}
+
+			String id = null;
+			String url = null;
+			while( nextChild() )
+			{
+				switch( reader.getLocalName() )
+				{
+					case "id":
+						id = text();
+						break;
+					case "url":
+						url = text();
+						break;
+					default:
+						skip();
+				}
+			}
+			repositories.add( new Repository( id, url ) );
+		}
+		return repositories;
+	}
+
+	private String readPrerequisites() throws XMLStreamException
+	{
+		String maven = DEFAULT_PREREQUISITES_MAVEN;
+		while( nextChild() )
+		{
+			if( "maven".equals( reader.getLocalName() ) )
+				maven = text();
+			else
+				skip();
+		}
+		return maven;
+	}
+
+	private List<String> readStrings( String elementName ) throws XMLStreamException
+	{
+		List<String> values = new ArrayList<>();
+		while( nextChild() )
+		{
+			if( elementName.equals( reader.getLocalName() ) )
+				values.add( text() );
+			else
+				skip();
+		}
+		return values;
+	}
+
+	/**
+	 * Moves to the next child element of the current element
+	 *
+	 * @return false when the end of the current element is reached
+	 */
+	private boolean nextChild() throws XMLStreamException
+	{
+		while( reader.hasNext() )
+		{
+			int event = reader.next();
+			if( event == XMLStreamConstants.START_ELEMENT )
+				return true;
+			if( event == XMLStreamConstants.END_ELEMENT )
+				return false;
+		}
+		return false;
+	}
+
+	private String text() throws XMLStreamException
+	{
+		return reader.getElementText().trim();
+	}
+
+	/**
+	 * Skips the current element and all its content
+	 */
+	private void skip() throws XMLStreamException
+	{
+		int depth = 1;
+		while( depth > 0 )
+		{
+			int event = reader.next();
+			if( event == XMLStreamConstants.START_ELEMENT )
+				depth++;
+			else if( event == XMLStreamConstants.END_ELEMENT )
+				depth--;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package fr.lteconsulting.pomexplorer.model.pom;
+
+import org.apache.maven.model.Plugin;
+
+import fr.lteconsulting.pomexplorer.model.Gav;
+
+/**
+ * A plugin as declared in a pom file, values are not interpolated
+ */
+public class PomPlugin
+{
+	private final String groupId;
+	private final String artifactId;
+	private final String version;
+
+	public PomPlugin( String groupId, String artifactId, String version )
+	{
+		this.groupId = groupId;
+		this.artifactId = artifactId;
+		this.version = version;
+	}
+
+	static PomPlugin fromMavenPlugin( Plugin plugin )
+	{
+		return new PomPlugin( plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion() );
+	}
+
+	public String getGroupId()
+	{
+		return groupId;
+	}
+
+	public String getArtifactId()
+	{
+		return artifactId;
+	}
+
+	public String getVersion()
+	{
+		return version;
+	}
+
+	public Gav toGav()
+	{
+		return new Gav( groupId, artifactId, version );
+	}
+
+	@Override
+	public String toString()
+	{
+		return groupId + ":" + artifactId + ":" + version;
+	}
+}
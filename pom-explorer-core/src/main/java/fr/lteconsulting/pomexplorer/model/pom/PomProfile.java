@@ -0,0 +1,81 @@
+package fr.lteconsulting.pomexplorer.model.pom;
+
+import java.util.List;
+
+import org.apache.maven.model.Profile;
+
+/**
+ * The sections of a pom profile used for the analysis
+ */
+public class PomProfile
+{
+	private final String id;
+	private final boolean activeByDefault;
+	private final List<String> modules;
+	private final List<PomDependency> dependencies;
+	private final List<PomDependency> dependencyManagement;
+	private final List<PomPlugin> buildPlugins;
+
+	/**
+	 * @param dependencyManagement
+	 *            null if the profile has no dependency management section
+	 * @param buildPlugins
+	 *            null if the profile has no build section
+	 */
+	public PomProfile( String id, boolean activeByDefault, List<String> modules, List<PomDependency> dependencies, List<PomDependency> dependencyManagement, List<PomPlugin> buildPlugins )
+	{
+		this.id = id;
+		this.activeByDefault = activeByDefault;
+		this.modules = PomModel.immutable( modules );
+		this.dependencies = PomModel.immutable( dependencies );
+		this.dependencyManagement = dependencyManagement == null ? null : PomModel.immutable( dependencyManagement );
+		this.buildPlugins = buildPlugins == null ? null : PomModel.immutable( buildPlugins );
+	}
+
+	static PomProfile fromMavenProfile( Profile profile )
+	{
+		return new PomProfile(
+				profile.getId(),
+				profile.getActivation() != null && profile.getActivation().isActiveByDefault(),
+				profile.getModules(),
+				PomModel.dependencies( profile.getDependencies() ),
+				profile.getDependencyManagement() == null ? null : PomModel.dependencies( profile.getDependencyManagement().getDependencies() ),
+				profile.getBuild() == null ? null : PomModel.plugins( profile.getBuild().getPlugins() ) );
+	}
+
+	public String getId()
+	{
+		return id;
+	}
+
+	public boolean isActiveByDefault()
+	{
+		return activeByDefault;
+	}
+
+	public List<String> getModules()
+	{
+		return modules;
+	}
+
+	public List<PomDependency> getDependencies()
+	{
+		return dependencies;
+	}
+
+	/**
+	 * @return null if the profile has no dependency management section
+	 */
+	public List<PomDependency> getDependencyManagement()
+	{
+		return dependencyManagement;
+	}
+
+	/**
+	 * @return null if the profile has no build section
+	 */
+	public List<PomPlugin> getBuildPlugins()
+	{
+		return buildPlugins;
+	}
+}
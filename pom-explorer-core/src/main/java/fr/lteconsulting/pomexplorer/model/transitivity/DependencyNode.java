@@ -1,6 +1,7 @@
 package fr.lteconsulting.pomexplorer.model.transitivity;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -18,6 +19,8 @@ import fr.lteconsulting.pomexplorer.model.VersionScope;
 
 public class DependencyNode
 {
+	private static final GroupArtifact ANY = new GroupArtifact( "*", "*" );
+
 	private final Project project;
 	private final DependencyKey gact;
 	private final VersionScope vs;
@@ -28,6 +31,26 @@ public class DependencyNode
 	private DependencyNode parent;
 	private List<DependencyNode> children;
 
+	/**
+	 * Distance to the root node, kept up to date when a subtree is attached or
+	 * detached
+	 */
+	private int level;
+	private DependencyNode root = this;
+
+	/**
+	 * The dependency management of the node and of its ancestors, the
+	 * ancestors' one taking precedence. Computed on demand and shared with the
+	 * parent when the node does not manage anything more.
+	 */
+	private Map<DependencyKey, DependencyManagement> topLevelManagement;
+
+	/**
+	 * The exclusions of the node and of its ancestors, computed on demand and
+	 * shared with the parent when the node has no exclusion of its own
+	 */
+	private Set<GroupArtifact> inheritedExclusions;
+
 	public DependencyNode( Project project, DependencyKey gact, VersionScope vs )
 	{
 		this.project = project;
@@ -38,6 +61,7 @@ public class DependencyNode
 	public void collectDependencyManagement( Map<String, Profile> profiles, ProjectContainer projects, Log log )
 	{
 		dependencyManagement = project.getHierarchicalDependencyManagement( null, profiles, projects, log , true);
+		resetInheritedState();
 	}
 
 	public DependencyKey getKey()
@@ -64,6 +88,7 @@ public class DependencyNode
 			this.exclusions = new HashSet<>( exclusions );
 		else
 			this.exclusions.addAll( exclusions );
+		resetInheritedState();
 	}
 
 	public boolean isRoot()
@@ -73,21 +98,11 @@ public class DependencyNode
 
 	public DependencyNode getRootNode()
 	{
-		DependencyNode node = this;
-		while( node.parent != null )
-			node = node.parent;
-		return node;
+		return root;
 	}
 
 	public int getLevel()
 	{
-		int level = 0;
-		DependencyNode current = parent;
-		while( current != null )
-		{
-			level++;
-			current = current.parent;
-		}
 		return level;
 	}
 
@@ -101,13 +116,13 @@ public class DependencyNode
 	public void addChild( DependencyNode child )
 	{
 		child.parent = this;
+		child.updateSubtree( root, level + 1 - child.level );
 
 		if( children == null )
 			children = new ArrayList<>();
 		children.add( child );
 
 		// signaler au parent qu'on est la
-		DependencyNode root = getRootNode();
 		if( root.cachedNodesByGA == null )
 			root.cachedNodesByGA = new HashMap<>();
 		root.cachedNodesByGA.put( new GroupArtifact( gact.getGroupId(), gact.getArtifactId() ), child );
@@ -119,9 +134,33 @@ public class DependencyNode
 		{
 			parent.children.remove( this );
 			parent = null;
+			updateSubtree( this, -level );
+		}
+	}
+
+	/**
+	 * Moves the subtree under a new root, its inherited state being computed
+	 * again on demand
+	 */
+	private void updateSubtree( DependencyNode newRoot, int levelShift )
+	{
+		root = newRoot;
+		level += levelShift;
+		topLevelManagement = null;
+		inheritedExclusions = null;
+
+		if( children != null )
+		{
+			for( DependencyNode child : children )
+				child.updateSubtree( newRoot, levelShift );
 		}
 	}
 
+	private void resetInheritedState()
+	{
+		updateSubtree( root, 0 );
+	}
+
 	public List<DependencyNode> getChildren()
 	{
 		return children;
@@ -153,14 +192,30 @@ public class DependencyNode
 
 	public DependencyManagement getTopLevelManagement( DependencyKey key )
 	{
-		DependencyManagement res = null;
-		if( parent != null )
-			res = parent.getTopLevelManagement( key );
+		return getTopLevelManagement().get( key );
+	}
 
-		if( res == null && dependencyManagement != null )
-			return dependencyManagement.get( key );
+	private Map<DependencyKey, DependencyManagement> getTopLevelManagement()
+	{
+		if( topLevelManagement == null )
+		{
+			Map<DependencyKey, DependencyManagement> inherited = parent != null ? parent.getTopLevelManagement() : Collections.emptyMap();
+			if( dependencyManagement == null || inherited.keySet().containsAll( dependencyManagement.keySet() ) )
+			{
+				topLevelManagement = inherited;
+			}
+			else if( inherited.isEmpty() )
+			{
+				topLevelManagement = dependencyManagement;
+			}
+			else
+			{
+				topLevelManagement = new HashMap<>( dependencyManagement );
+				topLevelManagement.putAll( inherited );
+			}
+		}
 
-		return res;
+		return topLevelManagement;
 	}
 
 	public DependencyNode searchNodeForGroupArtifact( GroupArtifact ga )
@@ -178,11 +233,49 @@ public class DependencyNode
 
 	public boolean isExcluded( GroupArtifact ga )
 	{
-		if( exclusions == null )
+		return isExcluded( exclusions, ga );
+	}
+
+	/**
+	 * @return true if the artifact is excluded by this node or one of its
+	 *         ancestors
+	 */
+	public boolean isExcludedInBranch( GroupArtifact ga )
+	{
+		return isExcluded( getInheritedExclusions(), ga );
+	}
+
+	/**
+	 * @return the exclusions of this node and of its ancestors, the returned
+	 *         set is not modifiable
+	 */
+	public Set<GroupArtifact> getInheritedExclusions()
+	{
+		if( inheritedExclusions == null )
+		{
+			Set<GroupArtifact> inherited = parent != null ? parent.getInheritedExclusions() : Collections.emptySet();
+			if( exclusions == null || inherited.containsAll( exclusions ) )
+			{
+				inheritedExclusions = inherited;
+			}
+			else
+			{
+				Set<GroupArtifact> union = new HashSet<>( inherited );
+				union.addAll( exclusions );
+				inheritedExclusions = Collections.unmodifiableSet( union );
+			}
+		}
+
+		return inheritedExclusions;
+	}
+
+	private static boolean isExcluded( Set<GroupArtifact> exclusions, GroupArtifact ga )
+	{
+		if( exclusions == null || exclusions.isEmpty() )
 			return false;
 		if( exclusions.contains( ga ) )
 			return true;
-		if( exclusions.contains( new GroupArtifact( "*", "*" ) ) )
+		if( exclusions.contains( ANY ) )
 			return true;
 		if( exclusions.contains( new GroupArtifact( ga.getGroupId(), "*" ) ) )
 			return true;
@@ -8,11 +8,17 @@ import fr.lteconsulting.pomexplorer.graph.relation.DependencyManagementRelation;
 import fr.lteconsulting.pomexplorer.graph.relation.DependencyRelation;
 import fr.lteconsulting.pomexplorer.model.Gav;
 import fr.lteconsulting.pomexplorer.model.GroupArtifact;
+import fr.lteconsulting.pomexplorer.model.transitivity.DependencyNode;
 import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -32,6 +38,9 @@ public class AnalyzerTest
 	private static final String PROJECT_E = "fr.lteconsulting:e:2.0-SNAPSHOT";
 	private static final String PROJECT_F = "fr.lteconsulting:f:1.5";
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	@Test
 	public void test01()
 	{
@@ -197,6 +206,54 @@ public class AnalyzerTest
 		assertTrue(shouldBeMissing.isEmpty());
 	}
 
+	@Test
+	public void transitiveDependenciesParallelFetch()
+	{
+		List<String> sequential = fetchTransitiveDependencies(1);
+		List<String> parallel = fetchTransitiveDependencies(4);
+
+		assertThat(sequential).containsExactly(PROJECT_B, PROJECT_C, PROJECT_D);
+		assertEquals(sequential, parallel);
+	}
+
+	@Test
+	public void transitiveDependenciesSharedCache()
+	{
+		Session session = new Session();
+		List<String> first = fetchTransitiveDependencies(session, 1);
+		long misses = session.transitiveDependencyCache().getMisses();
+		List<String> second = fetchTransitiveDependencies(session, 1);
+
+		assertEquals(first, second);
+		assertEquals(misses, session.transitiveDependencyCache().getMisses());
+		assertTrue(session.transitiveDependencyCache().getHits() > 0);
+	}
+
+	private List<String> fetchTransitiveDependencies(int parallelism)
+	{
+		return fetchTransitiveDependencies(new Session(), parallelism);
+	}
+
+	private List<String> fetchTransitiveDependencies(Session session, int parallelism)
+	{
+		PomAnalysis analysis = new PomAnalysis(session, null, null, false, System.out::println);
+		analysis.addFile(new File("testSets/set02/a.pom"));
+		analysis.loadProjects();
+		analysis.completeLoadedProjects();
+		analysis.addCompletedProjectsToSession();
+		analysis.addCompletedProjectsToGraph();
+
+		TransitivityResolver resolver = new TransitivityResolver();
+		resolver.setParallelism(parallelism);
+		DependencyNode tree = resolver.getTransitiveDependencyTree(session, session.projects().forGav(Gav.parse(PROJECT_A)), true, false, null,
+				(gav, additionalRepos, log) -> new File("testSets/set02/" + gav.getArtifactId() + ".pom"), System.out::println);
+		resolver.shutdown();
+
+		List<String> result = new ArrayList<>();
+		tree.visitDepth(node -> result.add(node.getProject().getGav().toString()));
+		return result;
+	}
+
 	@Test
 	public void test06()
 	{
@@ -565,6 +622,153 @@ public class AnalyzerTest
 		assertNoNullGavsNoErroneousPoms(session, pomAnalysis);
 	}
 
+	@Test
+	public void analysisStats()
+	{
+		//arrange
+		Session session = new Session();
+		//act
+		PomAnalysis pomAnalysis = runFullRecursiveAnalysis(session, "testSets/set02");
+		//assert
+		AnalysisStats stats = pomAnalysis.getStats();
+		assertSame(stats, session.lastAnalysisStats());
+		assertEquals(5, stats.getStage(AnalysisStats.Stage.SCAN).getCount());
+		assertEquals(5, stats.getStage(AnalysisStats.Stage.PARSE).getCount());
+		assertEquals(5, stats.getStage(AnalysisStats.Stage.GRAPH_ADD).getCount());
+		assertEquals(5, stats.getParsedPoms());
+		assertEquals(5, stats.getSlowestPoms().size());
+		assertEquals(0, stats.getPomFetches());
+	}
+
+	@Test
+	public void snapshotRestoresProjectsAndRelations() throws IOException
+	{
+		//arrange
+		File directory = writeParentAndChildPoms();
+		Session session = new Session();
+		runFullRecursiveAnalysis(session, directory.getPath());
+		File snapshot = temporaryFolder.newFile("session.snapshot");
+		SessionSnapshot.save(session, snapshot, System.out::println);
+
+		//act
+		Session restored = new Session();
+		SessionSnapshot.load(restored, snapshot, null, System.out::println);
+
+		//assert
+		assertEquals(session.projects().keySet(), restored.projects().keySet());
+		assertEquals(relations(session), relations(restored));
+	}
+
+	@Test
+	public void snapshotUpdatesChildrenOfChangedPoms() throws IOException
+	{
+		//arrange
+		File directory = writeParentAndChildPoms();
+		Session session = new Session();
+		runFullRecursiveAnalysis(session, directory.getPath());
+		File snapshot = temporaryFolder.newFile("session.snapshot");
+		SessionSnapshot.save(session, snapshot, System.out::println);
+
+		modifyPom(new File(directory, "pom.xml"), "1.0</lib.version>", "2.0</lib.version>");
+
+		//act
+		Session restored = new Session();
+		SessionSnapshot.load(restored, snapshot, null, System.out::println);
+
+		//assert
+		assertDependencies(restored, "g:child:1", new GavIsSelfManaged( "g:lib:2.0", false ));
+		try
+		{
+			SessionSnapshot.load(restored, snapshot, null, System.out::println);
+			fail("a snapshot should not be loaded in a non empty session");
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void incrementalAnalysisReparsesModifiedPoms() throws IOException
+	{
+		//arrange
+		File directory = writeParentAndChildPoms();
+		Session session = new Session();
+		runFullRecursiveAnalysis(session, directory.getPath());
+		Project child = session.projects().forGav(Gav.parse("g:child:1"));
+
+		modifyPom(new File(directory, "child/pom.xml"), "<artifactId>lib</artifactId>", "<artifactId>other-lib</artifactId>");
+
+		//act
+		runIncrementalAnalysis(session, directory);
+
+		//assert
+		assertNotSame(child, session.projects().forGav(Gav.parse("g:child:1")));
+		assertDependencies(session, "g:child:1", new GavIsSelfManaged( "g:other-lib:1.0", false ));
+	}
+
+	@Test
+	public void incrementalAnalysisAddsNewPoms() throws IOException
+	{
+		//arrange
+		File directory = writeParentAndChildPoms();
+		Session session = new Session();
+		runFullRecursiveAnalysis(session, directory.getPath());
+
+		writePom(directory, "second/pom.xml", "<project><modelVersion>4.0.0</modelVersion><parent><groupId>g</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+				+ "<artifactId>second</artifactId><dependencies><dependency><groupId>g</groupId><artifactId>child</artifactId><version>1</version></dependency></dependencies></project>");
+
+		//act
+		runIncrementalAnalysis(session, directory);
+
+		//assert
+		assertProjects(session, 3);
+		assertDependencies(session, "g:second:1", new GavIsSelfManaged( "g:child:1", true ));
+	}
+
+	@Test
+	public void incrementalAnalysisRemovesDeletedPoms() throws IOException
+	{
+		//arrange
+		File directory = writeParentAndChildPoms();
+		Session session = new Session();
+		runFullRecursiveAnalysis(session, directory.getPath());
+
+		Files.delete(new File(directory, "child/pom.xml").toPath());
+
+		//act
+		runIncrementalAnalysis(session, directory);
+
+		//assert
+		assertProjects(session, 1);
+		assertNull(session.projects().forGav(Gav.parse("g:child:1")));
+		assertTrue(session.graph().read().relations(Gav.parse("g:child:1")).isEmpty());
+	}
+
+	@Test
+	public void incrementalAnalysisDoesNotReparseTouchedPoms() throws IOException
+	{
+		//arrange
+		File directory = writeParentAndChildPoms();
+		Session session = new Session();
+		runFullRecursiveAnalysis(session, directory.getPath());
+
+		// the content hash is recorded when a modification is detected
+		File childPom = new File(directory, "child/pom.xml");
+		modifyPom(childPom, "<artifactId>lib</artifactId>", "<artifactId>other-lib</artifactId>");
+		runIncrementalAnalysis(session, directory);
+		Project child = session.projects().forGav(Gav.parse("g:child:1"));
+
+		childPom.setLastModified(childPom.lastModified() + 5000);
+
+		//act
+		runIncrementalAnalysis(session, directory);
+
+		//assert
+		assertSame(child, session.projects().forGav(Gav.parse("g:child:1")));
+		assertDependencies(session, "g:child:1", new GavIsSelfManaged( "g:other-lib:1.0", false ));
+	}
+
 	@Ignore("Regressiontest for #69")
 	@Test
 	public void pomWithTwoPropertiesAsVersion()
@@ -647,6 +851,49 @@ public class AnalyzerTest
 		return PomAnalysis.runFullRecursiveAnalysis(testSet, session, null, null, true, System.out::println);
 	}
 
+	private void runIncrementalAnalysis(Session session, File directory)
+	{
+		PomAnalysis.runIncrementalAnalysis(directory.getPath(), session, null, null, true, PomAnalysis.DEFAULT_PARALLELISM, System.out::println);
+	}
+
+	/**
+	 * Writes a parent pom defining a lib.version property and a child
+	 * depending on g:lib:${lib.version}, whose version is therefore
+	 * managed by the parent
+	 */
+	private File writeParentAndChildPoms() throws IOException
+	{
+		File directory = temporaryFolder.newFolder("poms");
+		writePom(directory, "pom.xml", "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>parent</artifactId><version>1</version>"
+				+ "<packaging>pom</packaging><properties><lib.version>1.0</lib.version></properties></project>");
+		writePom(directory, "child/pom.xml", "<project><modelVersion>4.0.0</modelVersion><parent><groupId>g</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+				+ "<artifactId>child</artifactId><dependencies><dependency><groupId>g</groupId><artifactId>lib</artifactId><version>${lib.version}</version></dependency></dependencies></project>");
+		return directory;
+	}
+
+	private void writePom(File directory, String path, String content) throws IOException
+	{
+		Path pom = directory.toPath().resolve(path);
+		Files.createDirectories(pom.getParent());
+		Files.write(pom, content.getBytes());
+	}
+
+	/**
+	 * Replaces a part of the pom and moves its modification time forward, so
+	 * that the change is seen even within the file system's time resolution
+	 */
+	private void modifyPom(File pom, String target, String replacement) throws IOException
+	{
+		long lastModified = pom.lastModified();
+		Files.write(pom.toPath(), new String(Files.readAllBytes(pom.toPath())).replace(target, replacement).getBytes());
+		pom.setLastModified(lastModified + 5000);
+	}
+
+	private Set<String> relations(Session session)
+	{
+		return session.graph().read().relations().stream().map(Object::toString).collect(Collectors.toSet());
+	}
+
 	private void assertProjects(Session session, int numberOfProjects)
 	{
 		ProjectRepository projects = session.projects();
@@ -0,0 +1,116 @@
+package fr.lteconsulting.pomexplorer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.GroupArtifact;
+
+public class LocalRepositoryIndexTest
+{
+	private final GroupArtifact lib = new GroupArtifact( "org.example", "lib" );
+
+	private Path repository;
+
+	@Before
+	public void createRepository() throws IOException
+	{
+		repository = Files.createTempDirectory( "repository" );
+		createArtifact( "org/example/lib/1.0", "lib-1.0.pom", "lib-1.0.jar", "lib-1.0.pom.sha1" );
+		createArtifact( "org/example/lib/2.0", "lib-2.0.pom" );
+		createArtifact( "org/example/lib/2.1-SNAPSHOT", "lib-2.1-SNAPSHOT.pom" );
+		createArtifact( "junit/junit/4.12", "junit-4.12.pom" );
+	}
+
+	@Test
+	public void build_Repository_IndexesTheGroupsArtifactsAndVersions()
+	{
+		//arrange
+		LocalRepositoryIndex index = new LocalRepositoryIndex( repository.toFile() );
+		//act
+		index.build( 2 );
+		//assert
+		assertThat( index.size() ).isEqualTo( 4 );
+		assertThat( index.contains( new Gav( "org.example", "lib", "1.0" ), "pom" ) ).isTrue();
+		assertThat( index.contains( new Gav( "org.example", "lib", "1.0" ), "jar" ) ).isTrue();
+		assertThat( index.contains( new Gav( "org.example", "lib", "1.0" ), "sha1" ) ).isFalse();
+		assertThat( index.contains( new Gav( "org.example", "lib", "2.0" ), "jar" ) ).isFalse();
+		assertThat( index.contains( new Gav( "junit", "junit", "4.12" ), "pom" ) ).isTrue();
+		assertThat( index.getFile( new Gav( "org.example", "lib", "2.0" ), "pom" ) ).isEqualTo( repository.resolve( "org/example/lib/2.0/lib-2.0.pom" ).toFile().getAbsoluteFile() );
+		assertThat( index.getVersions( lib ) ).containsExactly( "1.0", "2.0", "2.1-SNAPSHOT" );
+		assertThat( index.getLatestVersion( lib, false ) ).isEqualTo( "2.0" );
+		assertThat( index.getLatestVersion( lib, true ) ).isEqualTo( "2.1-SNAPSHOT" );
+	}
+
+	@Test
+	public void refresh_ModifiedRepository_IndexesTheChanges() throws IOException
+	{
+		//arrange
+		LocalRepositoryIndex index = new LocalRepositoryIndex( repository.toFile() );
+		index.build( 2 );
+		createArtifact( "org/example/lib/3.0", "lib-3.0.pom" );
+		Files.delete( repository.resolve( "junit/junit/4.12/junit-4.12.pom" ) );
+		File version = repository.resolve( "org/example/lib/2.0" ).toFile();
+		Files.createFile( version.toPath().resolve( "lib-2.0.jar" ) );
+		version.setLastModified( version.lastModified() + 5000 );
+		//act
+		index.refresh( 2 );
+		//assert
+		assertThat( index.contains( new Gav( "org.example", "lib", "3.0" ), "pom" ) ).isTrue();
+		assertThat( index.contains( new Gav( "org.example", "lib", "2.0" ), "jar" ) ).isTrue();
+		assertThat( index.contains( new Gav( "junit", "junit", "4.12" ), "pom" ) ).isFalse();
+		assertThat( index.size() ).isEqualTo( 4 );
+	}
+
+	@Test
+	public void register_NewFile_IsFoundWithoutRefresh()
+	{
+		//arrange
+		LocalRepositoryIndex index = new LocalRepositoryIndex( repository.toFile() );
+		index.build( 1 );
+		//act
+		index.register( new Gav( "org.example", "other", "1.0" ), "pom" );
+		//assert
+		assertThat( index.contains( new Gav( "org.example", "other", "1.0" ), "pom" ) ).isTrue();
+	}
+
+	@Test
+	public void load_SavedIndex_ReturnsTheSameIndex() throws IOException
+	{
+		//arrange
+		LocalRepositoryIndex index = new LocalRepositoryIndex( repository.toFile() );
+		index.build( 2 );
+		File file = File.createTempFile( "index", ".bin" );
+		index.save( file );
+		//act
+		LocalRepositoryIndex loaded = LocalRepositoryIndex.load( repository.toFile(), file );
+		//assert
+		assertThat( loaded.size() ).isEqualTo( index.size() );
+		assertThat( loaded.contains( new Gav( "org.example", "lib", "1.0" ), "jar" ) ).isTrue();
+		assertThat( loaded.getVersions( lib ) ).containsExactly( "1.0", "2.0", "2.1-SNAPSHOT" );
+		try
+		{
+			LocalRepositoryIndex.load( Files.createTempDirectory( "other" ).toFile(), file );
+			fail( "the index of another repository should not be loaded" );
+		}
+		catch( IOException e )
+		{
+			// expected
+		}
+	}
+
+	private void createArtifact( String directory, String... files ) throws IOException
+	{
+		Path path = Files.createDirectories( repository.resolve( directory ) );
+		for( String file : files )
+			Files.createFile( path.resolve( file ) );
+	}
+}
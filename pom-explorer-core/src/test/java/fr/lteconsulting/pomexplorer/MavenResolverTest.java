@@ -0,0 +1,146 @@
+package fr.lteconsulting.pomexplorer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.transitivity.Repository;
+
+public class MavenResolverTest
+{
+	private final Gav gav = new Gav( "g", "a", "1" );
+	private final File pomFile = new File( "a-1.pom" );
+	private final Log log = message -> {
+	};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * Resolves the artifacts only when online, once released
+	 */
+	private class StubResolver extends MavenResolver
+	{
+		private final AtomicInteger resolutions = new AtomicInteger();
+		private final CountDownLatch released;
+
+		StubResolver( CountDownLatch released )
+		{
+			this.released = released;
+		}
+
+		@Override
+		File doResolve( Gav gav, String extension, boolean online, List<Repository> additionalRepos, Log log )
+		{
+			resolutions.incrementAndGet();
+			try
+			{
+				released.await();
+			}
+			catch( InterruptedException e )
+			{
+				Thread.currentThread().interrupt();
+			}
+			return online ? pomFile : null;
+		}
+	}
+
+	@Test
+	public void resolvePom_SameArtifactInProgress_WaitsForTheSameResolution() throws Exception
+	{
+		//arrange
+		CountDownLatch released = new CountDownLatch( 1 );
+		StubResolver resolver = new StubResolver( released );
+		ExecutorService executor = Executors.newFixedThreadPool( 2 );
+		try
+		{
+			//act
+			Future<File> first = executor.submit( () -> resolver.resolvePom( gav, "pom", true, log ) );
+			while( resolver.resolutions.get() == 0 )
+				Thread.sleep( 1 );
+			Future<File> second = executor.submit( () -> resolver.resolvePom( gav, "pom", true, log ) );
+			while( resolver.getCoalescedRequests() == 0 )
+				Thread.sleep( 1 );
+			released.countDown();
+
+			//assert
+			assertThat( first.get( 10, TimeUnit.SECONDS ) ).isEqualTo( pomFile );
+			assertThat( second.get( 10, TimeUnit.SECONDS ) ).isEqualTo( pomFile );
+			assertThat( resolver.resolutions.get() ).isEqualTo( 1 );
+			assertThat( resolver.getCoalescedRequests() ).isEqualTo( 1 );
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void resolvePom_OfflineMiss_IsCachedOfflineButRetriedOnline()
+	{
+		//arrange
+		StubResolver resolver = new StubResolver( new CountDownLatch( 0 ) );
+
+		//act
+		File offline = resolver.resolvePom( gav, "pom", false, log );
+		File offlineAgain = resolver.resolvePom( gav, "pom", false, log );
+		File online = resolver.resolvePom( gav, "pom", true, log );
+		File offlineAfterOnline = resolver.resolvePom( gav, "pom", false, log );
+
+		//assert
+		assertThat( offline ).isNull();
+		assertThat( offlineAgain ).isNull();
+		assertThat( online ).isEqualTo( pomFile );
+		assertThat( offlineAfterOnline ).isEqualTo( pomFile );
+		assertThat( resolver.resolutions.get() ).isEqualTo( 2 );
+	}
+
+	@Test
+	public void resolvePom_MissAfterTtl_IsRetried()
+	{
+		//arrange
+		StubResolver resolver = new StubResolver( new CountDownLatch( 0 ) );
+		resolver.setNegativeCacheTtl( 0 );
+
+		//act
+		resolver.resolvePom( gav, "pom", false, log );
+		resolver.resolvePom( gav, "pom", false, log );
+
+		//assert
+		assertThat( resolver.resolutions.get() ).isEqualTo( 2 );
+	}
+
+	@Test
+	public void doResolve_IndexedPomDeleted_IsNotFound() throws Exception
+	{
+		//arrange
+		Path repository = temporaryFolder.newFolder( "repository" ).toPath();
+		Path pom = Files.createDirectories( repository.resolve( "g/a/1" ) ).resolve( "a-1.pom" );
+		Files.createFile( pom );
+		LocalRepositoryIndex index = new LocalRepositoryIndex( repository.toFile() );
+		index.build( 1 );
+		MavenResolver resolver = new MavenResolver();
+		resolver.setLocalRepositoryIndex( index );
+		Files.delete( pom );
+
+		//act
+		File resolved = resolver.doResolve( gav, "pom", false, null, log );
+
+		//assert
+		assertThat( resolved ).isNull();
+	}
+}
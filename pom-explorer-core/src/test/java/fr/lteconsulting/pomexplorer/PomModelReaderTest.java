@@ -0,0 +1,98 @@
+package fr.lteconsulting.pomexplorer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.junit.Test;
+
+import fr.lteconsulting.pomexplorer.model.pom.PomDependency;
+import fr.lteconsulting.pomexplorer.model.pom.PomModel;
+import fr.lteconsulting.pomexplorer.model.pom.PomModelReader;
+import fr.lteconsulting.pomexplorer.model.pom.PomPlugin;
+import fr.lteconsulting.pomexplorer.model.pom.PomProfile;
+
+public class PomModelReaderTest
+{
+	@Test
+	public void read_TestSets_SameModelAsMavenReader() throws Exception
+	{
+		List<Path> pomFiles;
+		try( Stream<Path> paths = Files.walk( Paths.get( "testSets" ) ) )
+		{
+			pomFiles = paths.filter( PomFileScanner::isPomFile ).collect( Collectors.toList() );
+		}
+		pomFiles.add( Paths.get( "pom.xml" ) );
+
+		for( Path pomFile : pomFiles )
+		{
+			PomModel mavenModel;
+			try( FileReader reader = new FileReader( pomFile.toFile() ) )
+			{
+				mavenModel = PomModel.fromMavenModel( new MavenXpp3Reader().read( reader ) );
+			}
+
+			PomModel streamedModel = PomModelReader.read( pomFile.toFile() );
+
+			assertThat( describe( streamedModel ) ).as( pomFile.toString() ).isEqualTo( describe( mavenModel ) );
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void read_NotAPom_Throws() throws Exception
+	{
+		File file = File.createTempFile( "not-a-pom", ".xml" );
+		file.deleteOnExit();
+		Files.write( file.toPath(), "<settings><localRepository/></settings>".getBytes( "UTF-8" ) );
+
+		PomModelReader.read( file );
+	}
+
+	private static String describe( PomModel model )
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append( model.getGroupId() ).append( ':' ).append( model.getArtifactId() ).append( ':' ).append( model.getVersion() ).append( ':' ).append( model.getPackaging() );
+		sb.append( "\nparent " ).append( model.getParent() );
+		sb.append( "\nproperties " ).append( new TreeMap<>( model.getProperties() ) );
+		sb.append( "\ndependencies " ).append( describeDependencies( model.getDependencies() ) );
+		sb.append( "\ndependencyManagement " ).append( describeDependencies( model.getDependencyManagement() ) );
+		sb.append( "\nplugins " ).append( describePlugins( model.getBuildPlugins() ) );
+		sb.append( "\npluginManagement " ).append( describePlugins( model.getPluginManagement() ) );
+		for( PomProfile profile : model.getProfiles() )
+		{
+			sb.append( "\nprofile " ).append( profile.getId() ).append( ' ' ).append( profile.isActiveByDefault() ).append( ' ' ).append( profile.getModules() );
+			sb.append( ' ' ).append( describeDependencies( profile.getDependencies() ) );
+			sb.append( ' ' ).append( describeDependencies( profile.getDependencyManagement() ) );
+			sb.append( ' ' ).append( describePlugins( profile.getBuildPlugins() ) );
+		}
+		sb.append( "\nmodules " ).append( model.getModules() );
+		sb.append( "\nrepositories " ).append( model.getRepositories() );
+		sb.append( "\nprerequisites " ).append( model.getPrerequisitesMaven() );
+		return sb.toString();
+	}
+
+	private static String describeDependencies( List<PomDependency> dependencies )
+	{
+		if( dependencies == null )
+			return "null";
+
+		return dependencies.stream()
+				.map( d -> d + ":" + d.getType() + ":" + d.getClassifier() + ":" + d.getScope() + ":" + d.isOptional() + d.getExclusions() )
+				.collect( Collectors.joining( ", ", "[", "]" ) );
+	}
+
+	private static String describePlugins( List<PomPlugin> plugins )
+	{
+		return plugins == null ? "null" : plugins.toString();
+	}
+}
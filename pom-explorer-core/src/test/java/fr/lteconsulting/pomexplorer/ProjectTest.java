@@ -4,6 +4,12 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -141,6 +147,58 @@ public class ProjectTest
 		assertThat( testee.getUnresolvedProperties() ).containsExactly( "unknown" );
 	}
 
+	@Test
+	public void interpolateValueEx_SamePropertyTwice_ReturnsCachedResolution()
+	{
+		//arrange
+		String property = "${tutu}";
+		ProjectContainer projectContainer = mock( ProjectContainer.class );
+		Project testee = new Project( new File( "testSets/dependencyWithExclusion/d.pom" ), true );
+		testee.readPomFile();
+		ValueResolution first = testee.interpolateValueEx( property, projectContainer, log );
+		//act
+		ValueResolution result = testee.interpolateValueEx( property, projectContainer, log );
+		//assert
+		assertThat( result ).isSameAs( first );
+		assertThat( result.getResolved() ).isEqualTo( "no..." );
+	}
+
+	@Test
+	public void interpolateValueEx_SeveralThreads_ReturnValuesOfTheirExpressions() throws Exception
+	{
+		//arrange
+		ProjectContainer projectContainer = mock( ProjectContainer.class );
+		Project testee = new Project( new File( "testSets/dependencyWithExclusion/d.pom" ), true );
+		testee.readPomFile();
+		ExecutorService executor = Executors.newFixedThreadPool( 8 );
+		List<Future<Integer>> results = new ArrayList<>();
+		try
+		{
+			//act
+			for( int t = 0; t < 8; t++ )
+			{
+				results.add( executor.submit( () -> {
+					int errors = 0;
+					// more expressions than the cache keeps, so that entries are evicted too
+					for( int i = 0; i < 2000; i++ )
+					{
+						if( !("1.0-" + (i % 500)).equals( testee.interpolateValueEx( "${single}-" + (i % 500), projectContainer, log ).getResolved() ) )
+							errors++;
+					}
+					return errors;
+				} ) );
+			}
+
+			//assert
+			for( Future<Integer> result : results )
+				assertThat( result.get( 30, TimeUnit.SECONDS ) ).isEqualTo( 0 );
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
 	//TODO Regressiontest of https://github.com/ltearno/pom-explorer/issues/65
 	@Test
 	@Ignore
@@ -0,0 +1,143 @@
+package fr.lteconsulting.pomexplorer.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphReadTransaction;
+import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphWriteTransaction;
+import fr.lteconsulting.pomexplorer.graph.relation.BuildDependencyRelation;
+import fr.lteconsulting.pomexplorer.graph.relation.ParentRelation;
+import fr.lteconsulting.pomexplorer.graph.relation.RelationFilters;
+import fr.lteconsulting.pomexplorer.graph.relation.RelationType;
+import fr.lteconsulting.pomexplorer.model.Gav;
+
+public class PomGraphTest
+{
+	private final Gav parent = new Gav( "g", "parent", "1" );
+	private final Gav child = new Gav( "g", "child", "1" );
+	private final Gav plugin = new Gav( "g", "plugin", "1" );
+
+	@Test
+	public void read_CommittedSnapshot_AnswersLikeTheWriteTransaction()
+	{
+		PomGraph graph = new PomGraph();
+		PomGraphWriteTransaction tx = graph.write();
+		tx.addGav( parent );
+		tx.addGav( child );
+		tx.addGav( plugin );
+		tx.addRelation( new ParentRelation( child, parent ) );
+		tx.addRelation( new BuildDependencyRelation( child, plugin ) );
+		tx.commit();
+
+		PomGraphReadTransaction read = graph.read();
+		assertThat( read.version() ).isEqualTo( 1 );
+		assertThat( read.gavs() ).containsExactly( parent, child, plugin );
+		assertThat( read.parent( child ) ).isEqualTo( parent );
+		assertThat( read.children( parent ) ).containsExactly( child );
+		assertThat( read.buildDependencies( child ) ).extracting( BuildDependencyRelation::getTarget ).containsExactly( plugin );
+		assertThat( read.relationsRec( child ) ).hasSize( 2 );
+		assertThat( read.relationsReverseRec( plugin ) ).hasSize( 1 );
+		assertThat( read.dependencies( child ) ).isEmpty();
+		assertThat( read.hasArtifact( new Gav( "g", "other", "1" ) ) ).isFalse();
+		assertThat( read.internalGraph().edgeSet() ).isEqualTo( read.relations() );
+	}
+
+	@Test
+	public void relationsRec_FilterAndDepth_StopsTheWalk()
+	{
+		Gav grandParent = new Gav( "g", "grand-parent", "1" );
+		PomGraph graph = new PomGraph();
+		PomGraphWriteTransaction tx = graph.write();
+		tx.addGav( grandParent );
+		tx.addGav( parent );
+		tx.addGav( child );
+		tx.addGav( plugin );
+		tx.addRelation( new ParentRelation( parent, grandParent ) );
+		tx.addRelation( new ParentRelation( child, parent ) );
+		tx.addRelation( new BuildDependencyRelation( child, plugin ) );
+		tx.commit();
+
+		PomGraphReadTransaction read = graph.read();
+		assertThat( read.relationsRec( child, RelationFilters.ofTypes( RelationType.PARENT ), PomGraph.UNLIMITED_DEPTH ) ).hasSize( 2 );
+		assertThat( read.relationsRec( child, RelationFilters.ofTypes( RelationType.PARENT ), 1 ) ).hasSize( 1 );
+		assertThat( read.relationsRec( child, RelationFilters.excludingTypes( RelationType.PARENT ), PomGraph.UNLIMITED_DEPTH ) ).hasSize( 1 );
+		assertThat( read.relationsReverseRec( grandParent, RelationFilters.ofTypes( RelationType.PARENT ), 2 ) ).hasSize( 2 );
+	}
+
+	@Test
+	public void reaches_CommittedSnapshot_FollowsPathsAndCycles()
+	{
+		PomGraph graph = new PomGraph();
+		PomGraphWriteTransaction tx = graph.write();
+		tx.addGav( parent );
+		tx.addGav( child );
+		tx.addGav( plugin );
+		tx.addRelation( new ParentRelation( child, parent ) );
+		tx.addRelation( new BuildDependencyRelation( parent, plugin ) );
+		tx.addRelation( new BuildDependencyRelation( plugin, parent ) );
+		tx.commit();
+
+		PomGraphReadTransaction read = graph.read();
+		assertThat( read.reaches( child, plugin ) ).isTrue();
+		assertThat( read.reaches( plugin, child ) ).isFalse();
+		assertThat( read.reaches( child, child ) ).isFalse();
+		assertThat( read.reaches( parent, parent ) ).isTrue();
+		assertThat( read.reachableGavs( child ) ).containsOnly( parent, plugin );
+		assertThat( read.reachableGavsReverse( plugin ) ).containsOnly( child, parent, plugin );
+
+		assertThat( read.topologicalRank( parent ) ).isEqualTo( read.topologicalRank( plugin ) );
+		assertThat( read.topologicalRank( child ) ).isGreaterThan( read.topologicalRank( parent ) );
+		assertThat( read.topologicalOrder() ).hasSize( 3 ).endsWith( child );
+	}
+
+	@Test
+	public void commit_ConcurrentTransactions_ModificationsAreMerged()
+	{
+		PomGraph graph = new PomGraph();
+		PomGraphWriteTransaction first = graph.write();
+		PomGraphWriteTransaction second = graph.write();
+
+		first.addGav( parent );
+		first.addGav( child );
+		first.addRelation( new ParentRelation( child, parent ) );
+		second.addGav( plugin );
+
+		PomGraphReadTransaction before = graph.read();
+		first.commit();
+		second.commit();
+
+		assertThat( before.gavs() ).isEmpty();
+		assertThat( graph.read().version() ).isEqualTo( 2 );
+		assertThat( graph.read().gavs() ).containsOnly( parent, child, plugin );
+		assertThat( graph.read().parent( child ) ).isEqualTo( parent );
+	}
+
+	@Test
+	public void read_PinnedSnapshot_DoesNotSeeOtherCommits()
+	{
+		PomGraph graph = new PomGraph();
+
+		try( PomGraph.Pin pin = graph.pin() )
+		{
+			Thread writer = new Thread( () -> {
+				PomGraphWriteTransaction tx = graph.write();
+				tx.addGav( parent );
+				tx.commit();
+			} );
+			writer.start();
+			try
+			{
+				writer.join();
+			}
+			catch( InterruptedException e )
+			{
+				throw new RuntimeException( e );
+			}
+
+			assertThat( graph.read().gavs() ).isEmpty();
+		}
+
+		assertThat( graph.read().gavs() ).containsExactly( parent );
+	}
+}
@@ -29,6 +29,7 @@ import fr.lteconsulting.pomexplorer.rpccommands.ChangeService;
 import fr.lteconsulting.pomexplorer.rpccommands.GavService;
 import fr.lteconsulting.pomexplorer.rpccommands.ProjectsService;
 import fr.lteconsulting.pomexplorer.rpccommands.RpcServices;
+import fr.lteconsulting.pomexplorer.rpccommands.StatsService;
 import fr.lteconsulting.pomexplorer.webserver.Message;
 import fr.lteconsulting.pomexplorer.webserver.MessageFactory;
 import fr.lteconsulting.pomexplorer.webserver.RpcMessage;
@@ -98,6 +99,7 @@ public class AppFactory
 			rpcServices.addService( new ProjectsService() );
 			rpcServices.addService( new GavService() );
 			rpcServices.addService( new ChangeService() );
+			rpcServices.addService( new StatsService() );
 		}
 
 		return rpcServices;
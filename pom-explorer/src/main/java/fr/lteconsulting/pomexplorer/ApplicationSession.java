@@ -8,6 +8,7 @@ import fr.lteconsulting.pomexplorer.change.graph.GraphChange;
 import fr.lteconsulting.pomexplorer.change.project.ProjectChange;
 import fr.lteconsulting.pomexplorer.graph.PomGraph;
 import fr.lteconsulting.pomexplorer.graph.ProjectRepository;
+import fr.lteconsulting.pomexplorer.webserver.MessageFactory;
 
 /**
  * Some projects can be pinned as needed to be always up to date
@@ -32,12 +33,18 @@ public class ApplicationSession
 	private final GitRepositories gitRepositories = new GitRepositories();
 	private final Set<Project> maintainedProjects = new HashSet<>();
 	private final Set<Client> clients = new HashSet<>();
-	private final ProjectsWatcher projectsWatcher = new ProjectsWatcherAutoThreaded();
+	private final ProjectsWatcher projectsWatcher = new ProjectsWatcher();
 	private final BuilderAutoThreaded builder = new BuilderAutoThreaded();
+	private final String watcherTalkId = MessageFactory.newGuid();
 
 	public ApplicationSession()
 	{
 		builder.setSession( this );
+		projectsWatcher.setChangeListener( builder::projectChanged );
+		projectsWatcher.setLog( message -> {
+			for( Client client : clients )
+				client.sendHtml( watcherTalkId, message );
+		} );
 
 		session.setCallback( new XSession()
 		{
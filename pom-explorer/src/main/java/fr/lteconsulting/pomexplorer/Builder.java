@@ -2,16 +2,21 @@ package fr.lteconsulting.pomexplorer;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
-
-import org.jgrapht.traverse.TopologicalOrderIterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import fr.lteconsulting.autothreaded.AutoThreaded;
+import fr.lteconsulting.pomexplorer.graph.PomGraph;
 import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphReadTransaction;
-import fr.lteconsulting.pomexplorer.graph.relation.Relation;
 import fr.lteconsulting.pomexplorer.model.Gav;
 import fr.lteconsulting.pomexplorer.webserver.MessageFactory;
 
@@ -22,6 +27,8 @@ public class Builder
 
 	private final String pipelineStatusTalkId = "buildPipelineStatus";
 
+	public static final int DEFAULT_MAX_CONCURRENT_BUILDS = Math.max( 1, Runtime.getRuntime().availableProcessors() / 2 );
+
 	private ApplicationSession session;
 
 	private final Set<Project> projectsToBuild = new HashSet<>();
@@ -32,17 +39,73 @@ public class Builder
 
 	private final Set<Project> erroredProjects = new HashSet<>();
 
+	/**
+	 * Graph version giving the order of {@link #pendingBuilds}
+	 */
+	private PomGraphReadTransaction rankedGraph;
+
+	/**
+	 * Projects to build, ordered by topological rank in {@link #rankedGraph}.
+	 * Projects removed from the build lists are left in the queue and skipped
+	 * when polled.
+	 */
+	private final PriorityQueue<Project> pendingBuilds = new PriorityQueue<>( Comparator.comparingInt( ( Project p ) -> rankedGraph.topologicalRank( p.getGav() ) ) );
+
+	/**
+	 * Projects in {@link #pendingBuilds}, so that a project is queued once
+	 */
+	private final Set<Project> queuedProjects = new HashSet<>();
+
+	private int maxConcurrentBuilds = DEFAULT_MAX_CONCURRENT_BUILDS;
+
+	private ExecutorService buildExecutor;
+
+	/**
+	 * Projects being built, with the time their build started
+	 */
+	private final Map<Project, Long> runningBuilds = new HashMap<>();
+
+	/**
+	 * Project changes and build results, posted by the watcher and build
+	 * threads and processed on the builder thread
+	 */
+	private final BlockingQueue<Runnable> events = new LinkedBlockingQueue<>();
+
+	/**
+	 * Event posted when a message is queued for the builder thread, so that it
+	 * stops waiting for events and processes the message
+	 */
+	private static final Runnable WAKE_UP = () -> {
+	};
+
+	/**
+	 * Durations of the builds done since the build pipeline was last idle
+	 */
+	private final Map<Project, Long> buildDurations = new HashMap<>();
+
+	private long pipelineStartTime;
+
 	public void setSession( ApplicationSession session )
 	{
 		this.session = session;
 	}
 
+	/**
+	 * Sets the maximum number of maven processes running at the same time
+	 */
+	public void setMaxConcurrentBuilds( int maxConcurrentBuilds )
+	{
+		this.maxConcurrentBuilds = Math.max( 1, maxConcurrentBuilds );
+	}
+
 	public void clearJobs()
 	{
 		projectsToBuild.clear();
 		projectsToBuildForced.clear();
+		pendingBuilds.clear();
+		queuedProjects.clear();
 
-		printBuildPipelineState( null );
+		printBuildPipelineState();
 	}
 
 	public void buildProject( Project project, Log log )
@@ -54,15 +117,29 @@ public class Builder
 		}
 
 		projectsToBuildForced.add( project );
+		schedule( project );
 
-		printBuildPipelineState( null );
+		printBuildPipelineState();
 	}
 
 	public void buildAll()
 	{
-		projectsToBuild.addAll( session.projectsWatcher().watchedProjects() );
+		for( Project project : session.projectsWatcher().watchedProjects() )
+		{
+			projectsToBuild.add( project );
+			schedule( project );
+		}
+
+		printBuildPipelineState();
+	}
 
-		printBuildPipelineState( null );
+	/**
+	 * Called by the projects watcher when a project has changed. This is not
+	 * a message of the builder thread, the change is only queued.
+	 */
+	void projectChanged( Project project )
+	{
+		events.add( () -> processChangedProject( project ) );
 	}
 
 	protected void onEmptyMessageQueue()
@@ -70,11 +147,33 @@ public class Builder
 		step();
 	}
 
+	/**
+	 * Called by the generated class when a message is queued, from the
+	 * sender's thread
+	 */
+	protected void onMessageQueued()
+	{
+		events.add( WAKE_UP );
+	}
+
+	/**
+	 * Starts the builds made possible by the last message or events, then
+	 * waits for events without timeout, since the messages post one too
+	 */
 	private void step()
 	{
+		if( session != null )
+		{
+			try( PomGraph.Pin pin = session.graph().pin() )
+			{
+				buildReadyProjects();
+			}
+		}
+
+		Runnable event = null;
 		try
 		{
-			Thread.sleep( 1000 );
+			event = events.take();
 		}
 		catch( InterruptedException e )
 		{
@@ -84,69 +183,145 @@ public class Builder
 		if( session == null )
 			return;
 
-		Project changed = session.projectsWatcher().hasChanged();
-		if( changed != null )
+		try( PomGraph.Pin pin = session.graph().pin() )
 		{
-			erroredProjects.remove( changed );
-			lastChangedProject = changed;
-			processProjectChange( session, changed );
+			for( ; event != null; event = events.poll() )
+				event.run();
+		}
+	}
 
-			printBuildPipelineState( null );
+	private void processChangedProject( Project changed )
+	{
+		erroredProjects.remove( changed );
+		lastChangedProject = changed;
+		processProjectChange( session, changed );
 
-			return;
+		printBuildPipelineState();
+	}
+
+	private void buildReadyProjects()
+	{
+		List<Project> toBuild = findProjectsToBuild( maxConcurrentBuilds - runningBuilds.size() );
+		for( Project project : toBuild )
+			startBuild( project );
+
+		if( !toBuild.isEmpty() )
+			printBuildPipelineState();
+		else if( runningBuilds.isEmpty() && !buildDurations.isEmpty() )
+			reportBuildTimes();
+	}
+
+	private void startBuild( Project project )
+	{
+		long now = System.currentTimeMillis();
+		if( runningBuilds.isEmpty() && buildDurations.isEmpty() )
+			pipelineStartTime = now;
+		runningBuilds.put( project, now );
+
+		buildExecutor().submit( () -> {
+			boolean success = buildSafely( project );
+			long endTime = System.currentTimeMillis();
+			events.add( () -> processFinishedBuild( project, success, endTime ) );
+		} );
+	}
+
+	private boolean buildSafely( Project project )
+	{
+		try
+		{
+			return build( project );
+		}
+		catch( RuntimeException e )
+		{
+			e.printStackTrace();
+			return false;
 		}
+	}
 
-		Project toBuild = findProjectToBuild();
-		if( toBuild != null )
+	private void processFinishedBuild( Project project, boolean success, long endTime )
+	{
+		Long startTime = runningBuilds.remove( project );
+		if( startTime == null )
+			return;
+
+		long duration = endTime - startTime;
+		buildDurations.put( project, duration );
+
+		if( success )
 		{
-			printBuildPipelineState( toBuild );
+			success( "build succesful for project " + project.getGav() + " in " + duration + " ms : " + project );
+			erroredProjects.remove( project );
+		}
+		else
+		{
+			erroredProjects.add( project );
 
-			boolean success = build( toBuild );
+			error( "error building "
+					+ project
+					+ " !<br/>this project and dependent ones are going to be removed from the build list.<br/>fix the problem which prevent the build to success and the build will restart automatically..." );
+			dependentsAndSelf( project.getGav() ).stream().map( g -> session.projects().forGav( g ) ).filter( p -> p != null ).forEach( p -> projectsToBuild.remove( p ) );
+		}
 
-			if( success )
-			{
-				success( "build succesful for project " + toBuild.getGav() + " : " + toBuild );
-				erroredProjects.remove( toBuild );
-			}
-			else
-			{
-				erroredProjects.add( toBuild );
+		printBuildPipelineState();
+	}
+
+	/**
+	 * Logs the wall time of the builds done since the pipeline was last idle,
+	 * and the length of their critical path: the longest sum of build
+	 * durations along a chain of dependencies
+	 */
+	private void reportBuildTimes()
+	{
+		PomGraphReadTransaction tx = session.graph().read();
 
-				error( "error building "
-						+ toBuild
-						+ " !<br/>this project and dependent ones are going to be removed from the build list.<br/>fix the problem which prevent the build to success and the build will restart automatically..." );
-				dependentsAndSelf( toBuild.getGav() ).stream().map( g -> session.projects().forGav( g ) ).filter( p -> p != null ).forEach( p -> projectsToBuild.remove( p ) );
+		List<Project> built = new ArrayList<>( buildDurations.keySet() );
+		built.sort( Comparator.comparingInt( p -> tx.topologicalRank( p.getGav() ) ) );
+
+		Map<Gav, Long> pathDurations = new HashMap<>();
+		long criticalPath = 0;
+		long cumulated = 0;
+		for( Project project : built )
+		{
+			long longestDependencyPath = 0;
+			for( Gav dependency : tx.reachableGavs( project.getGav() ) )
+			{
+				Long pathDuration = pathDurations.get( dependency );
+				if( pathDuration != null )
+					longestDependencyPath = Math.max( longestDependencyPath, pathDuration );
 			}
 
-			printBuildPipelineState( null );
+			long duration = buildDurations.get( project );
+			pathDurations.put( project.getGav(), longestDependencyPath + duration );
+			criticalPath = Math.max( criticalPath, longestDependencyPath + duration );
+			cumulated += duration;
 		}
+
+		log( built.size() + " project(s) built in " + (System.currentTimeMillis() - pipelineStartTime) + " ms, critical path " + criticalPath + " ms, cumulated build time " + cumulated
+				+ " ms" );
+
+		buildDurations.clear();
 	}
 
-	private void printBuildPipelineState( Project projectBuilding )
+	private void printBuildPipelineState()
 	{
 		PomGraphReadTransaction tx = session.graph().read();
 
 		try
 		{
-			TopologicalOrderIterator<Gav, Relation> iterator = new TopologicalOrderIterator<>( tx.internalGraph() );
-			List<Gav> gavs = new ArrayList<>();
-			while( iterator.hasNext() )
-				gavs.add( iterator.next() );
-			Collections.reverse( gavs );
-
 			StringBuilder sb = new StringBuilder();
 
 			sb.append( "<br/>" );
 			sb.append( "build pipeline state:<br/>" );
-			for( Gav gav : gavs )
+			Set<Gav> maintainedDependencies = dependenciesOfMaintainedProjects( tx );
+			for( Gav gav : tx.topologicalOrder() )
 			{
 				Project project = session.projects().forGav( gav );
-				if( project != null && (inDependenciesOfMaintainedProjects( project ) || projectsToBuildForced.contains( project )) )
+				if( project != null && (maintainedDependencies.contains( gav ) || projectsToBuildForced.contains( project )) )
 				{
 					sb.append( "<span class='" + (project == lastChangedProject ? "refreshedProject " : "") + (projectsToBuildForced.contains( project ) ? "BUILD FORCED " : "")
-							+ (projectsToBuild.contains( project ) ? "toBuildProject " : "") + (projectBuilding == project ? "buildingProject " : "")
+							+ (projectsToBuild.contains( project ) ? "toBuildProject " : "") + (runningBuilds.containsKey( project ) ? "buildingProject " : "")
 							+ (erroredProjects.contains( project ) ? "errorProject " : "") + (session.maintainedProjects().contains( project ) ? "maintainedProject " : "") + "'>"
-							+ project.getGav() + (session.maintainedProjects().contains( project ) ? " [maintained]" : "") + (projectBuilding == project ? " [building]" : "")
+							+ project.getGav() + (session.maintainedProjects().contains( project ) ? " [maintained]" : "") + (runningBuilds.containsKey( project ) ? " [building]" : "")
 							+ (projectsToBuild.contains( project ) ? " [build waiting...]" : "") + (erroredProjects.contains( project ) ? " [project in error]" : "")
 							+ "</span><br/>" );
 				}
@@ -162,41 +337,83 @@ public class Builder
 	}
 
 	/**
-	 * Find the first project to be built in the graph's topological order
+	 * Find the projects to be built first in the graph's topological order,
+	 * which do not depend on a project being built or waiting to be built
 	 * 
-	 * @return the project or null
+	 * @return at most count projects
 	 */
-	private Project findProjectToBuild()
+	private List<Project> findProjectsToBuild( int count )
 	{
+		List<Project> found = new ArrayList<>();
+		if( count <= 0 )
+			return found;
+
 		PomGraphReadTransaction tx = session.graph().read();
+		if( rankedGraph == null || rankedGraph.version() != tx.version() )
+			rankPendingBuilds( tx );
 
-		try
+		Set<Gav> maintainedDependencies = dependenciesOfMaintainedProjects( tx );
+
+		// projects depending on a project being built, or on a project depending on it
+		Set<Gav> blocked = new HashSet<>();
+		for( Project running : runningBuilds.keySet() )
+			blocked.addAll( tx.reachableGavsReverse( running.getGav() ) );
+
+		List<Project> postponed = new ArrayList<>();
+		while( found.size() < count && !pendingBuilds.isEmpty() )
 		{
-			TopologicalOrderIterator<Gav, Relation> iterator = new TopologicalOrderIterator<>( tx.internalGraph() );
-			List<Gav> gavs = new ArrayList<>();
-			while( iterator.hasNext() )
-				gavs.add( iterator.next() );
-			Collections.reverse( gavs );
+			Project project = pendingBuilds.poll();
+			queuedProjects.remove( project );
+
+			boolean forced = projectsToBuildForced.contains( project );
+			if( (!forced && !projectsToBuild.contains( project )) || found.contains( project ) )
+				continue;
 
-			for( Gav gav : gavs )
+			if( erroredProjects.contains( project ) || !(forced || maintainedDependencies.contains( project.getGav() )) )
 			{
-				Project project = session.projects().forGav( gav );
-				if( project != null && (!erroredProjects.contains( project ))
-						&& (projectsToBuildForced.contains( project ) || (projectsToBuild.contains( project ) && inDependenciesOfMaintainedProjects( project ))) )
-				{
-					projectsToBuild.remove( project );
-					projectsToBuildForced.remove( project );
-					return project;
-				}
+				postponed.add( project );
+			}
+			else if( runningBuilds.containsKey( project ) || blocked.contains( project.getGav() ) )
+			{
+				postponed.add( project );
+			}
+			else
+			{
+				found.add( project );
+				blocked.addAll( tx.reachableGavsReverse( project.getGav() ) );
 			}
 		}
-		catch( Exception e )
+		postponed.forEach( this::schedule );
+
+		for( Project project : found )
 		{
-			System.err.println( "error in Builder thread :" );
-			e.printStackTrace();
+			projectsToBuild.remove( project );
+			projectsToBuildForced.remove( project );
 		}
 
-		return null;
+		return found;
+	}
+
+	/**
+	 * Orders the projects to build with the ranks of a new graph version
+	 */
+	private void rankPendingBuilds( PomGraphReadTransaction tx )
+	{
+		rankedGraph = tx;
+
+		Set<Project> projects = new HashSet<>( projectsToBuild );
+		projects.addAll( projectsToBuildForced );
+
+		pendingBuilds.clear();
+		queuedProjects.clear();
+		for( Project project : projects )
+			schedule( project );
+	}
+
+	private void schedule( Project project )
+	{
+		if( rankedGraph != null && rankedGraph.topologicalRank( project.getGav() ) >= 0 && queuedProjects.add( project ) )
+			pendingBuilds.add( project );
 	}
 
 	private void processProjectChange( ApplicationSession session, Project project )
@@ -206,48 +423,40 @@ public class Builder
 
 		log( "project " + project + " has been modified, appending to build list..." );
 
+		Set<Gav> maintainedDependencies = dependenciesOfMaintainedProjects( session.graph().read() );
 		for( Gav gav : dependentsAndSelf( project.getGav() ) )
 		{
 			Project p = session.projects().forGav( gav );
 			if( p != null && p.isBuildable() )
 			{
-				if( !inDependenciesOfMaintainedProjects( p ) )
+				if( !maintainedDependencies.contains( gav ) )
 					continue;
 				log( "add to build list : " + p.getGav() );
 				projectsToBuild.add( p );
+				schedule( p );
 			}
 		}
 	}
 
-	private boolean inDependenciesOfMaintainedProjects( Project project )
+	/**
+	 * @return the maintained projects and the GAVs they reach
+	 */
+	private Set<Gav> dependenciesOfMaintainedProjects( PomGraphReadTransaction tx )
 	{
-		if( project == null )
-			return false;
-
-		Set<Gav> possibleGavs = new HashSet<>();
+		Set<Gav> res = new HashSet<>();
 		for( Project p : session.maintainedProjects() )
-			possibleGavs.addAll( dependenciesAndSelf( p.getGav() ) );
-
-		boolean res = possibleGavs.contains( project.getGav() );
-		return res;
-	}
-
-	private Set<Gav> dependenciesAndSelf( Gav gav )
-	{
-		PomGraphReadTransaction tx = session.graph().read();
-
-		HashSet<Gav> res = new HashSet<>();
-		res.add( gav );
-		tx.relationsRec( gav ).stream().forEach( r -> res.add( tx.targetOf( r ) ) );
+		{
+			res.add( p.getGav() );
+			res.addAll( tx.reachableGavs( p.getGav() ) );
+		}
 		return res;
 	}
 
 	private Set<Gav> dependentsAndSelf( Gav gav )
 	{
 		PomGraphReadTransaction tx = session.graph().read();
-		HashSet<Gav> res = new HashSet<>();
+		Set<Gav> res = tx.reachableGavsReverse( gav );
 		res.add( gav );
-		tx.relationsReverseRec( gav ).stream().forEach( r -> res.add( tx.sourceOf( r ) ) );
 		return res;
 	}
 
@@ -273,11 +482,22 @@ public class Builder
 		}
 		else
 		{
-			MavenBuildTaskAutoThreaded builder = new MavenBuildTaskAutoThreaded();
-			boolean res = builder.build( session, project, talkId );
-			builder.stop();
-			return res;
+			return new MavenBuildTask().build( session, project, talkId );
+		}
+	}
+
+	private synchronized ExecutorService buildExecutor()
+	{
+		if( buildExecutor == null )
+		{
+			buildExecutor = Executors.newCachedThreadPool( runnable -> {
+				Thread thread = new Thread( runnable, "Builder maven build" );
+				thread.setDaemon( true );
+				return thread;
+			} );
 		}
+
+		return buildExecutor;
 	}
 
 	private void log( String message )
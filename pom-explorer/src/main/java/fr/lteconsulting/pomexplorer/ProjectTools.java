@@ -2,24 +2,25 @@ package fr.lteconsulting.pomexplorer;
 
 import static fr.lteconsulting.pomexplorer.Tools.isMavenVariable;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import org.apache.maven.project.MavenProject;
-
 import fr.lteconsulting.pomexplorer.graph.relation.Scope;
 import fr.lteconsulting.pomexplorer.model.Dependency;
 import fr.lteconsulting.pomexplorer.model.Gav;
+import fr.lteconsulting.pomexplorer.model.pom.PomDependency;
+import fr.lteconsulting.pomexplorer.model.pom.PomPlugin;
 
 public class ProjectTools
 {
 	public static void showDependencies( Project project, StringBuilder sb, ProjectContainer projects, Log log )
 	{
-		MavenProject mavenProject = project.getMavenProject();
-		if( mavenProject.getDependencies() != null && !mavenProject.getDependencies().isEmpty() )
+		List<PomDependency> dependencies = project.getPomModel().getDependencies();
+		if( !dependencies.isEmpty() )
 		{
 			sb.append( "<div><div>dependencies</div><div>" );
-			mavenProject.getDependencies().stream()
+			dependencies.stream()
 					.map( d -> new Dependency( d.getGroupId(), d.getArtifactId(), d.getVersion(), Scope.fromString( d.getScope() ), d.getClassifier(), d.getType() ) )
 					.sorted( Dependency.alphabeticalComparator ).forEach( dependency -> {
 						showDependency( project, dependency, sb, projects, log );
@@ -31,11 +32,11 @@ public class ProjectTools
 
 	public static void showDependencyManagement( Project project, StringBuilder sb, ProjectContainer projects, Log log )
 	{
-		MavenProject mavenProject = project.getMavenProject();
-		if( mavenProject.getDependencyManagement() != null && !mavenProject.getDependencyManagement().getDependencies().isEmpty() )
+		List<PomDependency> dependencyManagement = project.getPomModel().getDependencyManagement();
+		if( dependencyManagement != null && !dependencyManagement.isEmpty() )
 		{
 			sb.append( "<div><div>dependency management</div><div>" );
-			mavenProject.getDependencyManagement().getDependencies().stream()
+			dependencyManagement.stream()
 					.map( d -> new Dependency( d.getGroupId(), d.getArtifactId(), d.getVersion(), Scope.fromString( d.getScope() ), d.getClassifier(), d.getType() ) )
 					.sorted( Dependency.alphabeticalComparator )
 					.forEach( dependency -> {
@@ -68,11 +69,11 @@ public class ProjectTools
 
 	public static void showPlugins( Project project, StringBuilder sb, ProjectContainer projects, Log log )
 	{
-		MavenProject mavenProject = project.getMavenProject();
-		if( mavenProject.getBuildPlugins() != null && !mavenProject.getBuildPlugins().isEmpty() )
+		List<PomPlugin> plugins = project.getPomModel().getBuildPlugins();
+		if( !plugins.isEmpty() )
 		{
 			sb.append( "<div><div>build plugins</div><div>" );
-			mavenProject.getBuildPlugins().stream().map( p -> new Gav( p.getGroupId(), p.getArtifactId(), p.getVersion() ) ).sorted( Gav.alphabeticalComparator ).forEach( gav -> {
+			plugins.stream().map( PomPlugin::toGav ).sorted( Gav.alphabeticalComparator ).forEach( gav -> {
 				showGav( project, gav, sb, projects, log );
 				sb.append( "<br/>" );
 			} );
@@ -82,11 +83,11 @@ public class ProjectTools
 
 	public static void showPluginManagement( Project project, StringBuilder sb, ProjectContainer projects, Log log )
 	{
-		MavenProject mavenProject = project.getMavenProject();
-		if( mavenProject.getPluginManagement() != null && mavenProject.getPluginManagement().getPlugins() != null && !mavenProject.getPluginManagement().getPlugins().isEmpty() )
+		List<PomPlugin> pluginManagement = project.getPomModel().getPluginManagement();
+		if( pluginManagement != null && !pluginManagement.isEmpty() )
 		{
 			sb.append( "<div><div>plugin management</div><div>" );
-			mavenProject.getPluginManagement().getPlugins().stream().map( p -> new Gav( p.getGroupId(), p.getArtifactId(), p.getVersion() ) ).sorted( Gav.alphabeticalComparator )
+			pluginManagement.stream().map( PomPlugin::toGav ).sorted( Gav.alphabeticalComparator )
 					.forEach( gav -> {
 						showGav( project, gav, sb, projects, log );
 						sb.append( "<br/>" );
@@ -1,8 +1,8 @@
 package fr.lteconsulting.pomexplorer;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -11,8 +11,10 @@ import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.CRC32;
 
 public class ProjectWatcher
 {
@@ -20,8 +22,20 @@ public class ProjectWatcher
 
 	private final Path projectPath;
 
+	private final Path pomPath;
+
+	private final Path sourcesPath;
+
 	private final Map<Path, WatchKey> keys = new HashMap<>();
 
+	/**
+	 * Size and modification time of the files seen changing, no content is
+	 * kept
+	 */
+	private final Map<Path, FileState> fileStates = new HashMap<>();
+
+	private boolean contentHashing = true;
+
 	/**
 	 * Create a ProjectWatcher
 	 * 
@@ -30,10 +44,28 @@ public class ProjectWatcher
 	 */
 	public ProjectWatcher( Path projectPath )
 	{
-		this.projectPath = projectPath;
+		this( projectPath, newWatchService() );
+	}
+
+	/**
+	 * Create a ProjectWatcher registering its directories on a shared service
+	 * 
+	 * @param projectPath
+	 *            This is the path of the directory containing the pom.xml file
+	 */
+	public ProjectWatcher( Path projectPath, WatchService service )
+	{
+		this.projectPath = projectPath.toAbsolutePath();
+		this.pomPath = this.projectPath.resolve( "pom.xml" );
+		this.sourcesPath = this.projectPath.resolve( "src" );
+		this.service = service;
+	}
+
+	private static WatchService newWatchService()
+	{
 		try
 		{
-			this.service = FileSystems.getDefault().newWatchService();
+			return FileSystems.getDefault().newWatchService();
 		}
 		catch( IOException e )
 		{
@@ -41,13 +73,20 @@ public class ProjectWatcher
 		}
 	}
 
-	public void register() throws IOException
+	/**
+	 * When enabled, a file whose size and modification time changed is only
+	 * considered modified if its content hash changed too. Enabled by
+	 * default.
+	 */
+	public synchronized void setContentHashing( boolean contentHashing )
 	{
-		// store the pom.xml file content
-		Path pomPath = projectPath.resolve( "pom.xml" );
-		String pomContent = readFile( pomPath );
-		if( pomContent != null )
-			contentCache.put( pomPath, pomContent );
+		this.contentHashing = contentHashing;
+	}
+
+	public synchronized void register() throws IOException
+	{
+		// store the pom.xml file state
+		changedFile( pomPath );
 
 		watchPath( projectPath );
 	}
@@ -75,96 +114,133 @@ public class ProjectWatcher
 		return processWatchKey( key );
 	}
 
-	private String readFile( Path path )
+	/**
+	 * Tells if a file changed since the last time it was checked. The size and
+	 * modification time are compared first. When they changed, the content
+	 * hash is compared, if it is enabled and known for the previous state.
+	 */
+	private boolean changedFile( Path path )
 	{
-		try
+		path = path.toAbsolutePath();
+
+		FileState previous = fileStates.get( path );
+		FileState current = FileState.read( path );
+		if( current == null )
 		{
-			File file = path.toFile();
-			if( file == null || !file.exists() || !file.isFile() )
-				return null;
+			fileStates.remove( path );
+			return previous != null;
+		}
 
-			FileInputStream fis = new FileInputStream( file );
-			byte[] data = new byte[(int) file.length()];
-			fis.read( data );
-			fis.close();
+		if( previous != null && previous.size == current.size && previous.lastModified == current.lastModified )
+			return false;
 
-			String str = new String( data, "UTF-8" );
-			return str;
-		}
-		catch( Exception e )
+		if( contentHashing )
 		{
-			return null;
+			current.hash = hash( path );
+			if( previous != null && previous.size == current.size && previous.hash != null && previous.hash.equals( current.hash ) )
+			{
+				// only touched, the modification time is updated
+				fileStates.put( path, current );
+				return false;
+			}
 		}
-	}
 
-	private Map<Path, String> contentCache = new HashMap<>();
+		fileStates.put( path, current );
+		return true;
+	}
 
-	private boolean stringEqual( String a, String b )
+	/**
+	 * @return true if the key has been created by this watcher
+	 */
+	synchronized boolean watches( WatchKey key )
 	{
-		if( a == null && b == null )
-			return true;
-		if( a == null || b == null )
-			return false;
-
-		return a.equals( b );
+		return keys.get( key.watchable() ) == key;
 	}
 
-	private boolean changedFile( Path path )
+	private static Long hash( Path path )
 	{
-		path = path.toAbsolutePath();
-
-		String currentContent = readFile( path );
-		String previousContent = contentCache.get( path );
-
-		boolean changed = stringEqual( currentContent, previousContent );
-
-		if( changed )
-			contentCache.put( path, currentContent );
-
-		return changed;
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[8192];
+		try( InputStream input = Files.newInputStream( path ) )
+		{
+			int read;
+			while( (read = input.read( buffer )) > 0 )
+				crc.update( buffer, 0, read );
+			return crc.getValue();
+		}
+		catch( IOException e )
+		{
+			return null;
+		}
 	}
 
-	private boolean processWatchKey( WatchKey key )
+	/**
+	 * Consumes the events of the key
+	 * 
+	 * @return true if one of the events is meaningful for the project build
+	 */
+	synchronized boolean processWatchKey( WatchKey key )
 	{
 		if( key == null )
 			return false;
 
 		boolean somethingMeaningful = false;
 
-		key.reset();
-
 		boolean useful = false;
+		Path directory = (Path) key.watchable();
 		for( WatchEvent<?> event : key.pollEvents() )
 		{
 			useful = true;
-			Path eventTarget = Paths.get( key.watchable().toString(), event.context().toString() ).toAbsolutePath();
+
+			if( event.kind() == StandardWatchEventKinds.OVERFLOW )
+			{
+				// events have been lost
+				somethingMeaningful = true;
+				continue;
+			}
+
+			Path eventTarget = directory.resolve( (Path) event.context() ).toAbsolutePath();
+			boolean meaningfulPath = eventTarget.startsWith( sourcesPath ) || eventTarget.equals( pomPath );
 
 			if( event.kind() == StandardWatchEventKinds.ENTRY_CREATE )
 			{
 				System.out.println( "=> created " + eventTarget.toString() );
 
-				watchPath( Paths.get( projectPath.toString(), event.context().toString() ) );
+				if( Files.isDirectory( eventTarget ) )
+				{
+					if( eventTarget.startsWith( sourcesPath ) )
+						watchPathRec( eventTarget.toFile() );
+					else if( directory.equals( projectPath ) )
+						watchPath( eventTarget );
+
+					somethingMeaningful |= meaningfulPath;
+				}
+				else
+				{
+					somethingMeaningful |= meaningfulPath && changedFile( eventTarget );
+				}
 			}
 			else if( event.kind() == StandardWatchEventKinds.ENTRY_DELETE )
 			{
 				System.out.println( "=> deleted " + eventTarget.toString() );
 
-				unwatchPath( Paths.get( projectPath.toString(), event.context().toString() ) );
+				unwatchPath( eventTarget );
+				fileStates.keySet().removeIf( path -> path.startsWith( eventTarget ) );
+
+				somethingMeaningful |= meaningfulPath;
 			}
 			else if( event.kind() == StandardWatchEventKinds.ENTRY_MODIFY )
 			{
 				System.out.println( "=> modified " + eventTarget.toString() );
-			}
-
-			String relative = projectPath.relativize( eventTarget ).toString();
-			somethingMeaningful |= relative != null && relative.startsWith( "src" );
 
-			if( relative != null && relative.equals( "pom.xml" ) )
-			{
-				somethingMeaningful |= changedFile( eventTarget );
+				if( meaningfulPath && !Files.isDirectory( eventTarget ) )
+					somethingMeaningful |= changedFile( eventTarget );
 			}
 		}
 
+		// reset once the events are consumed, so that the key is not signalled again for them
+		key.reset();
+
 		if( useful )
 			System.out.println( "useful ? " + somethingMeaningful );
 
@@ -185,7 +261,7 @@ public class ProjectWatcher
 		if( file == null || !file.exists() || !file.isDirectory() )
 			return;
 
-		Path path = file.toPath();
+		Path path = file.toPath().toAbsolutePath();
 
 		if( keys.containsKey( path ) || !shouldBeWatched( file ) )
 			return;
@@ -202,11 +278,16 @@ public class ProjectWatcher
 		}
 	}
 
+	/**
+	 * Watches the directory and its sub directories, except the ignored ones
+	 */
 	private void watchPathRec( File file )
 	{
 		watchPath( file );
+		if( !keys.containsKey( file.toPath().toAbsolutePath() ) )
+			return;
 
-		File[] files = file.listFiles();
+		File[] files = file.listFiles( File::isDirectory );
 		if( files != null )
 		{
 			for( File child : files )
@@ -214,20 +295,21 @@ public class ProjectWatcher
 		}
 	}
 
+	/**
+	 * Stops watching the directory and its sub directories
+	 */
 	private void unwatchPath( Path path )
 	{
-		if( path == null || !path.toFile().isDirectory() )
+		if( path == null )
 			return;
 
-		WatchKey key = keys.get( path );
-		if( key == null )
-		{
-			System.out.println( "warning : not watched path " + path + ", nothing to do..." );
-			return;
-		}
+		keys.entrySet().removeIf( e -> {
+			if( !e.getKey().startsWith( path ) )
+				return false;
 
-		key.cancel();
-		keys.remove( path );
+			e.getValue().cancel();
+			return true;
+		} );
 	}
 
 	/**
@@ -278,4 +360,36 @@ public class ProjectWatcher
 
 		return true;
 	}
+
+	private static class FileState
+	{
+		final long size;
+		final long lastModified;
+		Long hash;
+
+		FileState( long size, long lastModified )
+		{
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * @return the state of the file, null if it is not a regular file
+		 */
+		static FileState read( Path path )
+		{
+			try
+			{
+				BasicFileAttributes attributes = Files.readAttributes( path, BasicFileAttributes.class );
+				if( !attributes.isRegularFile() )
+					return null;
+
+				return new FileState( attributes.size(), attributes.lastModifiedTime().toMillis() );
+			}
+			catch( IOException e )
+			{
+				return null;
+			}
+		}
+	}
 }
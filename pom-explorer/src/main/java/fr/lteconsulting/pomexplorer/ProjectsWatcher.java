@@ -1,20 +1,67 @@
 package fr.lteconsulting.pomexplorer;
 
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
 import java.nio.file.Paths;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
-import fr.lteconsulting.autothreaded.AutoThreaded;
-
-@AutoThreaded
+/**
+ * Watches the files of the projects with a single {@link WatchService}.
+ *
+ * <p>
+ * A dispatcher thread blocks on the service and gives each event to the
+ * {@link ProjectWatcher} of the project. Changes are coalesced: a project is
+ * reported once when no event came for {@link #QUIET_PERIOD_MS}, so that a
+ * burst of events (for example a git checkout) triggers a single build.
+ */
 public class ProjectsWatcher
 {
+	/**
+	 * Delay without events after which the changed projects are reported
+	 */
+	public static final long QUIET_PERIOD_MS = 100;
+
+	/**
+	 * Maximum delay between a change and its report, during long bursts
+	 */
+	public static final long MAX_DELAY_MS = 1000;
+
 	private final Map<Project, ProjectWatcher> watchers = new HashMap<>();
 
+	private WatchService service;
+
+	private volatile Consumer<Project> changeListener;
+
+	private volatile Log log = message -> {
+	};
+
+	/**
+	 * Sets the callback receiving the changed projects, called on the
+	 * dispatcher thread
+	 */
+	public void setChangeListener( Consumer<Project> changeListener )
+	{
+		this.changeListener = changeListener;
+	}
+
+	/**
+	 * Sets the log receiving the messages of the dispatcher thread
+	 */
+	public void setLog( Log log )
+	{
+		this.log = log;
+	}
+
 	public void watchProject( Project project, Log log )
 	{
 		if( !project.isBuildable() )
@@ -23,11 +70,23 @@ public class ProjectsWatcher
 			return;
 		}
 
-		if( watchers.containsKey( project ) )
-			return;
+		ProjectWatcher watcher;
+		synchronized( this )
+		{
+			if( watchers.containsKey( project ) )
+				return;
 
-		ProjectWatcher watcher = new ProjectWatcher( Paths.get( project.getPomFile().getParentFile().getAbsolutePath() ) );
-		watchers.put( project, watcher );
+			try
+			{
+				watcher = new ProjectWatcher( Paths.get( project.getPomFile().getParentFile().getAbsolutePath() ), service() );
+			}
+			catch( IOException e )
+			{
+				log.html( Tools.errorMessage( "cannot watch the project " + project + " : " + e.getMessage() ) );
+				return;
+			}
+			watchers.put( project, watcher );
+		}
 
 		try
 		{
@@ -39,21 +98,99 @@ public class ProjectsWatcher
 		}
 	}
 
-	public Project hasChanged()
+	public synchronized Set<Project> watchedProjects()
+	{
+		return new HashSet<>( watchers.keySet() );
+	}
+
+	private synchronized WatchService service() throws IOException
 	{
-		for( Entry<Project, ProjectWatcher> e : watchers.entrySet() )
+		if( service == null )
 		{
-			if( e.getValue().hasChanges() )
-				return e.getKey();
+			service = FileSystems.getDefault().newWatchService();
+
+			Thread dispatcher = new Thread( this::dispatchEvents, "ProjectsWatcher dispatcher" );
+			dispatcher.setDaemon( true );
+			dispatcher.start();
 		}
 
-		return null;
+		return service;
+	}
+
+	private void dispatchEvents()
+	{
+		Set<Project> changedProjects = new LinkedHashSet<>();
+		long firstChange = 0;
+		long lastChange = 0;
+
+		try
+		{
+			while( true )
+			{
+				WatchKey key;
+				if( changedProjects.isEmpty() )
+				{
+					key = service.take();
+				}
+				else
+				{
+					long wait = Math.min( lastChange + QUIET_PERIOD_MS, firstChange + MAX_DELAY_MS ) - System.currentTimeMillis();
+					key = wait > 0 ? service.poll( wait, TimeUnit.MILLISECONDS ) : null;
+				}
+
+				if( key != null )
+				{
+					Project project = processWatchKey( key );
+					if( project != null )
+					{
+						lastChange = System.currentTimeMillis();
+						if( changedProjects.isEmpty() )
+							firstChange = lastChange;
+						changedProjects.add( project );
+					}
+					continue;
+				}
+
+				Consumer<Project> listener = changeListener;
+				if( listener != null )
+					changedProjects.forEach( listener );
+				changedProjects.clear();
+			}
+		}
+		catch( InterruptedException | ClosedWatchServiceException e )
+		{
+			log.html( Tools.warningMessage( "stopping the projects watcher dispatcher : " + e ) );
+		}
 	}
 
-	public Set<Project> watchedProjects()
+	/**
+	 * @return the project if the event is meaningful for its build, null
+	 *         otherwise
+	 */
+	private Project processWatchKey( WatchKey key )
 	{
-		Set<Project> res = new HashSet<>();
-		watchers.entrySet().stream().forEach( e -> res.add( e.getKey() ) );
-		return res;
+		Project project = null;
+		ProjectWatcher watcher = null;
+		synchronized( this )
+		{
+			for( Entry<Project, ProjectWatcher> e : watchers.entrySet() )
+			{
+				if( e.getValue().watches( key ) )
+				{
+					project = e.getKey();
+					watcher = e.getValue();
+					break;
+				}
+			}
+		}
+
+		if( watcher == null )
+		{
+			key.pollEvents();
+			key.reset();
+			return null;
+		}
+
+		return watcher.processWatchKey( key ) ? project : null;
 	}
 }
@@ -14,7 +14,7 @@ public class AnalyzeCommand
 	public void directory( CommandOptions options, Client client, ApplicationSession session, Log log, String directory )
 	{
 		log.html( "Analyzing directory '" + directory + "'...<br/>" );
-		log.html( "<i>possible options: verbose, nofetch, offline, profiles</i>" );
+		log.html( "<i>possible options: verbose, nofetch, offline, profiles, parallelism, incremental</i>" );
 
 		String[] profiles = null;
 		if( options.getOption( "profiles" ) != null )
@@ -26,7 +26,23 @@ public class AnalyzeCommand
 		else
 			log.html( Tools.logMessage( "<b>nofetch</b> options set, no pom resolution will be attempted" ) );
 
-		PomAnalysis.runFullRecursiveAnalysis( directory, session.session(), pomFileLoader, profiles, options.hasFlag( "verbose" ), log );
+		int parallelism = PomAnalysis.DEFAULT_PARALLELISM;
+		if( options.getOption( "parallelism" ) != null )
+		{
+			try
+			{
+				parallelism = Integer.parseInt( ((String) options.getOption( "parallelism" )).trim() );
+			}
+			catch( NumberFormatException e )
+			{
+				log.html( Tools.warningMessage( "invalid <b>parallelism</b> option, using " + parallelism + " threads" ) );
+			}
+		}
+
+		if( options.hasFlag( "incremental" ) )
+			PomAnalysis.runIncrementalAnalysis( directory, session.session(), pomFileLoader, profiles, options.hasFlag( "verbose" ), parallelism, log );
+		else
+			PomAnalysis.runFullRecursiveAnalysis( directory, session.session(), pomFileLoader, profiles, options.hasFlag( "verbose" ), parallelism, log );
 
 		log.html( "Analysis completed.<br/>" );
 	}
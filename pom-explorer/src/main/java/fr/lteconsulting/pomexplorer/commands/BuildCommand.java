@@ -46,6 +46,20 @@ public class BuildCommand
 		session.builder().buildAll();
 	}
 
+	@Help( "sets the maximum number of projects built at the same time, a project being built only when the projects it depends on are built" )
+	public void concurrency( ApplicationSession session, Log log, Integer count )
+	{
+		if( count == null || count < 1 )
+		{
+			log.html( Tools.warningMessage( "the number of concurrent builds should be at least 1" ) );
+			return;
+		}
+
+		session.builder().setMaxConcurrentBuilds( count );
+
+		log.html( "up to " + count + " projects will be built at the same time.<br/>" );
+	}
+
 	@Help( "adds a GAV to the list of maintained projects. A project needs to be found for that GAV." )
 	public void maintain( Client client, ApplicationSession session, Log log, FilteredGAVs gavs )
 	{
@@ -67,7 +81,7 @@ public class BuildCommand
 
 			toWatch.add( gav );
 
-			tx.relationsRec( gav ).stream().map( r -> tx.targetOf( r ) ).forEach( g -> toWatch.add( g ) );
+			toWatch.addAll( tx.reachableGavs( gav ) );
 		}
 
 		log.html( "<br/>" );
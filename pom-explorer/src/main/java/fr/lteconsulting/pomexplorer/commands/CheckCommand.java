@@ -54,7 +54,7 @@ public class CheckCommand
 		for( Project project : session.projects().values() )
 		{
 			// project version should be null
-			if( project.getMavenProject().getModel().getVersion() != null )
+			if( project.getPomModel().getVersion() != null )
 				continue;
 
 			// and project should have a parent
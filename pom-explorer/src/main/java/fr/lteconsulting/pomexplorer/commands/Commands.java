@@ -16,6 +16,7 @@ import fr.lteconsulting.pomexplorer.Log;
 import fr.lteconsulting.pomexplorer.Project;
 import fr.lteconsulting.pomexplorer.ApplicationSession;
 import fr.lteconsulting.pomexplorer.Tools;
+import fr.lteconsulting.pomexplorer.graph.PomGraph;
 import fr.lteconsulting.pomexplorer.model.Gav;
 import fr.lteconsulting.pomexplorer.tools.FilteredGAVs;
 import fr.lteconsulting.pomexplorer.tools.StringSplitter;
@@ -246,7 +247,8 @@ public class Commands
 			curArg++;
 		}
 
-		try
+		// the command sees the same version of the graph from start to end
+		try( PomGraph.Pin pin = session != null ? session.graph().pin() : null )
 		{
 			info.method.invoke( info.command, args );
 		}
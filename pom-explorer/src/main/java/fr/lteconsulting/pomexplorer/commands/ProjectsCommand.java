@@ -9,15 +9,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Properties;
 import java.util.Set;
 
 import org.apache.maven.model.Scm;
-import org.apache.maven.project.MavenProject;
 
 import fr.lteconsulting.pomexplorer.ApplicationSession;
 import fr.lteconsulting.pomexplorer.DefaultPomFileLoader;
 import fr.lteconsulting.pomexplorer.Log;
+import fr.lteconsulting.pomexplorer.PomAnalysis;
 import fr.lteconsulting.pomexplorer.Profile;
 import fr.lteconsulting.pomexplorer.Project;
 import fr.lteconsulting.pomexplorer.ProjectTools;
@@ -94,39 +93,17 @@ public class ProjectsCommand
 		boolean fetchMissingProjects = !options.hasFlag( "nofetch" );
 		boolean online = !options.hasFlag( "offline" );
 
-		for( Project project : list )
+		// shared by the projects so that the fetching threads are created once
+		TransitivityResolver transitivityResolver = new TransitivityResolver();
+		transitivityResolver.setParallelism( PomAnalysis.DEFAULT_PARALLELISM );
+		try
+		{
+			for( Project project : list )
+				showProject( session, project, showManagedDependencies, fetchMissingProjects, online, profiles, transitivityResolver, log, logi );
+		}
+		finally
 		{
-			MavenProject mavenProject = project.getMavenProject();
-
-			log.append( "<div class='project'>" );
-
-			log.append( "<div class='title'><span class='packaging'>" + mavenProject.getModel().getPackaging() + "</span>" );
-			if( project.isBuildable() )
-				log.append( "<span class='badge'>buildable</span>" );
-
-			Set<Gav> missingProjects = null;// project.getMissingGavsForResolution( logi, null );
-			// if( missingProjects != null && !missingProjects.isEmpty() )
-			// log.append( "<span class='badge error'>not resolvable</span>" );
-
-			log.append( "<span class='gav'>" + project.getGav().getGroupId() + ":<span class='artifactId'>" + project.getGav().getArtifactId() + "</span>:"
-					+ project.getGav().getVersion() + "</span>" );
-			log.append( "</div>" );
-
-			log.append( "<div class='properties'>" );
-			showMissingProjects( log, missingProjects );
-			log.append( "<div><div>file</div><div>" + project.getPomFile().getAbsolutePath() + "</div></div>" );
-			showParenChain( log, session, project );
-			showReferences( log, session.graph().read(), project, session, logi );
-			showScm( log, mavenProject );
-			showProperties( session, log, project );
-			ProjectTools.showDependencyManagement( project, log, session.projects(), logi );
-			ProjectTools.showPluginManagement( project, log, session.projects(), logi );
-			ProjectTools.showDependencies( project, log, session.projects(), logi );
-			ProjectTools.showPlugins( project, log, session.projects(), logi );
-			showTransitiveDependencies( showManagedDependencies, fetchMissingProjects, online, log, session.graph().read(), project, profiles, session, logi );
-			log.append( "</div>" );
-
-			log.append( "</div>" );
+			transitivityResolver.shutdown();
 		}
 
 		log.append( "</div>" );
@@ -134,6 +111,40 @@ public class ProjectsCommand
 		logi.html( log.toString() );
 	}
 
+	private void showProject( ApplicationSession session, Project project, boolean showManagedDependencies, boolean fetchMissingProjects, boolean online, Map<String, Profile> profiles,
+			TransitivityResolver transitivityResolver, StringBuilder log, Log logi )
+	{
+		log.append( "<div class='project'>" );
+
+		log.append( "<div class='title'><span class='packaging'>" + project.getPomModel().getPackaging() + "</span>" );
+		if( project.isBuildable() )
+			log.append( "<span class='badge'>buildable</span>" );
+
+		Set<Gav> missingProjects = null;// project.getMissingGavsForResolution( logi, null );
+		// if( missingProjects != null && !missingProjects.isEmpty() )
+		// log.append( "<span class='badge error'>not resolvable</span>" );
+
+		log.append( "<span class='gav'>" + project.getGav().getGroupId() + ":<span class='artifactId'>" + project.getGav().getArtifactId() + "</span>:"
+				+ project.getGav().getVersion() + "</span>" );
+		log.append( "</div>" );
+
+		log.append( "<div class='properties'>" );
+		showMissingProjects( log, missingProjects );
+		log.append( "<div><div>file</div><div>" + project.getPomFile().getAbsolutePath() + "</div></div>" );
+		showParenChain( log, session, project );
+		showReferences( log, session.graph().read(), project, session, logi );
+		showScm( log, project );
+		showProperties( session, log, project );
+		ProjectTools.showDependencyManagement( project, log, session.projects(), logi );
+		ProjectTools.showPluginManagement( project, log, session.projects(), logi );
+		ProjectTools.showDependencies( project, log, session.projects(), logi );
+		ProjectTools.showPlugins( project, log, session.projects(), logi );
+		showTransitiveDependencies( showManagedDependencies, fetchMissingProjects, online, log, session.graph().read(), project, profiles, transitivityResolver, session, logi );
+		log.append( "</div>" );
+
+		log.append( "</div>" );
+	}
+
 	private void showMissingProjects( StringBuilder log, Set<Gav> missingProjects )
 	{
 		if( missingProjects != null && !missingProjects.isEmpty() )
@@ -152,9 +163,8 @@ public class ProjectsCommand
 
 		while( current != null )
 		{
-			MavenProject mavenProject = current.getMavenProject();
-			Properties properties = mavenProject.getProperties();
-			if( properties != null && !properties.isEmpty() )
+			Map<String, String> properties = current.getPomModel().getProperties();
+			if( !properties.isEmpty() )
 			{
 				if( current != project )
 				{
@@ -167,7 +177,7 @@ public class ProjectsCommand
 					log.append( "<span style='font-style:italic;'><b>parent properties in " + current.getGav() + "</b>:</span><br/>" );
 				}
 
-				for( Entry<Object, Object> e : properties.entrySet() )
+				for( Entry<String, String> e : properties.entrySet() )
 				{
 					if( first )
 					{
@@ -193,9 +203,10 @@ public class ProjectsCommand
 			log.append( "</div></div>" );
 	}
 
-	private void showScm( StringBuilder log, MavenProject mavenProject )
+	private void showScm( StringBuilder log, Project project )
 	{
-		Scm scm = mavenProject.getScm();
+		// the scm section is not part of the pom model, the maven project is loaded on demand
+		Scm scm = project.getMavenProject().getScm();
 		if( scm != null )
 		{
 			log.append( "<div><div>scm</div><div>" );
@@ -225,13 +236,12 @@ public class ProjectsCommand
 	}
 
 	private void showTransitiveDependencies( boolean showManaged, boolean fetchMissingProjects, boolean online, StringBuilder sb, PomGraphReadTransaction tx, Project project,
-			Map<String, Profile> profiles, ApplicationSession session, Log log )
+			Map<String, Profile> profiles, TransitivityResolver transitivityResolver, ApplicationSession session, Log log )
 	{
 		sb.append( "<div><div>transitive dependencies</div><div>" );
 		
 		DefaultPomFileLoader loader = new DefaultPomFileLoader( session.session(), online );
 
-		TransitivityResolver transitivityResolver = new TransitivityResolver();
 		DependencyNode dependencyNode = transitivityResolver.getTransitiveDependencyTree( session.session(), project, true, online, profiles, loader, log );
 		Map<DependencyKey, DependencyNode> dependencies = new HashMap<>();
 		dependencyNode.visitDepth( n -> dependencies.put( n.getKey(), n ) );
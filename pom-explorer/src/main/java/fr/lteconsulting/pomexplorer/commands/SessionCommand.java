@@ -1,5 +1,7 @@
 package fr.lteconsulting.pomexplorer.commands;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -9,7 +11,13 @@ import java.util.Set;
 import fr.lteconsulting.pomexplorer.AppFactory;
 import fr.lteconsulting.pomexplorer.ApplicationSession;
 import fr.lteconsulting.pomexplorer.Client;
+import fr.lteconsulting.pomexplorer.DefaultPomFileLoader;
+import fr.lteconsulting.pomexplorer.LocalRepositoryIndex;
 import fr.lteconsulting.pomexplorer.Log;
+import fr.lteconsulting.pomexplorer.MavenResolver;
+import fr.lteconsulting.pomexplorer.PomAnalysis;
+import fr.lteconsulting.pomexplorer.PomFileLoader;
+import fr.lteconsulting.pomexplorer.SessionSnapshot;
 import fr.lteconsulting.pomexplorer.Tools;
 
 public class SessionCommand
@@ -87,4 +95,102 @@ public class SessionCommand
 
 		log.html( "Session " + index + " attached to your profile.<br/>" );
 	}
+
+	@Help( "saves the session's projects and graph to a snapshot file" )
+	public void save( ApplicationSession session, @Help( "path of the snapshot file" ) String path, Log log )
+	{
+		try
+		{
+			SessionSnapshot.save( session.session(), new File( path ), log );
+		}
+		catch( IOException e )
+		{
+			log.html( Tools.errorMessage( "cannot save the session snapshot: " + e.getMessage() ) );
+		}
+	}
+
+	@Help( "restores projects and graph from a snapshot file, pom files changed since the snapshot are analyzed again" )
+	public void load( CommandOptions options, ApplicationSession session, Log log, @Help( "path of the snapshot file" ) String path )
+	{
+		log.html( "<i>possible options: nofetch, offline</i>" );
+
+		PomFileLoader pomFileLoader = null;
+		if( !options.hasFlag( "nofetch" ) )
+			pomFileLoader = new DefaultPomFileLoader( session.session(), !options.hasFlag( "offline" ) );
+
+		try
+		{
+			SessionSnapshot.load( session.session(), new File( path ), pomFileLoader, log );
+		}
+		catch( IOException e )
+		{
+			log.html( Tools.errorMessage( "cannot load the session snapshot: " + e.getMessage() ) );
+		}
+	}
+
+	@Help( "indexes the local maven repository so that pom files are looked up without accessing the file system, the index is saved in the local repository and refreshed at the next call" )
+	public void indexLocalRepository( CommandOptions options, ApplicationSession session, Log log )
+	{
+		indexLocalRepository( options, session, log, null );
+	}
+
+	@Help( "indexes the local maven repository so that pom files are looked up without accessing the file system, the index is saved and refreshed at the next call" )
+	public void indexLocalRepository( CommandOptions options, ApplicationSession session, Log log, @Help( "path of the index file, by default in the local repository" ) String path )
+	{
+		log.html( "<i>possible options: rebuild, off</i>" );
+
+		MavenResolver resolver = session.mavenResolver();
+		if( options.hasFlag( "off" ) )
+		{
+			resolver.setLocalRepositoryIndex( null );
+			log.html( "The local repository index is not used anymore.<br/>" );
+			return;
+		}
+
+		if( resolver.getLocalRepositoryPath() == null )
+		{
+			log.html( Tools.errorMessage( "the local repository path is unknown" ) );
+			return;
+		}
+
+		long duration = System.currentTimeMillis();
+
+		File repository = new File( resolver.getLocalRepositoryPath() );
+		File indexFile = path != null ? new File( path ) : new File( repository, LocalRepositoryIndex.DEFAULT_FILE_NAME );
+
+		LocalRepositoryIndex index = null;
+		if( !options.hasFlag( "rebuild" ) && indexFile.isFile() )
+		{
+			try
+			{
+				index = LocalRepositoryIndex.load( repository, indexFile );
+				index.refresh( PomAnalysis.DEFAULT_PARALLELISM );
+			}
+			catch( IOException e )
+			{
+				log.html( Tools.warningMessage( "cannot load the local repository index, it will be rebuilt: " + e.getMessage() ) );
+				index = null;
+			}
+		}
+
+		if( index == null )
+		{
+			index = new LocalRepositoryIndex( repository );
+			index.build( PomAnalysis.DEFAULT_PARALLELISM );
+		}
+
+		try
+		{
+			index.save( indexFile );
+		}
+		catch( IOException e )
+		{
+			log.html( Tools.errorMessage( "cannot save the local repository index: " + e.getMessage() ) );
+		}
+
+		resolver.setLocalRepositoryIndex( index );
+
+		duration = System.currentTimeMillis() - duration;
+		log.html( Tools.logMessage( "local repository '" + repository.getAbsolutePath() + "' indexed: " + index.size() + " artifact versions, in " + duration + " ms" ) );
+	}
 }
@@ -6,8 +6,14 @@ import org.jgrapht.alg.ConnectivityInspector;
 import org.jgrapht.alg.CycleDetector;
 import org.jgrapht.alg.StrongConnectivityInspector;
 
+import fr.lteconsulting.pomexplorer.AnalysisStats;
+import fr.lteconsulting.pomexplorer.AnalysisStats.PomTiming;
+import fr.lteconsulting.pomexplorer.AnalysisStats.Stage;
+import fr.lteconsulting.pomexplorer.AnalysisStats.StageStats;
 import fr.lteconsulting.pomexplorer.Log;
 import fr.lteconsulting.pomexplorer.ApplicationSession;
+import fr.lteconsulting.pomexplorer.PropertyResolutionCache;
+import fr.lteconsulting.pomexplorer.TransitiveDependencyCache;
 import fr.lteconsulting.pomexplorer.graph.PomGraph.PomGraphReadTransaction;
 import fr.lteconsulting.pomexplorer.graph.relation.Relation;
 import fr.lteconsulting.pomexplorer.model.Gav;
@@ -29,6 +35,42 @@ public class StatsCommand
 
 		CycleDetector<Gav, Relation> cycles = new CycleDetector<Gav, Relation>( tx.internalGraph() );
 		log.html( "Is there cycles ? " + cycles.detectCycles() + "<br/>" );
+
+		PropertyResolutionCache cache = session.session().propertyResolutionCache();
+		log.html( "Interpolation caches: " + cache.getExpressionHits() + " hits, " + cache.getExpressionMisses() + " misses<br/>" );
+		log.html( "Shared property cache: " + cache.getPropertyHits() + " hits, " + cache.getPropertyMisses() + " misses, " + cache.size() + " projects<br/>" );
+
+		TransitiveDependencyCache transitiveCache = session.session().transitiveDependencyCache();
+		log.html( "Transitive dependency cache: " + transitiveCache.getHits() + " hits, " + transitiveCache.getMisses() + " misses, " + transitiveCache.size() + " nodes<br/>" );
+	}
+
+	@Help( "durations of the stages of the last analysis, slowest pom files and remote fetches" )
+	public void analysis( ApplicationSession session, Log log )
+	{
+		AnalysisStats stats = session.session().lastAnalysisStats();
+		if( stats == null )
+		{
+			log.html( "No analysis was run in this session<br/>" );
+			return;
+		}
+
+		log.html( "Last analysis took " + stats.getTotalMillis() + " ms with " + stats.getParallelism() + " parsing threads<br/>" );
+		log.html( "<ul>" );
+		for( Stage stage : Stage.values() )
+		{
+			StageStats stageStats = stats.getStage( stage );
+			log.html( "<li>" + stage.name().toLowerCase() + ": " + stageStats.getMillis() + " ms, " + stageStats.getCount() + " items</li>" );
+		}
+		log.html( "</ul>" );
+
+		log.html( stats.getParsedPoms() + " pom files parsed in " + stats.getParsingMillis() + " ms (summed over threads), slowest ones:<br/>" );
+		log.html( "<ul>" );
+		for( PomTiming timing : stats.getSlowestPoms() )
+			log.html( "<li>" + timing.getMicros() + " &micro;s " + timing.getPomFile().getAbsolutePath() + "</li>" );
+		log.html( "</ul>" );
+
+		log.html( "Parent and bom fetches: " + stats.getPomFetches() + " (" + stats.getFailedPomFetches() + " failed) in " + stats.getPomFetchMillis() + " ms<br/>" );
+		log.html( "Remote downloads: " + stats.getRemoteDownloads() + " (" + stats.getFailedRemoteDownloads() + " failed)<br/>" );
 	}
 
 	@Help( "gives the details of the connected components of the pom graph" )
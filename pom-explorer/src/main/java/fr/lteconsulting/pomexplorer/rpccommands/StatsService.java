@@ -0,0 +1,21 @@
+package fr.lteconsulting.pomexplorer.rpccommands;
+
+import fr.lteconsulting.pomexplorer.AnalysisStats;
+import fr.lteconsulting.pomexplorer.Client;
+import fr.lteconsulting.pomexplorer.uirpc.AnalysisStatsDto;
+
+public class StatsService
+{
+	/**
+	 * @return the statistics of the last analysis of the client's session,
+	 *         or null if no analysis was run
+	 */
+	public Object analysis( Client client )
+	{
+		AnalysisStats stats = client.getCurrentSession().session().lastAnalysisStats();
+		if( stats == null )
+			return null;
+
+		return AnalysisStatsDto.fromStats( stats );
+	}
+}
@@ -0,0 +1,91 @@
+package fr.lteconsulting.pomexplorer.uirpc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.lteconsulting.pomexplorer.AnalysisStats;
+import fr.lteconsulting.pomexplorer.AnalysisStats.PomTiming;
+import fr.lteconsulting.pomexplorer.AnalysisStats.Stage;
+import fr.lteconsulting.pomexplorer.AnalysisStats.StageStats;
+
+public class AnalysisStatsDto
+{
+	@SuppressWarnings( "unused" )
+	private long totalMillis;
+	@SuppressWarnings( "unused" )
+	private int parallelism;
+	@SuppressWarnings( "unused" )
+	private Map<String, StageDto> stages;
+	@SuppressWarnings( "unused" )
+	private int parsedPoms;
+	@SuppressWarnings( "unused" )
+	private long parsingMillis;
+	@SuppressWarnings( "unused" )
+	private List<PomDto> slowestPoms;
+	@SuppressWarnings( "unused" )
+	private int pomFetches;
+	@SuppressWarnings( "unused" )
+	private int failedPomFetches;
+	@SuppressWarnings( "unused" )
+	private long pomFetchMillis;
+	@SuppressWarnings( "unused" )
+	private long remoteDownloads;
+	@SuppressWarnings( "unused" )
+	private long failedRemoteDownloads;
+
+	public static AnalysisStatsDto fromStats( AnalysisStats stats )
+	{
+		AnalysisStatsDto dto = new AnalysisStatsDto();
+
+		dto.totalMillis = stats.getTotalMillis();
+		dto.parallelism = stats.getParallelism();
+		dto.stages = new LinkedHashMap<>();
+		for( Stage stage : Stage.values() )
+		{
+			StageStats stageStats = stats.getStage( stage );
+			dto.stages.put( stage.name().toLowerCase(), new StageDto( stageStats.getMillis(), stageStats.getCount() ) );
+		}
+		dto.parsedPoms = stats.getParsedPoms();
+		dto.parsingMillis = stats.getParsingMillis();
+		dto.slowestPoms = new ArrayList<>();
+		for( PomTiming timing : stats.getSlowestPoms() )
+			dto.slowestPoms.add( new PomDto( timing.getPomFile().getAbsolutePath(), timing.getMicros() ) );
+		dto.pomFetches = stats.getPomFetches();
+		dto.failedPomFetches = stats.getFailedPomFetches();
+		dto.pomFetchMillis = stats.getPomFetchMillis();
+		dto.remoteDownloads = stats.getRemoteDownloads();
+		dto.failedRemoteDownloads = stats.getFailedRemoteDownloads();
+
+		return dto;
+	}
+
+	static class StageDto
+	{
+		@SuppressWarnings( "unused" )
+		private final long millis;
+		@SuppressWarnings( "unused" )
+		private final int count;
+
+		StageDto( long millis, int count )
+		{
+			this.millis = millis;
+			this.count = count;
+		}
+	}
+
+	static class PomDto
+	{
+		@SuppressWarnings( "unused" )
+		private final String file;
+		@SuppressWarnings( "unused" )
+		private final long micros;
+
+		PomDto( String file, long micros )
+		{
+			this.file = file;
+			this.micros = micros;
+		}
+	}
+}
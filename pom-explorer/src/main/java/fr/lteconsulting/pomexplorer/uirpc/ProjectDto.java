@@ -50,7 +50,7 @@ public class ProjectDto
 		ProjectDto dto = new ProjectDto();
 
 		dto.gav = project.getGav().toString();
-		dto.packaging = mavenProject.getModel().getPackaging();
+		dto.packaging = project.getPomModel().getPackaging();
 		dto.buildable = project.isBuildable();
 		dto.description = mavenProject.getDescription();
 		dto.file = project.getPomFile().getAbsolutePath();
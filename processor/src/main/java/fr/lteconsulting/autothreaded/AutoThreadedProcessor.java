@@ -158,6 +158,7 @@ public class AutoThreadedProcessor extends AbstractProcessor
 		StringBuilder delegate = new StringBuilder();
 		StringBuilder methods = new StringBuilder();
 		StringBuilder loopEntry = new StringBuilder();
+		StringBuilder messageQueued = new StringBuilder();
 
 		int id = -1;
 		for( Element child : element.getEnclosedElements() )
@@ -177,6 +178,18 @@ public class AutoThreadedProcessor extends AbstractProcessor
 				continue;
 			}
 
+			if( "onMessageQueued".equals( method.getSimpleName().toString() ) && method.getModifiers().contains( Modifier.PROTECTED ) )
+			{
+				processingEnv.getMessager().printMessage( Kind.NOTE, "This method will be called when a message is queued", child );
+				messageQueued.append( "\n\n\t\t@Override\n" );
+				messageQueued.append( "\t\tprotected void onMessageQueued()\n" );
+				messageQueued.append( "\t\t{\n" );
+				messageQueued.append( "                    " + autothreadedName + ".this.onMessageQueued();\n" );
+				messageQueued.append( "\t\t}" );
+
+				continue;
+			}
+
 			if( !child.getModifiers().contains( Modifier.PUBLIC ) )
 				continue;
 
@@ -343,6 +356,7 @@ public class AutoThreadedProcessor extends AbstractProcessor
 		template = template.replaceAll( "DELEGATE", delegate.toString() );
 		template = template.replaceAll( "METHODS", methods.toString() );
 		template = template.replaceAll( "EMPTY_QUEUE", loopEntry.toString() );
+		template = template.replaceAll( "MESSAGE_QUEUED", messageQueued.toString() );
 
 		try
 		{
@@ -22,6 +22,13 @@ public abstract class BaseAutoThreaded
 	{
 	}
 
+	/**
+	 * Called on the sender's thread once a message is queued
+	 */
+	protected void onMessageQueued()
+	{
+	}
+
 	private static volatile int nextBaseAutoThreadedId = 0;
 
 	private final int baseAutoThreadedId;
@@ -92,6 +99,8 @@ public abstract class BaseAutoThreaded
 				throw new RuntimeException(e);
 			}
 
+			onMessageQueued();
+
 			while (message.isWaitingResult())
 			{
 				try
@@ -128,6 +137,8 @@ public abstract class BaseAutoThreaded
 				e.printStackTrace();
 				throw new RuntimeException(e);
 			}
+
+			onMessageQueued();
 		}
 
 		return new Future<Object>()